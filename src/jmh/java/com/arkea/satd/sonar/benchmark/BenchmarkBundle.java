@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+
+import com.arkea.satd.sonar.BundleGenerator;
+import com.arkea.satd.sonar.SensorTester;
+
+/**
+ * Synthetic Apigee bundle used by the benchmarks : one proxy, with one policy of each of the 10 default types per 10 policies.
+ * The content only depends on the number of policies, so that the results are reproducible.
+ */
+public class BenchmarkBundle {
+
+	private final Path baseDir;
+	private final List<DefaultInputFile> inputFiles;
+
+	private BenchmarkBundle(Path baseDir, List<DefaultInputFile> inputFiles) {
+		this.baseDir = baseDir;
+		this.inputFiles = inputFiles;
+	}
+
+	public Path getBaseDir() {
+		return baseDir;
+	}
+
+	public List<DefaultInputFile> getInputFiles() {
+		return inputFiles;
+	}
+
+	/**
+	 * Writes a bundle with the given number of policies in a new temporary directory
+	 */
+	public static BenchmarkBundle create(int policiesCount) throws IOException {
+		int perType = Math.max(1, policiesCount / 10);
+		Path baseDir = new BundleGenerator(new BundleGenerator.Config()
+				.proxies(1)
+				.flows(perType)
+				.policiesPerType(perType)
+				.conditionComplexity(2)
+				.violationRate(0.05))
+			.generate(Files.createTempDirectory("apigee-benchmark"));
+
+		List<Path> paths;
+		try (Stream<Path> stream = Files.walk(baseDir)) {
+			paths = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		List<DefaultInputFile> inputFiles = new ArrayList<>();
+		for(Path path : paths) {
+			inputFiles.add(SensorTester.createInputFile(baseDir, path));
+		}
+		return new BenchmarkBundle(baseDir, inputFiles);
+	}
+}
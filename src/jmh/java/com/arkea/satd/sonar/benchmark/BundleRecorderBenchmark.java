@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Node;
+
+import com.arkea.satd.sonar.xml.BundleGraph;
+import com.arkea.satd.sonar.xml.BundleRecorder;
+
+/**
+ * Benchmark of the BundleRecorder indexing and of each search method.
+ * The searched names are those of the last RaiseFault policy of the bundle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BundleRecorderBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int policies;
+
+	private List<XmlFile> xmlFiles;
+	private String lastPolicy;
+
+	@Setup(Level.Trial)
+	public void createBundle() throws IOException {
+		BenchmarkBundle bundle = BenchmarkBundle.create(policies);
+		xmlFiles = new ArrayList<>();
+		for(DefaultInputFile inputFile : bundle.getInputFiles()) {
+			xmlFiles.add(XmlFile.create(inputFile));
+		}
+		index();
+		lastPolicy = "RF-p0-" + (Math.max(1, policies / 10) - 1);
+	}
+
+	@Benchmark
+	public int index() {
+		BundleRecorder.clear();
+		xmlFiles.forEach(BundleRecorder::storeFile);
+		return xmlFiles.size();
+	}
+
+	@Benchmark
+	public List<XmlFile> searchByStepName() {
+		return BundleRecorder.searchByStepName(lastPolicy);
+	}
+
+	@Benchmark
+	public List<XmlFile> searchPoliciesByType() {
+		return BundleRecorder.searchPoliciesByType("Quota");
+	}
+
+	@Benchmark
+	public XmlFile searchPoliciesByName() {
+		return BundleRecorder.searchPoliciesByName(lastPolicy);
+	}
+
+	@Benchmark
+	public Map<Node, XmlFile> searchStepsByName() {
+		return BundleRecorder.searchStepsByName(lastPolicy);
+	}
+
+	@Benchmark
+	public XmlFile searchTargetEndpointByName() {
+		return BundleRecorder.searchTargetEndpointByName("default");
+	}
+
+	@Benchmark
+	public List<XmlFile> searchPoliciesByResourceURL() {
+		return BundleRecorder.searchPoliciesByResourceURL("xsl://resource-0.xsl");
+	}
+
+	@Benchmark
+	public int indexGraph() {
+		index();
+		return BundleRecorder.getGraph().getStepCount();
+	}
+
+	@Benchmark
+	public boolean graphIsAttached() {
+		BundleGraph graph = BundleRecorder.getGraph();
+		return graph.isAttached(graph.getNameId(lastPolicy));
+	}
+
+	@Benchmark
+	public int graphStepCount() {
+		BundleGraph graph = BundleRecorder.getGraph();
+		return graph.getStepCount(graph.getNameId(lastPolicy));
+	}
+}
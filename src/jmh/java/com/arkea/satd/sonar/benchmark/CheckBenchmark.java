@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.rule.RuleKey;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
+
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.CheckRepository;
+
+/**
+ * Benchmark of the scanFile of one check on all the files of an indexed bundle.
+ * Use -p check=... to restrict the run to some checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CheckBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int policies;
+
+	@Param({"AvoidPythonCheck",
+			"CacheCoherenceCheck",
+			"ConditionLengthCheck",
+			"DescriptionCheck",
+			"DescriptionPatternCheck",
+			"EmptyRouteRuleLastCheck",
+			"EmptyStepCheck",
+			"ExtractVariablesCheck",
+			"FaultRuleAndDefaultFaultRuleCheck",
+			"FaultRuleConditionCheck",
+			"IgnoreUnresolvedVariablesWithoutFaultRuleCheck",
+			"MultipleStatsCollectorsCheck",
+			"NondistributedQuotaCheck",
+			"PolicyDisplayNameCheck",
+			"PolicyNameConventionCheck",
+			"QuotaPolicyReuseCheck",
+			"RegexLookAroundCheck",
+			"ResponseCacheErrorResponseCheck",
+			"RouteRulesToTargetCheck",
+			"ServiceCalloutRequestVariableNameCheck",
+			"ServiceCalloutResponseVariableNameCheck",
+			"ThreatProtectionCheck",
+			"TooMuchPoliciesCheck",
+			"TooMuchProxyEndpointsCheck",
+			"TooMuchResourcesCheck",
+			"TooMuchTargetEndpointsCheck",
+			"UnattachedPolicyCheck",
+			"UnattachedResourceCheck",
+			"UnconditionalFlowCheck",
+			"UnknownResourceFlowCheck",
+			"UnreachableFlowCheck",
+			"UnreachableRouteRuleCheck",
+			"UseFaultRulesCheck",
+			"UseManagementServerCheck",
+			"UseTargetServersCheck"})
+	public String check;
+
+	private List<XmlFile> xmlFiles;
+	private SonarXmlCheck sonarXmlCheck;
+	private RuleKey ruleKey;
+	private SensorContextTester context;
+
+	@Setup(Level.Trial)
+	public void createBundle() throws IOException, ReflectiveOperationException {
+		BenchmarkBundle bundle = BenchmarkBundle.create(policies);
+		xmlFiles = new ArrayList<>();
+		BundleRecorder.clear();
+		for(DefaultInputFile inputFile : bundle.getInputFiles()) {
+			XmlFile xmlFile = XmlFile.create(inputFile);
+			BundleRecorder.storeFile(xmlFile);
+			xmlFiles.add(xmlFile);
+		}
+
+		for(Class<?> checkClass : CheckRepository.getCheckClasses()) {
+			if(checkClass.getSimpleName().equals(check)) {
+				sonarXmlCheck = (SonarXmlCheck) checkClass.getDeclaredConstructor().newInstance();
+			}
+		}
+		if(sonarXmlCheck == null) {
+			throw new IllegalArgumentException("Unknown check " + check);
+		}
+		ruleKey = RuleKey.of(CheckRepository.REPOSITORY_KEY, check);
+	}
+
+	@Setup(Level.Iteration)
+	public void createContext() {
+		// Issues are stored in the context, a new one per iteration keeps the heap bounded
+		context = SensorContextTester.create(Paths.get(""));
+		ApigeeXmlSensor.setContext(context);
+	}
+
+	@Benchmark
+	public SensorContextTester scanFile() {
+		for(XmlFile xmlFile : xmlFiles) {
+			sonarXmlCheck.scanFile(context, ruleKey, xmlFile);
+		}
+		return context;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.rule.internal.NewActiveRule;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.rule.RuleKey;
+
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.CheckRepository;
+
+/**
+ * End to end benchmark of ApigeeXmlSensor.execute, with all the rules activated
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SensorBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int policies;
+
+	private BenchmarkBundle bundle;
+	private ApigeeXmlSensor sensor;
+	private SensorContextTester context;
+
+	@Setup(Level.Trial)
+	public void createBundle() throws IOException {
+		bundle = BenchmarkBundle.create(policies);
+
+		DefaultFileSystem fs = new DefaultFileSystem(bundle.getBaseDir());
+		fs.setWorkDir(Files.createTempDirectory("apigee-benchmark-work"));
+		bundle.getInputFiles().forEach(fs::add);
+
+		ActiveRulesBuilder activeRules = new ActiveRulesBuilder();
+		for(Class<?> check : CheckRepository.getCheckClasses()) {
+			activeRules.addRule(new NewActiveRule.Builder()
+					.setRuleKey(RuleKey.of(CheckRepository.REPOSITORY_KEY, check.getSimpleName()))
+					.build());
+		}
+		sensor = new ApigeeXmlSensor(fs, new CheckFactory(activeRules.build()));
+	}
+
+	@Setup(Level.Iteration)
+	public void createContext() {
+		// Issues are stored in the context, a new one per iteration keeps the heap bounded
+		context = SensorContextTester.create(bundle.getBaseDir());
+	}
+
+	@Benchmark
+	public SensorContextTester execute() {
+		sensor.execute(context);
+		return context;
+	}
+}
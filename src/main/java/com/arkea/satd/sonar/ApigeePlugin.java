@@ -17,6 +17,8 @@ package com.arkea.satd.sonar;
 
 import org.sonar.api.Plugin;
 
+import com.arkea.satd.sonar.xml.ApigeeProjectSensor;
+import com.arkea.satd.sonar.xml.ApigeeProperties;
 import com.arkea.satd.sonar.xml.ApigeeXmlRulesDefinition;
 import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
 import com.arkea.satd.sonar.xml.ApigeeXmlSonarWayProfile;
@@ -36,9 +38,11 @@ public class ApigeePlugin implements Plugin {
 			//Xml.class, // Already imported by sonar-xml-plugin
 			ApigeeXmlRulesDefinition.class,
 			ApigeeXmlSensor.class,
+			ApigeeProjectSensor.class,
 			ApigeeXmlSonarWayProfile.class
 			
 		);
+		context.addExtensions(ApigeeProperties.getProperties());
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.sonar.api.batch.rule.CheckFactory;
+
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.BundleModel;
+import com.arkea.satd.sonar.xml.LocalInputFile;
+import com.arkea.satd.sonar.xml.ZipBundle;
+
+/**
+ * Command line analyzer : runs all the Apigee checks on bundle directories, without a SonarQube scanner.
+ * 
+ * Usage : ApigeeLint [-f text|json|sarif] [-o file] [-Dkey=value]... [-w] [-v] path...
+ *         ApigeeLint --export [--revisions all|latest|deployed] [--deployments file] [-j threads] [-f text|json|sarif] [-o file] [-Dkey=value]... [-v] directory...
+ * A directory is analysed with all its xml files and zipped bundles. A file is analysed with the whole bundle (apiproxy or sharedflowbundle)
+ * holding it, so that the checks across files see the same bundle as in a SonarQube analysis.
+ * The entries of a zipped bundle are read from the archive, their paths being the archive path, "!/" and the entry name.
+ * With --export, the paths are exports of Apigee organizations, whose bundles are analyzed in parallel, see {@link BulkAnalysis}.
+ * In watch mode, the analysis is kept in memory and the report is written again after each change of the files, see {@link IncrementalAnalysis}.
+ * Exit code : 0 without issues, 1 with issues, 2 on error.
+ */
+public final class ApigeeLint {
+
+	static final int EXIT_OK = 0;
+	static final int EXIT_ISSUES = 1;
+	static final int EXIT_ERROR = 2;
+
+	static final List<String> BUNDLE_DIRECTORIES = BundleModel.BUNDLE_DIRECTORIES;
+
+	private static final String USAGE = "Usage : ApigeeLint [-f text|json|sarif] [-o file] [-Dkey=value]... [-w] [-v] path...\n"
+			+ "        ApigeeLint --export [--revisions all|latest|deployed] [--deployments file] [-j threads] [-f text|json|sarif] [-o file] [-Dkey=value]... [-v] directory...";
+
+	private ApigeeLint() {
+		// Private constructor
+	}
+
+	public static void main(String[] args) {
+		PrintStream out = System.out;
+		// The analyzer logs on the standard output : only show the logs in verbose mode, on the error output
+		boolean verbose = Arrays.asList(args).contains("-v") || Arrays.asList(args).contains("--verbose");
+		System.setOut(verbose ? System.err : new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+				// Nothing to do
+			}
+		}));
+		System.exit(run(args, out, System.err));
+	}
+
+	/**
+	 * Parses the arguments, runs the analysis and writes the report
+	 * @return the exit code
+	 */
+	static int run(String[] args, PrintStream out, PrintStream err) {
+		IssueFormat format = IssueFormat.TEXT;
+		Path output = null;
+		Map<String, String> properties = new LinkedHashMap<>();
+		List<Path> paths = new ArrayList<>();
+		boolean watch = false;
+		boolean export = false;
+		ExportedBundle.Revisions revisions = ExportedBundle.Revisions.ALL;
+		Path deployments = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		try {
+			for(int i=0; i<args.length; i++) {
+				String arg = args[i];
+				if("-f".equals(arg) || "--format".equals(arg)) {
+					format = IssueFormat.of(value(args, ++i));
+				} else if("-o".equals(arg) || "--output".equals(arg)) {
+					output = Paths.get(value(args, ++i));
+				} else if(arg.startsWith("-D") && arg.indexOf('=') > 2) {
+					properties.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+				} else if("-w".equals(arg) || "--watch".equals(arg)) {
+					watch = true;
+				} else if("--export".equals(arg)) {
+					export = true;
+				} else if("--revisions".equals(arg)) {
+					revisions = ExportedBundle.Revisions.of(value(args, ++i));
+				} else if("--deployments".equals(arg)) {
+					deployments = Paths.get(value(args, ++i));
+				} else if("-j".equals(arg) || "--threads".equals(arg)) {
+					threads = Integer.parseInt(value(args, ++i));
+				} else if("-v".equals(arg) || "--verbose".equals(arg)) {
+					// Handled by main
+				} else if("-h".equals(arg) || "--help".equals(arg)) {
+					out.println(USAGE);
+					return EXIT_OK;
+				} else if(arg.startsWith("-")) {
+					throw new IllegalArgumentException("Unknown option " + arg);
+				} else {
+					paths.add(Paths.get(arg));
+				}
+			}
+			if(paths.isEmpty()) {
+				throw new IllegalArgumentException("No path to analyze");
+			}
+			if(revisions == ExportedBundle.Revisions.DEPLOYED && deployments == null) {
+				throw new IllegalArgumentException("The deployed revisions need a deployments file");
+			}
+			if(threads < 1) {
+				throw new IllegalArgumentException("Invalid number of threads " + threads);
+			}
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return EXIT_ERROR;
+		}
+
+		try {
+			Path baseDir = Paths.get("").toAbsolutePath();
+			LocalActiveRules rules = new LocalActiveRules();
+			if(watch) {
+				return watch(baseDir, paths, rules, properties, format, output, out, err);
+			}
+			List<LocalIssue> issues;
+			if(export) {
+				issues = analyzeExports(baseDir, paths, revisions, deployments, threads, rules, properties, err);
+			} else {
+				issues = analyze(baseDir, collectFiles(paths), rules, properties);
+			}
+			write(issues, rules, format, output, out);
+			return issues.isEmpty() ? EXIT_OK : EXIT_ISSUES;
+		} catch (IOException e) {
+			err.println("Apigee analysis failed : " + e.getMessage());
+			return EXIT_ERROR;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			err.println("Apigee analysis interrupted");
+			return EXIT_ERROR;
+		}
+	}
+
+	/**
+	 * Runs the Apigee sensor on the files
+	 * @return the issues
+	 */
+	static List<LocalIssue> analyze(Path baseDir, List<Path> files, LocalActiveRules rules, Map<String, String> properties) throws IOException {
+		Path workDir = Files.createTempDirectory("apigee-lint");
+		List<ZipBundle> archives = new ArrayList<>();
+		try {
+			LocalFileSystem fileSystem = new LocalFileSystem(baseDir, workDir);
+			for(Path file : files) {
+				if(isZip(file)) {
+					ZipBundle archive = new ZipBundle(file, relativePath(baseDir, file));
+					archives.add(archive);
+					archive.getInputFiles().forEach(fileSystem::add);
+				} else {
+					fileSystem.add(new LocalInputFile(file, relativePath(baseDir, file)));
+				}
+			}
+			LocalSensorContext context = new LocalSensorContext(fileSystem, rules, properties);
+			new ApigeeXmlSensor(fileSystem, new CheckFactory(rules)).execute(context);
+			return context.getIssues();
+		} finally {
+			// The sensor keeps the context in a static field
+			ApigeeXmlSensor.setContext(null);
+			for(ZipBundle archive : archives) {
+				archive.close();
+			}
+			delete(workDir);
+		}
+	}
+
+	/**
+	 * Finds and selects the bundles of the organization exports, and analyzes them in parallel.
+	 * A summary line is printed on the error output.
+	 * @return the issues of all the bundles
+	 */
+	static List<LocalIssue> analyzeExports(Path baseDir, List<Path> exportDirs, ExportedBundle.Revisions revisions, Path deployments, int threads,
+			LocalActiveRules rules, Map<String, String> properties, PrintStream err) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		List<ExportedBundle> bundles = new ArrayList<>();
+		for(Path exportDir : exportDirs) {
+			if(!Files.isDirectory(exportDir)) {
+				throw new IOException("No such directory " + exportDir);
+			}
+			bundles.addAll(ExportedBundle.find(exportDir.toAbsolutePath().normalize()));
+		}
+		List<ExportedBundle> selected = ExportedBundle.select(bundles, revisions,
+				deployments == null ? Collections.<String>emptySet() : ExportedBundle.readDeployments(deployments));
+
+		BulkAnalysis analysis = new BulkAnalysis(baseDir, rules, properties, threads);
+		List<LocalIssue> issues = analysis.analyze(selected);
+		err.println(String.format(Locale.ENGLISH, "%d bundle(s) found, %d analyzed (%d identical to an other one), %d file(s) analyzed (%d identical to an other one) in %d ms : %d issue(s)",
+				bundles.size(), selected.size(), analysis.getCopiedBundlesCount(), analysis.getFilesCount(), analysis.getCopiedFilesCount(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), issues.size()));
+		return issues;
+	}
+
+	/**
+	 * Analyzes the files, then analyzes again the changed files until the thread is interrupted.
+	 * The report is written after each analysis, and a summary line on the error output.
+	 * @return the exit code of the last analysis
+	 */
+	static int watch(Path baseDir, List<Path> paths, LocalActiveRules rules, Map<String, String> properties, IssueFormat format, Path output, PrintStream out, PrintStream err) throws IOException {
+		long start = System.nanoTime();
+		List<LocalIssue> issues = Collections.emptyList();
+		try (BundleWatcher watcher = new BundleWatcher(paths);
+				IncrementalAnalysis analysis = new IncrementalAnalysis(baseDir, collectFiles(paths), rules, properties)) {
+			issues = analysis.getIssues();
+			write(issues, rules, format, output, out);
+			err.println(String.format(Locale.ENGLISH, "Analyzed in %d ms : %d issue(s). Watching for changes...", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), issues.size()));
+
+			while(!Thread.currentThread().isInterrupted()) {
+				List<Path> changed = watcher.take();
+				start = System.nanoTime();
+				int parsed = analysis.update(changed);
+				issues = analysis.getIssues();
+				write(issues, rules, format, output, out);
+				err.println(String.format(Locale.ENGLISH, "%d change(s), %d file(s) parsed, analyzed in %d ms : %d issue(s)", changed.size(), parsed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), issues.size()));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return issues.isEmpty() ? EXIT_OK : EXIT_ISSUES;
+	}
+
+	private static void write(List<LocalIssue> issues, LocalActiveRules rules, IssueFormat format, Path output, PrintStream out) throws IOException {
+		try (Writer writer = new OutputStreamWriter(output == null ? new UnclosableOutputStream(out) : Files.newOutputStream(output), StandardCharsets.UTF_8)) {
+			format.write(issues, rules, writer);
+		}
+	}
+
+	/**
+	 * The xml files and zipped bundles of the directories, the xml files of the bundles holding the files, and the zipped bundles
+	 */
+	static List<Path> collectFiles(List<Path> paths) throws IOException {
+		Set<Path> files = new LinkedHashSet<>();
+		for(Path path : paths) {
+			Path absolute = path.toAbsolutePath().normalize();
+			if(!Files.exists(absolute)) {
+				throw new IOException("No such file or directory " + path);
+			}
+			Path root = Files.isDirectory(absolute) || isZip(absolute) ? absolute : bundleRoot(absolute);
+			if(root == null || isZip(root)) {
+				files.add(absolute);
+			} else {
+				try (Stream<Path> stream = Files.walk(root)) {
+					stream.filter(Files::isRegularFile)
+						.filter(file -> ZipBundle.isXml(file.toString()) || isZip(file))
+						.filter(file -> !isHidden(root.relativize(file)))
+						.sorted()
+						.forEach(files::add);
+				}
+			}
+		}
+		return new ArrayList<>(files);
+	}
+
+	/**
+	 * @return the apiproxy or sharedflowbundle directory holding the file, null if none
+	 */
+	static Path bundleRoot(Path file) {
+		return BundleModel.bundleRoot(file);
+	}
+
+	static boolean isZip(Path file) {
+		return file.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith("." + ZipBundle.EXTENSION);
+	}
+
+	static boolean isHidden(Path relativePath) {
+		for(Path name : relativePath) {
+			if(name.toString().startsWith(".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static String relativePath(Path baseDir, Path file) {
+		Path path = file.startsWith(baseDir) ? baseDir.relativize(file) : file;
+		return path.toString().replace('\\', '/');
+	}
+
+	private static String value(String[] args, int i) {
+		if(i >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+		}
+		return args[i];
+	}
+
+	static void delete(Path directory) throws IOException {
+		try (Stream<Path> stream = Files.walk(directory)) {
+			for(Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	/**
+	 * Lets the report writer be closed without closing the standard output
+	 */
+	private static class UnclosableOutputStream extends OutputStream {
+		private final OutputStream delegate;
+
+		UnclosableOutputStream(OutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			delegate.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.flush();
+		}
+	}
+}
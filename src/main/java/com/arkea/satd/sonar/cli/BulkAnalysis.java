@@ -0,0 +1,294 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+
+import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.LocalInputFile;
+import com.arkea.satd.sonar.xml.ZipBundle;
+
+/**
+ * Analysis of many bundles, such as the revisions of the proxies and shared flows of an organization export.
+ * The bundles are analyzed in parallel, each one alone on a worker thread, with the BundleRecorder of the thread,
+ * and their documents are released once the bundle is analyzed.
+ * The files are de-duplicated by content hash : a bundle identical to an analyzed one gets a copy of its issues without being parsed,
+ * and the file checks are not run again on a file identical to an analyzed one, its issues being copied.
+ */
+final class BulkAnalysis {
+
+	private static final Logger LOG = Loggers.get(BulkAnalysis.class);
+
+	private final Path baseDir;
+	private final LocalActiveRules rules;
+	private final Map<String, String> properties;
+	private final int threads;
+
+	// Issues of the analyzed bundles and of the file checks of the analyzed files, by content hash
+	private final ConcurrentMap<String, CompletableFuture<Analyzed>> analyzedBundles = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, CompletableFuture<Analyzed>> analyzedFiles = new ConcurrentHashMap<>();
+
+	private final AtomicInteger bundlesCount = new AtomicInteger();
+	private final AtomicInteger copiedBundlesCount = new AtomicInteger();
+	private final AtomicInteger filesCount = new AtomicInteger();
+	private final AtomicInteger copiedFilesCount = new AtomicInteger();
+
+	BulkAnalysis(Path baseDir, LocalActiveRules rules, Map<String, String> properties, int threads) {
+		this.baseDir = baseDir;
+		this.rules = rules;
+		this.properties = properties;
+		this.threads = threads;
+	}
+
+	/**
+	 * Analyzes the bundles
+	 * @return the issues of all the bundles
+	 */
+	List<LocalIssue> analyze(List<ExportedBundle> bundles) throws IOException, InterruptedException {
+		Path workDir = Files.createTempDirectory("apigee-lint");
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "apigee-bulk-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			LocalFileSystem fileSystem = new LocalFileSystem(baseDir, workDir);
+			List<Future<List<LocalIssue>>> futures = new ArrayList<>();
+			for(ExportedBundle bundle : bundles) {
+				futures.add(executor.submit(() -> analyze(bundle, fileSystem)));
+			}
+			List<LocalIssue> issues = new ArrayList<>();
+			for(Future<List<LocalIssue>> future : futures) {
+				issues.addAll(get(future));
+			}
+			return issues;
+		} finally {
+			executor.shutdownNow();
+			ApigeeLint.delete(workDir);
+		}
+	}
+
+	/**
+	 * @return the number of analyzed bundles, including the copied ones
+	 */
+	int getBundlesCount() {
+		return bundlesCount.get();
+	}
+
+	/**
+	 * @return the number of bundles identical to an analyzed one
+	 */
+	int getCopiedBundlesCount() {
+		return copiedBundlesCount.get();
+	}
+
+	/**
+	 * @return the number of analyzed files, excluding the files of the copied bundles
+	 */
+	int getFilesCount() {
+		return filesCount.get();
+	}
+
+	/**
+	 * @return the number of files identical to an analyzed one, in bundles which are not copied
+	 */
+	int getCopiedFilesCount() {
+		return copiedFilesCount.get();
+	}
+
+	private List<LocalIssue> analyze(ExportedBundle bundle, LocalFileSystem fileSystem) throws IOException, InterruptedException {
+		bundlesCount.incrementAndGet();
+		ZipBundle archive = bundle.isZip() ? new ZipBundle(bundle.getPath(), ApigeeLint.relativePath(baseDir, bundle.getPath())) : null;
+		try {
+			// The files by path in the bundle, and their hashes
+			Map<String, InputFile> inputFiles = inputFiles(bundle, archive);
+			Map<String, String> hashes = new HashMap<>();
+			StringBuilder bundleContent = new StringBuilder();
+			for(Map.Entry<String, InputFile> entry : inputFiles.entrySet()) {
+				String hash = hash(entry.getValue().contents());
+				hashes.put(entry.getKey(), hash);
+				bundleContent.append(entry.getKey()).append(' ').append(hash).append('\n');
+			}
+
+			CompletableFuture<Analyzed> analyzed = new CompletableFuture<>();
+			CompletableFuture<Analyzed> identical = analyzedBundles.putIfAbsent(hash(bundleContent.toString()), analyzed);
+			if(identical != null) {
+				copiedBundlesCount.incrementAndGet();
+				LOG.debug("{} is identical to an analyzed bundle", bundle);
+				return get(identical).copyTo(inputFiles);
+			}
+			try {
+				analyzed.complete(new Analyzed(scan(inputFiles, hashes, fileSystem), inputFiles));
+			} catch (RuntimeException | Error e) {
+				analyzed.completeExceptionally(e);
+				throw e;
+			}
+			return analyzed.join().issues;
+		} finally {
+			if(archive != null) {
+				archive.close();
+			}
+		}
+	}
+
+	/**
+	 * Parses and stores the files of the bundle in the BundleRecorder of the current thread, and runs the checks
+	 */
+	private List<LocalIssue> scan(Map<String, InputFile> inputFiles, Map<String, String> hashes, LocalFileSystem fileSystem) throws IOException, InterruptedException {
+		List<LocalIssue> issues = new ArrayList<>();
+		BundleRecorder.clear();
+		try (CheckScanner scanner = new CheckScanner(fileSystem, rules, properties)) {
+			Map<String, XmlFile> xmlFiles = new TreeMap<>();
+			for(Map.Entry<String, InputFile> entry : inputFiles.entrySet()) {
+				try {
+					XmlFile xmlFile = XmlFile.create(entry.getValue());
+					BundleRecorder.storeFile(xmlFile);
+					xmlFiles.put(entry.getKey(), xmlFile);
+				} catch(Exception e) {
+					// Case of parse exception
+					LOG.debug("Unable to parse {}", entry.getValue(), e);
+				}
+			}
+
+			for(Map.Entry<String, XmlFile> entry : xmlFiles.entrySet()) {
+				filesCount.incrementAndGet();
+				String path = entry.getKey();
+				InputFile inputFile = inputFiles.get(path);
+				// The file checks only depend on the content of the file
+				CompletableFuture<Analyzed> analyzed = new CompletableFuture<>();
+				CompletableFuture<Analyzed> identical = analyzedFiles.putIfAbsent(path + " " + hashes.get(path), analyzed);
+				if(identical != null) {
+					copiedFilesCount.incrementAndGet();
+					issues.addAll(get(identical).copyTo(inputFiles));
+				} else {
+					try {
+						analyzed.complete(new Analyzed(scanner.scan(entry.getValue(), false), Collections.singletonMap(path, inputFile)));
+					} catch (RuntimeException | Error e) {
+						analyzed.completeExceptionally(e);
+						throw e;
+					}
+					issues.addAll(analyzed.join().issues);
+				}
+				issues.addAll(scanner.scan(entry.getValue(), true));
+			}
+		} finally {
+			BundleRecorder.release();
+		}
+		return issues;
+	}
+
+	/**
+	 * @return the xml files of the bundle, by path in the bundle
+	 */
+	private Map<String, InputFile> inputFiles(ExportedBundle bundle, ZipBundle archive) throws IOException {
+		Map<String, InputFile> inputFiles = new TreeMap<>();
+		if(archive != null) {
+			for(InputFile inputFile : archive.getInputFiles()) {
+				inputFiles.put(inputFile.relativePath().substring(archive.getKey().length() + ZipBundle.SEPARATOR.length()), inputFile);
+			}
+		} else {
+			Path parent = bundle.getPath().getParent();
+			try (Stream<Path> stream = Files.walk(bundle.getPath())) {
+				for(Path file : stream.filter(Files::isRegularFile)
+						.filter(file -> ZipBundle.isXml(file.toString()))
+						.filter(file -> !ApigeeLint.isHidden(parent.relativize(file)))
+						.collect(Collectors.toList())) {
+					inputFiles.put(parent.relativize(file).toString().replace('\\', '/'), new LocalInputFile(file, ApigeeLint.relativePath(baseDir, file)));
+				}
+			}
+		}
+		return inputFiles;
+	}
+
+	private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	static String hash(String content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for(byte b : digest) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Issues of analyzed files, with the files by path in the bundle
+	 */
+	private static final class Analyzed {
+		private final List<LocalIssue> issues;
+		private final Map<String, InputFile> inputFiles;
+
+		Analyzed(List<LocalIssue> issues, Map<String, InputFile> inputFiles) {
+			this.issues = issues;
+			this.inputFiles = inputFiles;
+		}
+
+		/**
+		 * @return the issues, located on the files having the same paths in an other bundle
+		 */
+		List<LocalIssue> copyTo(Map<String, InputFile> otherFiles) {
+			Map<InputComponent, InputComponent> components = new HashMap<>();
+			inputFiles.forEach((path, inputFile) -> components.put(inputFile, otherFiles.get(path)));
+			return issues.stream().map(issue -> issue.relocate(components)).collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.arkea.satd.sonar.xml.ZipBundle;
+
+/**
+ * Watches the directories of the analyzed files, and returns the analyzed files changed, created or deleted.
+ * The events following each other within a short delay, such as the ones of an editor saving a file, are returned together.
+ */
+final class BundleWatcher implements Closeable {
+
+	static final long QUIET_PERIOD_MILLIS = 50;
+
+	private final WatchService watchService;
+	// Watched directories, whose analyzed files are all the xml files and zipped bundles
+	private final List<Path> roots = new ArrayList<>();
+	// Watched files outside of the directories
+	private final Set<Path> files = new LinkedHashSet<>();
+
+	/**
+	 * @param paths the paths given to the analyzer : a directory is watched with its sub-directories, a file with its bundle
+	 */
+	BundleWatcher(List<Path> paths) throws IOException {
+		this.watchService = FileSystems.getDefault().newWatchService();
+		for(Path path : paths) {
+			Path absolute = path.toAbsolutePath().normalize();
+			Path root = Files.isDirectory(absolute) || ApigeeLint.isZip(absolute) ? absolute : ApigeeLint.bundleRoot(absolute);
+			if(root == null || !Files.isDirectory(root)) {
+				files.add(absolute);
+				absolute.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+			} else {
+				roots.add(root);
+				register(root);
+			}
+		}
+	}
+
+	/**
+	 * Waits for changes
+	 * @return the changed analyzed files, existing or not anymore
+	 */
+	List<Path> take() throws InterruptedException, IOException {
+		Set<Path> changed = new LinkedHashSet<>();
+		WatchKey key = watchService.take();
+		while(key != null) {
+			Path directory = (Path) key.watchable();
+			for(WatchEvent<?> event : key.pollEvents()) {
+				if(event.kind() != OVERFLOW) {
+					Path path = directory.resolve((Path) event.context());
+					if(event.kind() == ENTRY_CREATE && Files.isDirectory(path) && isUnderRoot(path)) {
+						// The files of a new directory may be created before it is watched
+						register(path);
+						try (Stream<Path> stream = Files.walk(path)) {
+							changed.addAll(stream.filter(Files::isRegularFile).filter(this::isAnalyzed).collect(Collectors.toList()));
+						}
+					} else if(isAnalyzed(path)) {
+						changed.add(path);
+					}
+				}
+			}
+			key.reset();
+			key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		return new ArrayList<>(changed);
+	}
+
+	private void register(Path directory) throws IOException {
+		try (Stream<Path> stream = Files.walk(directory)) {
+			for(Path path : stream.filter(Files::isDirectory).filter(this::isUnderRoot).collect(Collectors.toList())) {
+				path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+			}
+		}
+	}
+
+	private boolean isUnderRoot(Path path) {
+		for(Path root : roots) {
+			if(path.startsWith(root) && !ApigeeLint.isHidden(root.relativize(path))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isAnalyzed(Path path) {
+		return files.contains(path) || (isUnderRoot(path) && (ZipBundle.isXml(path.toString()) || ApigeeLint.isZip(path)));
+	}
+
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+}
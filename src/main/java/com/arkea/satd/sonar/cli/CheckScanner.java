@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.Checks;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
+
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.CheckRepository;
+import com.arkea.satd.sonar.xml.CheckRunner;
+
+/**
+ * Runs the checks of a file, or the checks of its bundle (see {@link CheckRepository#getBundleCheckClasses()}),
+ * on a file stored in the BundleRecorder of the current thread, and keeps the issues raised while scanning the file.
+ * The checks are not thread-safe : a scanner is used by one thread at a time.
+ */
+final class CheckScanner implements AutoCloseable {
+
+	private final FileSystem fileSystem;
+	private final LocalActiveRules rules;
+	private final Map<String, String> properties;
+	private final Checks<Object> checks;
+	private final Set<Class<?>> bundleCheckClasses = new HashSet<>(CheckRepository.getBundleCheckClasses());
+	private final CheckRunner checkRunner;
+
+	CheckScanner(FileSystem fileSystem, LocalActiveRules rules, Map<String, String> properties) {
+		this.fileSystem = fileSystem;
+		this.rules = rules;
+		this.properties = properties;
+		this.checks = new CheckFactory(rules).create(CheckRepository.REPOSITORY_KEY).addAnnotatedChecks(CheckRepository.getCheckClasses());
+		this.checkRunner = new CheckRunner(
+				Long.parseLong(properties.getOrDefault(ApigeeProperties.CHECK_TIMEOUT_KEY, Long.toString(ApigeeProperties.CHECK_TIMEOUT_DEFAULT))),
+				Integer.parseInt(properties.getOrDefault(ApigeeProperties.CHECK_MAX_FAILURES_KEY, Integer.toString(ApigeeProperties.CHECK_MAX_FAILURES_DEFAULT))));
+	}
+
+	/**
+	 * Runs the checks of the file, or the checks of the bundle, on the file
+	 * @return the issues raised while scanning the file, whatever file they are located on
+	 */
+	List<LocalIssue> scan(XmlFile xmlFile, boolean bundleChecks) {
+		LocalSensorContext context = new LocalSensorContext(fileSystem, rules, properties);
+		// The checks across files report their issues through the sensor context
+		ApigeeXmlSensor.setContext(context);
+		try {
+			for(Object check : checks.all()) {
+				if(bundleCheckClasses.contains(check.getClass()) == bundleChecks) {
+					checkRunner.run(context, (SonarXmlCheck) check, checks.ruleKey(check), xmlFile);
+				}
+			}
+		} finally {
+			ApigeeXmlSensor.setContext(null);
+		}
+		return context.getIssues();
+	}
+
+	@Override
+	public void close() {
+		checkRunner.close();
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.arkea.satd.sonar.xml.ZipBundle;
+
+/**
+ * A proxy or shared flow revision found in an export of an Apigee organization : an apiproxy or sharedflowbundle directory,
+ * or a zipped bundle, anywhere in the export.
+ * The name and the revision are read from the bundle descriptor (apiproxy/Name.xml), or else from the paths,
+ * such as apis/Name/3/apiproxy or Name_rev3.zip.
+ */
+final class ExportedBundle {
+
+	/**
+	 * Revisions of each proxy or shared flow to analyze
+	 */
+	enum Revisions {
+		ALL, LATEST, DEPLOYED;
+
+		static Revisions of(String name) {
+			for(Revisions revisions : values()) {
+				if(revisions.name().equalsIgnoreCase(name)) {
+					return revisions;
+				}
+			}
+			throw new IllegalArgumentException("Unknown revisions " + name);
+		}
+	}
+
+	private static final Pattern TRAILING_NUMBER = Pattern.compile("(\\d+)$");
+
+	private final Path path;
+	private final String type;
+	private final String name;
+	private final int revision;
+
+	private ExportedBundle(Path path, String type, String name, int revision) {
+		this.path = path;
+		this.type = type;
+		this.name = name;
+		this.revision = revision;
+	}
+
+	/**
+	 * @return the apiproxy or sharedflowbundle directory, or the zipped bundle
+	 */
+	Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return apiproxy or sharedflowbundle
+	 */
+	String getType() {
+		return type;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	int getRevision() {
+		return revision;
+	}
+
+	boolean isZip() {
+		return ApigeeLint.isZip(path);
+	}
+
+	@Override
+	public String toString() {
+		return type + " " + name + " revision " + revision + " (" + path + ")";
+	}
+
+	/**
+	 * Finds the bundles of the export, sorted by path
+	 */
+	static List<ExportedBundle> find(Path exportDir) throws IOException {
+		List<ExportedBundle> bundles = new ArrayList<>();
+		List<Path> paths;
+		try (Stream<Path> stream = Files.walk(exportDir)) {
+			paths = stream.filter(path -> !ApigeeLint.isHidden(exportDir.relativize(path)))
+					.filter(path -> Files.isDirectory(path) ? ApigeeLint.BUNDLE_DIRECTORIES.contains(String.valueOf(path.getFileName())) : ApigeeLint.isZip(path))
+					// No bundle in a bundle
+					.filter(path -> ApigeeLint.bundleRoot(path) == null)
+					.sorted()
+					.collect(Collectors.toList());
+		}
+		for(Path path : paths) {
+			ExportedBundle bundle = Files.isDirectory(path) ? ofDirectory(path) : ofZip(path);
+			if(bundle != null) {
+				bundles.add(bundle);
+			}
+		}
+		return bundles;
+	}
+
+	/**
+	 * Selects the revisions to analyze
+	 * @param deployments the deployed revisions, as read by {@link #readDeployments(Path)}, for {@link Revisions#DEPLOYED}
+	 */
+	static List<ExportedBundle> select(List<ExportedBundle> bundles, Revisions revisions, Set<String> deployments) {
+		switch(revisions) {
+			case LATEST:
+				Map<String, ExportedBundle> latest = new LinkedHashMap<>();
+				for(ExportedBundle bundle : bundles) {
+					latest.merge(bundle.type + "/" + bundle.name, bundle, (a, b) -> b.revision > a.revision ? b : a);
+				}
+				return new ArrayList<>(latest.values());
+			case DEPLOYED:
+				return bundles.stream()
+						.filter(bundle -> deployments.contains(bundle.name + " " + bundle.revision))
+						.collect(Collectors.toList());
+			default:
+				return bundles;
+		}
+	}
+
+	/**
+	 * Reads the deployed revisions : one line per deployment, holding the name of the proxy or shared flow and the revision,
+	 * separated by spaces or a comma. The empty lines and the lines starting with # are ignored.
+	 * @return the deployments, as "name revision"
+	 */
+	static Set<String> readDeployments(Path file) throws IOException {
+		Set<String> deployments = new HashSet<>();
+		for(String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			String trimmed = line.trim();
+			if(!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+				String[] fields = trimmed.split("[\\s,]+");
+				if(fields.length != 2 || !fields[1].matches("\\d+")) {
+					throw new IOException("Invalid deployment line \"" + line + "\" in " + file + " : expected a name and a revision");
+				}
+				deployments.add(fields[0] + " " + Integer.parseInt(fields[1]));
+			}
+		}
+		return Collections.unmodifiableSet(deployments);
+	}
+
+	private static ExportedBundle ofDirectory(Path directory) throws IOException {
+		String type = directory.getFileName().toString();
+		List<Path> descriptors;
+		try (Stream<Path> stream = Files.list(directory)) {
+			descriptors = stream.filter(path -> path.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".xml"))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+		for(Path descriptor : descriptors) {
+			try (InputStream inputStream = Files.newInputStream(descriptor)) {
+				ExportedBundle bundle = ofDescriptor(directory, type, inputStream);
+				if(bundle != null) {
+					return bundle;
+				}
+			}
+		}
+		// Layout Name/Revision/apiproxy
+		Path revisionDir = directory.getParent();
+		Path nameDir = revisionDir == null ? null : revisionDir.getParent();
+		return new ExportedBundle(directory, type,
+				nameDir == null || nameDir.getFileName() == null ? String.valueOf(revisionDir) : nameDir.getFileName().toString(),
+				trailingNumber(String.valueOf(revisionDir == null ? null : revisionDir.getFileName())));
+	}
+
+	private static ExportedBundle ofZip(Path zip) throws IOException {
+		try (ZipFile zipFile = new ZipFile(zip.toFile(), StandardCharsets.UTF_8)) {
+			List<ZipEntry> descriptors = zipFile.stream()
+					.filter(entry -> !entry.isDirectory())
+					.filter(entry -> entry.getName().matches("(apiproxy|sharedflowbundle)/[^/]+\\.xml"))
+					.sorted(Comparator.comparing(ZipEntry::getName))
+					.collect(Collectors.toList());
+			for(ZipEntry descriptor : descriptors) {
+				try (InputStream inputStream = zipFile.getInputStream(descriptor)) {
+					ExportedBundle bundle = ofDescriptor(zip, descriptor.getName().substring(0, descriptor.getName().indexOf('/')), inputStream);
+					if(bundle != null) {
+						return bundle;
+					}
+				}
+			}
+			boolean isBundle = zipFile.stream().anyMatch(entry -> entry.getName().startsWith("apiproxy/") || entry.getName().startsWith("sharedflowbundle/"));
+			if(!isBundle) {
+				return null;
+			}
+			String type = zipFile.stream().anyMatch(entry -> entry.getName().startsWith("apiproxy/")) ? "apiproxy" : "sharedflowbundle";
+			// Layout Name_rev3.zip
+			String baseName = zip.getFileName().toString().substring(0, zip.getFileName().toString().length() - ZipBundle.EXTENSION.length() - 1);
+			return new ExportedBundle(zip, type, baseName.replaceAll("[_-]?(rev|revision)?[_-]?\\d+$", ""), trailingNumber(baseName));
+		} catch (ZipException e) {
+			// Not a zip
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the name and revision of the root element of the descriptor
+	 * @return the bundle, null if the file is not an APIProxy or SharedFlowBundle descriptor
+	 */
+	private static ExportedBundle ofDescriptor(Path path, String type, InputStream inputStream) {
+		try {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+			try {
+				while(reader.hasNext() && reader.next() != XMLStreamReader.START_ELEMENT) {
+					// Skip the prolog
+				}
+				if(!reader.isStartElement() || !("APIProxy".equals(reader.getLocalName()) || "SharedFlowBundle".equals(reader.getLocalName()))) {
+					return null;
+				}
+				String name = reader.getAttributeValue(null, "name");
+				String revision = reader.getAttributeValue(null, "revision");
+				return new ExportedBundle(path, type, name == null ? "" : name, revision == null ? 0 : trailingNumber(revision));
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			return null;
+		}
+	}
+
+	private static int trailingNumber(String value) {
+		Matcher matcher = TRAILING_NUMBER.matcher(value);
+		return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+
+import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.CheckRepository;
+import com.arkea.satd.sonar.xml.LocalInputFile;
+import com.arkea.satd.sonar.xml.ZipBundle;
+
+/**
+ * Analysis kept in memory between the changes of the files, for the watch mode.
+ * The parsed files stay stored in the recording of the analysis, seen by the BundleRecorder while the analysis runs. A changed file is parsed again and stored in place of the old one,
+ * then the checks of the file are run on it, and the checks of the bundle (see {@link CheckRepository#getBundleCheckClasses()})
+ * are run again on each file of its bundle. The issues are kept by scanned file, and replaced when the file is scanned again.
+ * The bundle of a file is the apiproxy or sharedflowbundle directory, or the zipped bundle, holding it.
+ */
+final class IncrementalAnalysis implements Closeable {
+
+	private static final Logger LOG = Loggers.get(IncrementalAnalysis.class);
+
+	private final Path baseDir;
+	private final Path workDir;
+	private final LocalFileSystem fileSystem;
+	private final CheckScanner scanner;
+	private final BundleRecorder.Recording recording = new BundleRecorder.Recording();
+
+	// The analyzed files of each source, a source being a file or a zipped bundle
+	private final Map<Path, List<AnalyzedFile>> sources = new TreeMap<>();
+	private final Map<Path, ZipBundle> archives = new TreeMap<>();
+
+	/**
+	 * Runs the whole analysis of the files
+	 */
+	IncrementalAnalysis(Path baseDir, List<Path> files, LocalActiveRules rules, Map<String, String> properties) throws IOException {
+		this.baseDir = baseDir;
+		this.workDir = Files.createTempDirectory("apigee-lint");
+		this.fileSystem = new LocalFileSystem(baseDir, workDir);
+		this.scanner = new CheckScanner(fileSystem, rules, properties);
+
+		BundleRecorder.setRecording(recording);
+		try {
+			// As in the sensor, all the files are stored before the first check
+			List<AnalyzedFile> added = new ArrayList<>();
+			for(Path file : files) {
+				added.addAll(add(file.toAbsolutePath().normalize()));
+			}
+			for(AnalyzedFile analyzedFile : added) {
+				analyzedFile.fileIssues = scan(analyzedFile, false);
+				analyzedFile.bundleIssues = scan(analyzedFile, true);
+			}
+		} finally {
+			BundleRecorder.release();
+		}
+	}
+
+	/**
+	 * @return the issues of all the files
+	 */
+	List<LocalIssue> getIssues() {
+		List<LocalIssue> issues = new ArrayList<>();
+		for(List<AnalyzedFile> analyzedFiles : sources.values()) {
+			for(AnalyzedFile analyzedFile : analyzedFiles) {
+				issues.addAll(analyzedFile.fileIssues);
+				issues.addAll(analyzedFile.bundleIssues);
+			}
+		}
+		return issues;
+	}
+
+	/**
+	 * Analyzes again the changed, created and deleted files
+	 * @return the number of files parsed again
+	 */
+	int update(Collection<Path> paths) throws IOException {
+		Set<Path> bundles = new LinkedHashSet<>();
+		boolean allBundles = false;
+		List<AnalyzedFile> added = new ArrayList<>();
+		BundleRecorder.setRecording(recording);
+		try {
+			for(Path path : paths) {
+				Path file = path.toAbsolutePath().normalize();
+				for(AnalyzedFile analyzedFile : remove(file)) {
+					allBundles |= analyzedFile.bundle == null;
+					bundles.add(analyzedFile.bundle);
+				}
+				if(Files.isRegularFile(file)) {
+					added.addAll(add(file));
+				}
+			}
+			for(AnalyzedFile analyzedFile : added) {
+				allBundles |= analyzedFile.bundle == null;
+				bundles.add(analyzedFile.bundle);
+				analyzedFile.fileIssues = scan(analyzedFile, false);
+			}
+
+			// The bundle checks of the other files of the bundles see the changes through the BundleRecorder
+			for(List<AnalyzedFile> analyzedFiles : sources.values()) {
+				for(AnalyzedFile analyzedFile : analyzedFiles) {
+					if(allBundles || analyzedFile.bundle == null || bundles.contains(analyzedFile.bundle)) {
+						analyzedFile.bundleIssues = scan(analyzedFile, true);
+					}
+				}
+			}
+		} finally {
+			BundleRecorder.release();
+		}
+		return added.size();
+	}
+
+	/**
+	 * Parses and stores the file, or the entries of the zipped bundle
+	 * @return the analyzed files
+	 */
+	private List<AnalyzedFile> add(Path file) throws IOException {
+		List<AnalyzedFile> analyzedFiles = new ArrayList<>();
+		if(ApigeeLint.isZip(file)) {
+			ZipBundle archive = new ZipBundle(file, ApigeeLint.relativePath(baseDir, file));
+			archives.put(file, archive);
+			for(InputFile inputFile : archive.getInputFiles()) {
+				analyzedFiles.add(new AnalyzedFile(inputFile, file));
+			}
+		} else {
+			analyzedFiles.add(new AnalyzedFile(new LocalInputFile(file, ApigeeLint.relativePath(baseDir, file)), ApigeeLint.bundleRoot(file)));
+		}
+
+		for(AnalyzedFile analyzedFile : analyzedFiles) {
+			fileSystem.add(analyzedFile.inputFile);
+			try {
+				analyzedFile.xmlFile = XmlFile.create(analyzedFile.inputFile);
+				BundleRecorder.storeFile(analyzedFile.xmlFile);
+			} catch(Exception e) {
+				// Case of parse exception, for example a file being written : the file has no issue until its next change
+				LOG.debug("Unable to parse {}", analyzedFile.inputFile, e);
+			}
+		}
+		sources.put(file, analyzedFiles);
+		return analyzedFiles;
+	}
+
+	/**
+	 * Removes the file, or the entries of the zipped bundle
+	 * @return the removed files
+	 */
+	private List<AnalyzedFile> remove(Path file) throws IOException {
+		List<AnalyzedFile> analyzedFiles = sources.remove(file);
+		if(analyzedFiles == null) {
+			return Collections.emptyList();
+		}
+		for(AnalyzedFile analyzedFile : analyzedFiles) {
+			fileSystem.remove(analyzedFile.inputFile);
+			BundleRecorder.removeFile(analyzedFile.inputFile.uri().getPath());
+		}
+		ZipBundle archive = archives.remove(file);
+		if(archive != null) {
+			archive.close();
+		}
+		return analyzedFiles;
+	}
+
+	private List<LocalIssue> scan(AnalyzedFile analyzedFile, boolean bundleChecks) {
+		return analyzedFile.xmlFile == null ? Collections.<LocalIssue>emptyList() : scanner.scan(analyzedFile.xmlFile, bundleChecks);
+	}
+
+	@Override
+	public void close() throws IOException {
+		scanner.close();
+		for(ZipBundle archive : archives.values()) {
+			archive.close();
+		}
+		ApigeeLint.delete(workDir);
+	}
+
+	/**
+	 * A file with its parsed document and its issues
+	 */
+	private static class AnalyzedFile {
+		private final InputFile inputFile;
+		// The apiproxy or sharedflowbundle directory or the zipped bundle, null for a file outside of any bundle
+		private final Path bundle;
+		private XmlFile xmlFile;
+		private List<LocalIssue> fileIssues = Collections.emptyList();
+		private List<LocalIssue> bundleIssues = Collections.emptyList();
+
+		AnalyzedFile(InputFile inputFile, Path bundle) {
+			this.inputFile = inputFile;
+			this.bundle = bundle;
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.rule.RuleKey;
+
+import com.arkea.satd.sonar.cli.LocalActiveRules.LocalActiveRule;
+import com.arkea.satd.sonar.xml.AnalysisStatistics;
+
+/**
+ * Output formats of the command line analyzer.
+ * Issues are sorted by file, position and rule. Columns are 1-based, like the lines.
+ */
+enum IssueFormat {
+
+	/**
+	 * One line per issue : file:line:column: SEVERITY rule message
+	 */
+	TEXT {
+		@Override
+		void write(List<LocalIssue> issues, LocalActiveRules rules, Writer writer) throws IOException {
+			for(LocalIssue issue : sorted(issues)) {
+				LocalIssueLocation location = issue.primaryLocation();
+				TextRange range = location.textRange();
+				writer.write(location.inputComponent().key());
+				if(range != null) {
+					writer.write(":" + range.start().line() + ":" + (range.start().lineOffset() + 1));
+				}
+				writer.write(": " + rules.find(issue.ruleKey()).severity() + " " + issue.ruleKey().rule() + " " + location.message() + "\n");
+			}
+			writer.write(issues.size() + " issue(s)\n");
+		}
+	},
+
+	/**
+	 * JSON document holding the issues and their secondary locations
+	 */
+	JSON {
+		@Override
+		void write(List<LocalIssue> issues, LocalActiveRules rules, Writer writer) throws IOException {
+			writer.write("{\n  \"issues\": [");
+			String separator = "\n";
+			for(LocalIssue issue : sorted(issues)) {
+				StringBuilder sb = new StringBuilder("{");
+				sb.append(string("rule", issue.ruleKey().toString())).append(", ")
+					.append(string("severity", rules.find(issue.ruleKey()).severity())).append(", ")
+					.append(location(issue.primaryLocation()));
+				if(!issue.secondaryLocations().isEmpty()) {
+					sb.append(", \"secondaryLocations\": [");
+					String locationSeparator = "";
+					for(LocalIssueLocation secondary : issue.secondaryLocations()) {
+						sb.append(locationSeparator).append('{').append(location(secondary)).append('}');
+						locationSeparator = ", ";
+					}
+					sb.append(']');
+				}
+				writer.write(separator + "    " + sb.append('}'));
+				separator = ",\n";
+			}
+			writer.write("\n  ]\n}\n");
+		}
+
+		private String location(LocalIssueLocation location) {
+			StringBuilder sb = new StringBuilder(string("file", location.inputComponent().key()));
+			TextRange range = location.textRange();
+			if(range != null) {
+				sb.append(", \"startLine\": ").append(range.start().line())
+					.append(", \"startColumn\": ").append(range.start().lineOffset() + 1)
+					.append(", \"endLine\": ").append(range.end().line())
+					.append(", \"endColumn\": ").append(range.end().lineOffset() + 1);
+			}
+			if(location.message() != null) {
+				sb.append(", ").append(string("message", location.message()));
+			}
+			return sb.toString();
+		}
+	},
+
+	/**
+	 * SARIF 2.1.0 log, for code scanning tools
+	 */
+	SARIF {
+		@Override
+		void write(List<LocalIssue> issues, LocalActiveRules rules, Writer writer) throws IOException {
+			// Only the rules raising issues are described
+			Map<RuleKey, LocalActiveRule> reportedRules = new TreeMap<>(Comparator.comparing(RuleKey::toString));
+			issues.forEach(issue -> reportedRules.put(issue.ruleKey(), rules.find(issue.ruleKey())));
+
+			writer.write("{\n  \"version\": \"2.1.0\",\n  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n  \"runs\": [{\n");
+			writer.write("    \"tool\": {\"driver\": {" + string("name", "sonar-apigee-plugin") + ", "
+					+ string("informationUri", "https://github.com/CreditMutuelArkea/sonar-apigee-plugin") + ", \"rules\": [");
+			String separator = "\n";
+			for(LocalActiveRule rule : reportedRules.values()) {
+				writer.write(separator + "      {" + string("id", rule.ruleKey().rule())
+						+ ", \"shortDescription\": {" + string("text", rule.title()) + "}"
+						+ ", \"defaultConfiguration\": {" + string("level", level(rule.severity())) + "}}");
+				separator = ",\n";
+			}
+			writer.write("\n    ]}},\n    \"results\": [");
+			separator = "\n";
+			for(LocalIssue issue : sorted(issues)) {
+				StringBuilder sb = new StringBuilder("{");
+				sb.append(string("ruleId", issue.ruleKey().rule())).append(", ")
+					.append(string("level", level(rules.find(issue.ruleKey()).severity()))).append(", ")
+					.append("\"message\": {").append(string("text", issue.primaryLocation().message())).append("}, ")
+					.append("\"locations\": [").append(location(issue.primaryLocation())).append(']');
+				if(!issue.secondaryLocations().isEmpty()) {
+					sb.append(", \"relatedLocations\": [");
+					String locationSeparator = "";
+					for(LocalIssueLocation secondary : issue.secondaryLocations()) {
+						sb.append(locationSeparator).append(location(secondary));
+						locationSeparator = ", ";
+					}
+					sb.append(']');
+				}
+				writer.write(separator + "      " + sb.append('}'));
+				separator = ",\n";
+			}
+			writer.write("\n    ]\n  }]\n}\n");
+		}
+
+		private String level(String severity) {
+			switch(severity) {
+				case "BLOCKER":
+				case "CRITICAL":
+					return "error";
+				case "MAJOR":
+					return "warning";
+				default:
+					return "note";
+			}
+		}
+
+		private String location(LocalIssueLocation location) {
+			StringBuilder sb = new StringBuilder("{\"physicalLocation\": {\"artifactLocation\": {")
+					.append(string("uri", location.inputComponent().key())).append('}');
+			TextRange range = location.textRange();
+			if(range != null) {
+				sb.append(", \"region\": {\"startLine\": ").append(range.start().line())
+					.append(", \"startColumn\": ").append(range.start().lineOffset() + 1)
+					.append(", \"endLine\": ").append(range.end().line())
+					.append(", \"endColumn\": ").append(range.end().lineOffset() + 1).append('}');
+			}
+			sb.append('}');
+			if(location.message() != null) {
+				sb.append(", \"message\": {").append(string("text", location.message())).append('}');
+			}
+			return sb.append('}').toString();
+		}
+	};
+
+	abstract void write(List<LocalIssue> issues, LocalActiveRules rules, Writer writer) throws IOException;
+
+	static IssueFormat of(String name) {
+		for(IssueFormat format : values()) {
+			if(format.name().equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("Unknown format " + name);
+	}
+
+	private static List<LocalIssue> sorted(List<LocalIssue> issues) {
+		List<LocalIssue> sorted = new ArrayList<>(issues);
+		sorted.sort(Comparator.<LocalIssue, String>comparing(issue -> issue.primaryLocation().inputComponent().key())
+				.thenComparingInt(issue -> issue.primaryLocation().textRange() == null ? 0 : issue.primaryLocation().textRange().start().line())
+				.thenComparingInt(issue -> issue.primaryLocation().textRange() == null ? 0 : issue.primaryLocation().textRange().start().lineOffset())
+				.thenComparing(issue -> issue.ruleKey().rule())
+				.thenComparing(issue -> String.valueOf(issue.primaryLocation().message())));
+		return sorted;
+	}
+
+	private static String string(String name, String value) {
+		return "\"" + name + "\": \"" + AnalysisStatistics.escape(value == null ? "" : value) + "\"";
+	}
+}
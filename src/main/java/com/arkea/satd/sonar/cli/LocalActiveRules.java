@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.check.Rule;
+
+import com.arkea.satd.sonar.xml.BaseInputFile;
+import com.arkea.satd.sonar.xml.CheckRepository;
+
+/**
+ * All the rules of the CheckRepository, activated with their default parameters.
+ * Titles and severities are read from the rules metadata.
+ */
+class LocalActiveRules implements ActiveRules {
+
+	private static final String METADATA_PATH = "/org/sonar/l10n/xml/rules/xml/";
+	private static final Pattern METADATA_FIELD = Pattern.compile("\"(title|defaultSeverity)\"\\s*:\\s*\"([^\"]*)\"");
+
+	private final Map<RuleKey, LocalActiveRule> rules = new LinkedHashMap<>();
+
+	LocalActiveRules() {
+		for(Class<?> checkClass : CheckRepository.getCheckClasses()) {
+			Rule rule = AnnotationUtils.getAnnotation(checkClass, Rule.class);
+			RuleKey ruleKey = RuleKey.of(CheckRepository.REPOSITORY_KEY, rule.key());
+			rules.put(ruleKey, new LocalActiveRule(ruleKey, metadata(rule.key())));
+		}
+	}
+
+	private static Map<String, String> metadata(String key) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		try (InputStream is = LocalActiveRules.class.getResourceAsStream(METADATA_PATH + key + ".json")) {
+			if(is != null) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				for(int read = is.read(buffer); read > 0; read = is.read(buffer)) {
+					bytes.write(buffer, 0, read);
+				}
+				Matcher matcher = METADATA_FIELD.matcher(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+				while(matcher.find()) {
+					fields.put(matcher.group(1), matcher.group(2));
+				}
+			}
+		} catch (IOException e) {
+			// Nothing to do : default title and severity
+		}
+		return fields;
+	}
+
+	@Override
+	public LocalActiveRule find(RuleKey ruleKey) {
+		return rules.get(ruleKey);
+	}
+
+	@Override
+	public Collection<ActiveRule> findAll() {
+		return Collections.unmodifiableCollection(new ArrayList<>(rules.values()));
+	}
+
+	@Override
+	public Collection<ActiveRule> findByRepository(String repository) {
+		return rules.values().stream().filter(r -> repository.equals(r.ruleKey().repository())).collect(Collectors.toList());
+	}
+
+	@Override
+	public Collection<ActiveRule> findByLanguage(String language) {
+		return rules.values().stream().filter(r -> language.equals(r.language())).collect(Collectors.toList());
+	}
+
+	@Override
+	public ActiveRule findByInternalKey(String repository, String internalKey) {
+		return null;
+	}
+
+	/**
+	 * An active rule, with its title
+	 */
+	static class LocalActiveRule implements ActiveRule {
+		private final RuleKey ruleKey;
+		private final String title;
+		private final String severity;
+
+		private LocalActiveRule(RuleKey ruleKey, Map<String, String> metadata) {
+			this.ruleKey = ruleKey;
+			this.title = metadata.getOrDefault("title", ruleKey.rule());
+			this.severity = metadata.getOrDefault("defaultSeverity", "Major").toUpperCase(Locale.ENGLISH);
+		}
+
+		@Override
+		public RuleKey ruleKey() {
+			return ruleKey;
+		}
+
+		public String title() {
+			return title;
+		}
+
+		@Override
+		public String severity() {
+			return severity;
+		}
+
+		@Override
+		public String language() {
+			return BaseInputFile.LANGUAGE;
+		}
+
+		@Override
+		public String param(String key) {
+			return null;
+		}
+
+		@Override
+		public Map<String, String> params() {
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public String internalKey() {
+			return null;
+		}
+
+		@Override
+		public String templateRuleKey() {
+			return null;
+		}
+
+		@Override
+		public String qpKey() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FilePredicates;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.InputFile.Status;
+import org.sonar.api.batch.fs.InputFile.Type;
+
+/**
+ * Stand-in for the scanner's FilePredicates.
+ * Path patterns are matched against the relative paths, a leading "**&#47;" also matching the root directory.
+ */
+class LocalFilePredicates implements FilePredicates {
+
+	@Override
+	public FilePredicate all() {
+		return f -> true;
+	}
+
+	@Override
+	public FilePredicate none() {
+		return f -> false;
+	}
+
+	@Override
+	public FilePredicate hasAbsolutePath(String s) {
+		return f -> Paths.get(s).toAbsolutePath().normalize().equals(f.path().toAbsolutePath().normalize());
+	}
+
+	@Override
+	public FilePredicate hasRelativePath(String s) {
+		return f -> s.replace('\\', '/').equals(f.relativePath());
+	}
+
+	@Override
+	public FilePredicate hasFilename(String s) {
+		return f -> s.equals(f.filename());
+	}
+
+	@Override
+	public FilePredicate hasExtension(String s) {
+		return f -> f.filename().toLowerCase().endsWith("." + s.toLowerCase());
+	}
+
+	@Override
+	public FilePredicate hasURI(URI uri) {
+		return f -> uri.equals(f.uri());
+	}
+
+	@Override
+	public FilePredicate matchesPathPattern(String inclusionPattern) {
+		String pattern = inclusionPattern.replace('\\', '/');
+		PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		PathMatcher rootMatcher = pattern.startsWith("**/") ? FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(3)) : matcher;
+		return f -> {
+			Path path = Paths.get(f.relativePath());
+			return matcher.matches(path) || rootMatcher.matches(path);
+		};
+	}
+
+	@Override
+	public FilePredicate matchesPathPatterns(String[] inclusionPatterns) {
+		return or(Arrays.stream(inclusionPatterns).map(this::matchesPathPattern).toArray(FilePredicate[]::new));
+	}
+
+	@Override
+	public FilePredicate doesNotMatchPathPattern(String exclusionPattern) {
+		return not(matchesPathPattern(exclusionPattern));
+	}
+
+	@Override
+	public FilePredicate doesNotMatchPathPatterns(String[] exclusionPatterns) {
+		return not(matchesPathPatterns(exclusionPatterns));
+	}
+
+	@Override
+	public FilePredicate hasPath(String s) {
+		return Paths.get(s).isAbsolute() ? hasAbsolutePath(s) : hasRelativePath(s);
+	}
+
+	@Override
+	public FilePredicate is(File ioFile) {
+		return hasAbsolutePath(ioFile.getAbsolutePath());
+	}
+
+	@Override
+	public FilePredicate hasLanguage(String language) {
+		return f -> language.equals(f.language());
+	}
+
+	@Override
+	public FilePredicate hasLanguages(Collection<String> languages) {
+		return f -> languages.contains(f.language());
+	}
+
+	@Override
+	public FilePredicate hasLanguages(String... languages) {
+		return hasLanguages(Arrays.asList(languages));
+	}
+
+	@Override
+	public FilePredicate hasType(Type type) {
+		return f -> type == f.type();
+	}
+
+	@Override
+	public FilePredicate not(FilePredicate p) {
+		return f -> !p.apply(f);
+	}
+
+	@Override
+	public FilePredicate or(Collection<FilePredicate> or) {
+		return f -> or.stream().anyMatch(p -> p.apply(f));
+	}
+
+	@Override
+	public FilePredicate or(FilePredicate... or) {
+		return or(Arrays.asList(or));
+	}
+
+	@Override
+	public FilePredicate or(FilePredicate first, FilePredicate second) {
+		return f -> first.apply(f) || second.apply(f);
+	}
+
+	@Override
+	public FilePredicate and(Collection<FilePredicate> and) {
+		return f -> and.stream().allMatch(p -> p.apply(f));
+	}
+
+	@Override
+	public FilePredicate and(FilePredicate... and) {
+		return and(Arrays.asList(and));
+	}
+
+	@Override
+	public FilePredicate and(FilePredicate first, FilePredicate second) {
+		return f -> first.apply(f) && second.apply(f);
+	}
+
+	@Override
+	public FilePredicate hasStatus(Status status) {
+		return f -> status == f.status();
+	}
+
+	@Override
+	public FilePredicate hasAnyStatus() {
+		return f -> true;
+	}
+}
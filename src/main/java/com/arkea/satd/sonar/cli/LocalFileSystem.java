@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FilePredicates;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputDir;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Stand-in for the scanner's FileSystem : a fixed list of files, in the order they were added
+ */
+class LocalFileSystem implements FileSystem {
+
+	private final Path baseDir;
+	private final Path workDir;
+	private final List<InputFile> inputFiles = new ArrayList<>();
+	private final FilePredicates predicates = new LocalFilePredicates();
+
+	LocalFileSystem(Path baseDir, Path workDir) {
+		this.baseDir = baseDir;
+		this.workDir = workDir;
+	}
+
+	LocalFileSystem add(InputFile inputFile) {
+		inputFiles.add(inputFile);
+		return this;
+	}
+
+	LocalFileSystem remove(InputFile inputFile) {
+		inputFiles.remove(inputFile);
+		return this;
+	}
+
+	@Override
+	public File baseDir() {
+		return baseDir.toFile();
+	}
+
+	@Override
+	public Charset encoding() {
+		return StandardCharsets.UTF_8;
+	}
+
+	@Override
+	public File workDir() {
+		return workDir.toFile();
+	}
+
+	@Override
+	public FilePredicates predicates() {
+		return predicates;
+	}
+
+	@Override
+	public InputFile inputFile(FilePredicate predicate) {
+		for(InputFile inputFile : inputFiles) {
+			if(predicate.apply(inputFile)) {
+				return inputFile;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public InputDir inputDir(File dir) {
+		throw new UnsupportedOperationException("Directories are not indexed by the command line analyzer");
+	}
+
+	@Override
+	public Iterable<InputFile> inputFiles(FilePredicate predicate) {
+		return inputFiles.stream().filter(predicate::apply).collect(Collectors.toList());
+	}
+
+	@Override
+	public boolean hasFiles(FilePredicate predicate) {
+		return inputFiles.stream().anyMatch(predicate::apply);
+	}
+
+	@Override
+	public Iterable<File> files(FilePredicate predicate) {
+		return inputFiles.stream().filter(predicate::apply).map(InputFile::file).collect(Collectors.toList());
+	}
+
+	@Override
+	public SortedSet<String> languages() {
+		return inputFiles.stream().map(InputFile::language).collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	@Override
+	public File resolvePath(String path) {
+		return baseDir.resolve(path).normalize().toFile();
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * Issue raised through the LocalSensorContext, kept in memory once saved.
+ * Flows are reported as secondary locations.
+ */
+class LocalIssue implements NewIssue {
+
+	private final LocalSensorContext context;
+	private RuleKey ruleKey;
+	private LocalIssueLocation primaryLocation;
+	private final List<LocalIssueLocation> secondaryLocations = new ArrayList<>();
+
+	LocalIssue(LocalSensorContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public NewIssue forRule(RuleKey ruleKey) {
+		this.ruleKey = ruleKey;
+		return this;
+	}
+
+	@Override
+	public NewIssue gap(Double gap) {
+		return this;
+	}
+
+	@Override
+	public NewIssue overrideSeverity(Severity severity) {
+		return this;
+	}
+
+	@Override
+	public NewIssue at(NewIssueLocation primaryLocation) {
+		this.primaryLocation = (LocalIssueLocation) primaryLocation;
+		return this;
+	}
+
+	@Override
+	public NewIssue addLocation(NewIssueLocation secondaryLocation) {
+		secondaryLocations.add((LocalIssueLocation) secondaryLocation);
+		return this;
+	}
+
+	@Override
+	public NewIssue setQuickFixAvailable(boolean quickFixAvailable) {
+		return this;
+	}
+
+	@Override
+	public NewIssue addFlow(Iterable<NewIssueLocation> flowLocations) {
+		flowLocations.forEach(this::addLocation);
+		return this;
+	}
+
+	@Override
+	public NewIssueLocation newLocation() {
+		return new LocalIssueLocation();
+	}
+
+	@Override
+	public void save() {
+		if(ruleKey == null || primaryLocation == null || primaryLocation.inputComponent() == null) {
+			throw new IllegalStateException("An issue needs a rule and a primary location");
+		}
+		context.save(this);
+	}
+
+	/**
+	 * @return a copy of the issue, whose locations are moved to other components, such as identical files of other bundles
+	 */
+	LocalIssue relocate(Map<InputComponent, InputComponent> components) {
+		LocalIssue copy = new LocalIssue(context);
+		copy.ruleKey = ruleKey;
+		copy.primaryLocation = primaryLocation.relocate(components);
+		secondaryLocations.forEach(location -> copy.secondaryLocations.add(location.relocate(components)));
+		return copy;
+	}
+
+	public RuleKey ruleKey() {
+		return ruleKey;
+	}
+
+	public LocalIssueLocation primaryLocation() {
+		return primaryLocation;
+	}
+
+	public List<LocalIssueLocation> secondaryLocations() {
+		return Collections.unmodifiableList(secondaryLocations);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.util.Map;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+
+/**
+ * Location of a LocalIssue : a file, an optional range and a message
+ */
+class LocalIssueLocation implements NewIssueLocation {
+
+	private InputComponent component;
+	private TextRange textRange;
+	private String message;
+
+	@Override
+	public NewIssueLocation on(InputComponent component) {
+		this.component = component;
+		return this;
+	}
+
+	@Override
+	public NewIssueLocation at(TextRange location) {
+		this.textRange = location;
+		return this;
+	}
+
+	@Override
+	public NewIssueLocation message(String message) {
+		this.message = message;
+		return this;
+	}
+
+	LocalIssueLocation relocate(Map<InputComponent, InputComponent> components) {
+		LocalIssueLocation copy = new LocalIssueLocation();
+		copy.component = components.getOrDefault(component, component);
+		copy.textRange = textRange;
+		copy.message = message;
+		return copy;
+	}
+
+	public InputComponent inputComponent() {
+		return component;
+	}
+
+	/**
+	 * @return the range, null for an issue on the whole file
+	 */
+	public TextRange textRange() {
+		return textRange;
+	}
+
+	public String message() {
+		return message;
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.sonar.api.SonarEdition;
+import org.sonar.api.SonarProduct;
+import org.sonar.api.SonarQubeSide;
+import org.sonar.api.SonarRuntime;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.InputModule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.code.NewSignificantCode;
+import org.sonar.api.batch.sensor.coverage.NewCoverage;
+import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
+import org.sonar.api.batch.sensor.error.NewAnalysisError;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
+import org.sonar.api.batch.sensor.issue.NewExternalIssue;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.measure.NewMeasure;
+import org.sonar.api.batch.sensor.rule.NewAdHocRule;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.config.Settings;
+import org.sonar.api.scanner.fs.InputProject;
+import org.sonar.api.utils.Version;
+
+/**
+ * Stand-in for the scanner's SensorContext : collects the issues in memory.
+ * Only what the Apigee sensor and checks use is supported.
+ */
+class LocalSensorContext implements SensorContext {
+
+	private final FileSystem fileSystem;
+	private final ActiveRules activeRules;
+	private final Map<String, String> properties;
+	private final List<LocalIssue> issues = new ArrayList<>();
+
+	LocalSensorContext(FileSystem fileSystem, ActiveRules activeRules, Map<String, String> properties) {
+		this.fileSystem = fileSystem;
+		this.activeRules = activeRules;
+		this.properties = properties;
+	}
+
+	synchronized void save(LocalIssue issue) {
+		issues.add(issue);
+	}
+
+	synchronized List<LocalIssue> getIssues() {
+		return Collections.unmodifiableList(new ArrayList<>(issues));
+	}
+
+	@Override
+	public Configuration config() {
+		return new Configuration() {
+			@Override
+			public Optional<String> get(String key) {
+				return Optional.ofNullable(properties.get(key));
+			}
+
+			@Override
+			public boolean hasKey(String key) {
+				return properties.containsKey(key);
+			}
+
+			@Override
+			public String[] getStringArray(String key) {
+				return get(key).map(value -> value.split("\\s*,\\s*")).orElse(new String[0]);
+			}
+		};
+	}
+
+	@Override
+	public FileSystem fileSystem() {
+		return fileSystem;
+	}
+
+	@Override
+	public ActiveRules activeRules() {
+		return activeRules;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return false;
+	}
+
+	@Override
+	public NewIssue newIssue() {
+		return new LocalIssue(this);
+	}
+
+	@Override
+	public void addContextProperty(String key, String value) {
+		// Nothing to do
+	}
+
+	@Override
+	public void markForPublishing(InputFile inputFile) {
+		// Nothing to do
+	}
+
+	@Override
+	public Settings settings() {
+		throw unsupported();
+	}
+
+	@Override
+	public InputModule module() {
+		throw unsupported();
+	}
+
+	@Override
+	public InputProject project() {
+		throw unsupported();
+	}
+
+	@Override
+	public Version getSonarQubeVersion() {
+		throw unsupported();
+	}
+
+	/**
+	 * The command line analyzer runs the scanner side of the plugin, as SonarQube does
+	 */
+	@Override
+	public SonarRuntime runtime() {
+		return new SonarRuntime() {
+			@Override
+			public Version getApiVersion() {
+				throw unsupported();
+			}
+
+			@Override
+			public SonarProduct getProduct() {
+				return SonarProduct.SONARQUBE;
+			}
+
+			@Override
+			public SonarQubeSide getSonarQubeSide() {
+				return SonarQubeSide.SCANNER;
+			}
+
+			@Override
+			public SonarEdition getEdition() {
+				return SonarEdition.COMMUNITY;
+			}
+		};
+	}
+
+	@Override
+	public <G extends Serializable> NewMeasure<G> newMeasure() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewExternalIssue newExternalIssue() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewAdHocRule newAdHocRule() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewHighlighting newHighlighting() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewSymbolTable newSymbolTable() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewCoverage newCoverage() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewCpdTokens newCpdTokens() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewAnalysisError newAnalysisError() {
+		throw unsupported();
+	}
+
+	@Override
+	public NewSignificantCode newSignificantCode() {
+		throw unsupported();
+	}
+
+	private static UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException("Not supported by the command line analyzer");
+	}
+}
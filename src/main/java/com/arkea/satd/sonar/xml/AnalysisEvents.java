@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+/**
+ * Java Flight Recorder events of the analysis : file parsing, bundle indexing, check invocations and saved issues.
+ * The Java 8 implementation records nothing. The plugin jar is a multi-release jar :
+ * on JDK 11 and later, the implementation found in META-INF/versions/11 emits the events.
+ */
+public final class AnalysisEvents {
+
+	private AnalysisEvents() {
+		// Private constructor
+	}
+
+	/**
+	 * Starts the parsing of a file
+	 */
+	public static AnalysisSpan parse(String file) {
+		return AnalysisSpan.NONE;
+	}
+
+	/**
+	 * Starts the indexing of a file in the BundleRecorder
+	 */
+	public static AnalysisSpan index(String file) {
+		return AnalysisSpan.NONE;
+	}
+
+	/**
+	 * Starts the invocation of a check on a file
+	 */
+	public static AnalysisSpan check(String file, String rule) {
+		return AnalysisSpan.NONE;
+	}
+
+	/**
+	 * An issue has been saved by the rule while scanning the file
+	 */
+	public static void issue(String file, String rule) {
+		// Nothing to record
+	}
+}
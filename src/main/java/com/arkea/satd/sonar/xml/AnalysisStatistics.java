@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Records the time spent in each stage of the analysis and in each check,
+ * with call counts and issue counts.
+ */
+public class AnalysisStatistics {
+
+	public static final String STAGE_DISCOVERY = "discovery";
+	public static final String STAGE_PARSE = "parse";
+	public static final String STAGE_INDEX = "index";
+	public static final String STAGE_CHECKS = "checks";
+
+	public static final String REPORT_FILENAME = "apigee-analysis-report.json";
+
+	private static final Logger LOG = Loggers.get(AnalysisStatistics.class);
+
+	private final Map<String, Counter> stages = new LinkedHashMap<>();
+	private final Map<RuleKey, Counter> checks = new LinkedHashMap<>();
+	private int filesCount;
+
+	/**
+	 * Time, calls and issues of a stage or a check
+	 */
+	public static class Counter {
+		private long nanos;
+		private int calls;
+		private int issues;
+
+		public long getMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(nanos);
+		}
+
+		public int getCalls() {
+			return calls;
+		}
+
+		public int getIssues() {
+			return issues;
+		}
+	}
+
+	public void setFilesCount(int filesCount) {
+		this.filesCount = filesCount;
+	}
+
+	public synchronized void recordStage(String stage, long nanos) {
+		Counter counter = stages.computeIfAbsent(stage, k -> new Counter());
+		counter.nanos += nanos;
+		counter.calls++;
+	}
+
+	public synchronized void recordCheck(RuleKey ruleKey, long nanos) {
+		Counter counter = checks.computeIfAbsent(ruleKey, k -> new Counter());
+		counter.nanos += nanos;
+		counter.calls++;
+	}
+
+	public synchronized void recordIssue(RuleKey ruleKey) {
+		checks.computeIfAbsent(ruleKey, k -> new Counter()).issues++;
+	}
+
+	public synchronized Counter getStage(String stage) {
+		return stages.get(stage);
+	}
+
+	public synchronized Counter getCheck(RuleKey ruleKey) {
+		return checks.get(ruleKey);
+	}
+
+	/**
+	 * Wraps the context so that every issue saved through it is counted for its rule
+	 */
+	public SensorContext countIssues(SensorContext context) {
+		return proxy(SensorContext.class, context, (delegate, method, args) -> {
+			Object result = method.invoke(delegate, args);
+			if("newIssue".equals(method.getName())) {
+				return countingIssue((NewIssue)result);
+			}
+			return result;
+		});
+	}
+
+	private NewIssue countingIssue(NewIssue issue) {
+		RuleKey[] ruleKey = new RuleKey[1];
+		return proxy(NewIssue.class, issue, (delegate, method, args) -> {
+			if("forRule".equals(method.getName())) {
+				ruleKey[0] = (RuleKey)args[0];
+			} else if("save".equals(method.getName()) && ruleKey[0] != null) {
+				recordIssue(ruleKey[0]);
+				AnalysisEvents.issue(CheckRunner.scannedFile(), ruleKey[0].toString());
+			}
+			return method.invoke(delegate, args);
+		});
+	}
+
+	/**
+	 * Logs the stages and the top N most expensive checks
+	 */
+	public synchronized void logSummary(int topN) {
+		StringBuilder sb = new StringBuilder("Apigee analysis of ").append(filesCount).append(" file(s) :");
+		stages.forEach((stage, counter) -> sb.append(' ').append(stage).append('=').append(counter.getMillis()).append("ms"));
+		LOG.info(sb.toString());
+
+		List<Map.Entry<RuleKey, Counter>> sortedChecks = sortedChecks();
+		int limit = Math.min(topN, sortedChecks.size());
+		if(limit > 0) {
+			LOG.info("Top {} most expensive Apigee checks :", limit);
+			for(Map.Entry<RuleKey, Counter> entry : sortedChecks.subList(0, limit)) {
+				Counter counter = entry.getValue();
+				LOG.info("  {} : {} ms, {} call(s), {} issue(s)", entry.getKey().rule(), counter.getMillis(), counter.calls, counter.issues);
+			}
+		}
+	}
+
+	/**
+	 * Writes the full report as JSON in the given directory
+	 * @return the report file
+	 */
+	public synchronized File writeJson(File directory) throws IOException {
+		File report = new File(directory, REPORT_FILENAME);
+		try (Writer writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+			writer.write("{\n  \"files\": " + filesCount + ",\n  \"stages\": [");
+			String separator = "\n";
+			for(Map.Entry<String, Counter> entry : stages.entrySet()) {
+				writer.write(separator + "    " + toJson("name", entry.getKey(), entry.getValue(), null));
+				separator = ",\n";
+			}
+			writer.write("\n  ],\n  \"checks\": [");
+			separator = "\n";
+			for(Map.Entry<RuleKey, Counter> entry : sortedChecks()) {
+				writer.write(separator + "    " + toJson("rule", entry.getKey().toString(), entry.getValue(), QueryProfiler.getCounters(entry.getKey())));
+				separator = ",\n";
+			}
+			writer.write("\n  ]\n}\n");
+		}
+		return report;
+	}
+
+	private List<Map.Entry<RuleKey, Counter>> sortedChecks() {
+		List<Map.Entry<RuleKey, Counter>> sortedChecks = new ArrayList<>(checks.entrySet());
+		sortedChecks.sort((e1, e2) -> Long.compare(e2.getValue().nanos, e1.getValue().nanos));
+		return sortedChecks;
+	}
+
+	private static String toJson(String keyName, String key, Counter counter, QueryProfiler.Counters queries) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"").append(keyName).append("\": \"").append(escape(key)).append("\", \"millis\": ").append(counter.getMillis())
+			.append(", \"calls\": ").append(counter.calls).append(", \"issues\": ").append(counter.issues);
+		if(queries != null) {
+			sb.append(", \"queries\": {\"xpathEvaluations\": ").append(queries.getXpathEvaluations())
+				.append(", \"maxXpathEvaluationsPerFile\": ").append(queries.getMaxXpathEvaluationsPerFile())
+				.append(", \"xpathCompilations\": ").append(queries.getXpathCompilations())
+				.append(", \"domTraversals\": ").append(queries.getDomTraversals())
+				.append(", \"nodes\": ").append(queries.getNodes())
+				.append(", \"indexLookups\": ").append(queries.getIndexLookups()).append('}');
+		}
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Escapes a value for a JSON string
+	 */
+	public static String escape(String value) {
+		StringBuilder sb = new StringBuilder();
+		for(char c : value.toCharArray()) {
+			if(c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if(c < 0x20) {
+				sb.append(String.format("\\u%04x", (int)c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Call handler receiving the wrapped object
+	 */
+	interface Interceptor {
+		Object invoke(Object delegate, Method method, Object[] args) throws IllegalAccessException, InvocationTargetException;
+	}
+
+	/**
+	 * Creates a dynamic proxy delegating all calls through the interceptor.
+	 * Fluent methods returning the delegate itself return the proxy instead.
+	 */
+	static <T> T proxy(Class<T> type, T delegate, Interceptor interceptor) {
+		Object[] self = new Object[1];
+		InvocationHandler handler = (p, method, args) -> {
+			if(method.getDeclaringClass() == Object.class) {
+				return method.invoke(delegate, args);
+			}
+			try {
+				Object result = interceptor.invoke(delegate, method, args);
+				return result == delegate ? self[0] : result;
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		};
+		self[0] = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+		return type.cast(self[0]);
+	}
+}
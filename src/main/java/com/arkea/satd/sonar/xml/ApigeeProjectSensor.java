@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import org.sonar.api.SonarProduct;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.scanner.sensor.ProjectSensor;
+import org.sonar.plugins.xml.Xml;
+
+/**
+ * Analysis of the xml files of all the modules at once, so that a bundle split between modules is recorded in one index :
+ * the shared flows, the proxies and the targets are parsed and indexed once for the whole project.
+ * When enabled, the module sensor {@link ApigeeXmlSensor} does nothing. SonarLint has no project level, its analysis stays on the module sensor.
+ */
+public class ApigeeProjectSensor implements ProjectSensor {
+
+	private final ApigeeXmlSensor sensor;
+
+	public ApigeeProjectSensor(FileSystem fileSystem, CheckFactory checkFactory) {
+		this.sensor = new ApigeeXmlSensor(fileSystem, checkFactory);
+	}
+
+	/**
+	 * @return true if the files are analyzed at the project level rather than by module
+	 */
+	static boolean isEnabled(SensorContext context) {
+		return context.config().getBoolean(ApigeeProperties.PROJECT_LEVEL_KEY).orElse(false)
+				&& context.runtime().getProduct() != SonarProduct.SONARLINT;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+	@Override
+	public void describe(SensorDescriptor descriptor) {
+		descriptor
+			.onlyOnLanguage(Xml.KEY)
+			.onlyWhenConfiguration(config -> config.getBoolean(ApigeeProperties.PROJECT_LEVEL_KEY).orElse(false))
+			.name("Apigee XML Project Sensor");
+	}
+
+	@Override
+	public void execute(SensorContext context) {
+		if(isEnabled(context)) {
+			sensor.analyzeFileSystem(context);
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonar.api.PropertyType;
+import org.sonar.api.config.PropertyDefinition;
+import org.sonar.api.resources.Qualifiers;
+
+/**
+ * Analysis properties of the Apigee plugin
+ */
+public class ApigeeProperties {
+
+	public static final String CATEGORY = "Apigee";
+
+	public static final String CHECK_TIMEOUT_KEY = "sonar.apigee.checks.timeout";
+	public static final long CHECK_TIMEOUT_DEFAULT = 10000L;
+
+	public static final String CHECK_MAX_FAILURES_KEY = "sonar.apigee.checks.maxFailures";
+	public static final int CHECK_MAX_FAILURES_DEFAULT = 3;
+
+	public static final String PARSE_THREADS_KEY = "sonar.apigee.parse.threads";
+	public static final int PARSE_THREADS_DEFAULT = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	public static final String REPORT_TOP_KEY = "sonar.apigee.report.top";
+	public static final int REPORT_TOP_DEFAULT = 10;
+
+	public static final String DEBUG_QUERIES_KEY = "sonar.apigee.debug.queries";
+
+	public static final String ARCHIVES_KEY = "sonar.apigee.archives";
+
+	public static final String BUNDLE_MODELS_KEY = "sonar.apigee.bundleModels";
+
+	public static final String BUNDLE_AT_A_TIME_KEY = "sonar.apigee.bundleAtATime";
+	public static final String SHARED_FLOWS_INDEX_KEY = "sonar.apigee.bundleAtATime.sharedFlows";
+
+	public static final String MEMORY_THRESHOLD_KEY = "sonar.apigee.memory.threshold";
+	public static final int MEMORY_THRESHOLD_DEFAULT = 85;
+
+	public static final String MAX_FILE_SIZE_KEY = "sonar.apigee.largeFiles.maxSize";
+	public static final long MAX_FILE_SIZE_DEFAULT = 10240L;
+	public static final String MAX_FILE_ELEMENTS_KEY = "sonar.apigee.largeFiles.maxElements";
+	public static final int MAX_FILE_ELEMENTS_DEFAULT = 200000;
+	public static final String MAX_FILE_DEPTH_KEY = "sonar.apigee.largeFiles.maxDepth";
+	public static final int MAX_FILE_DEPTH_DEFAULT = 256;
+
+	public static final String PROJECT_LEVEL_KEY = "sonar.apigee.projectLevel";
+
+	public static final String BUNDLE_ROOTS_KEY = "sonar.apigee.bundleRoots";
+	public static final String BUNDLE_ROOTS_DEFAULT = "**/apiproxy/**,**/sharedflowbundle/**";
+
+	private ApigeeProperties() {
+		// Private constructor
+	}
+
+	public static List<PropertyDefinition> getProperties() {
+		return Arrays.asList(
+				PropertyDefinition.builder(BUNDLE_ROOTS_KEY)
+					.name("Bundle directories")
+					.description("Path patterns of the xml files of the bundles, relative to the module. The other xml files are not analyzed.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(true)
+					.defaultValue(BUNDLE_ROOTS_DEFAULT)
+					.build(),
+				PropertyDefinition.builder(CHECK_TIMEOUT_KEY)
+					.name("Check time budget")
+					.description("Maximum time in milliseconds granted to one check on one file. The check is interrupted when the budget is exceeded, stopped at its next query, and its later issues are discarded. Use 0 to disable the budget.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.LONG)
+					.defaultValue(Long.toString(CHECK_TIMEOUT_DEFAULT))
+					.build(),
+				PropertyDefinition.builder(CHECK_MAX_FAILURES_KEY)
+					.name("Check failures before disabling")
+					.description("Number of failures or timeouts after which a check is disabled for the rest of the analysis. Use 0 to never disable a check.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Integer.toString(CHECK_MAX_FAILURES_DEFAULT))
+					.build(),
+				PropertyDefinition.builder(PARSE_THREADS_KEY)
+					.name("Parsing threads")
+					.description("Number of threads parsing the files ahead of their indexing, the checks running on the indexed files. Defaults to the number of processors, at most 4. Use 1 to parse on the analysis thread.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.INTEGER)
+					.build(),
+				PropertyDefinition.builder(REPORT_TOP_KEY)
+					.name("Most expensive checks logged")
+					.description("Number of most expensive checks logged at the end of the analysis. The full timing report is written in " + AnalysisStatistics.REPORT_FILENAME + " in the working directory.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Integer.toString(REPORT_TOP_DEFAULT))
+					.build(),
+				PropertyDefinition.builder(DEBUG_QUERIES_KEY)
+					.name("Query profiling")
+					.description("Debug mode counting, for each rule, the XPath evaluations, the DOM traversals and the bundle index lookups. Slows down the analysis.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue(Boolean.FALSE.toString())
+					.build(),
+				PropertyDefinition.builder(ARCHIVES_KEY)
+					.name("Zipped bundles")
+					.description("Analyze the bundles zipped in the .zip files of the sources, without extracting them. The issues are reported on the archive, with the entry path and line in the message.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue(Boolean.TRUE.toString())
+					.build(),
+				PropertyDefinition.builder(BUNDLE_MODELS_KEY)
+					.name("Bundle models")
+					.description("Keep the files of each bundle directory between the analyses, and only parse again the analyzed files and the files changed on the disk. Enabled by default in SonarLint, which analyzes the files one by one.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.BOOLEAN)
+					.build(),
+				PropertyDefinition.builder(BUNDLE_AT_A_TIME_KEY)
+					.name("Bundle at a time")
+					.description("Record and check the bundle directories one by one, dropping the files of a bundle before the next one, so that the memory grows with the largest bundle rather than with the project. A bundle does not see the files of the other bundles.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue(Boolean.FALSE.toString())
+					.build(),
+				PropertyDefinition.builder(SHARED_FLOWS_INDEX_KEY)
+					.name("Shared flows kept between bundles")
+					.description("With the bundle at a time analysis, analyze the shared flow bundles first and keep their flows for the next bundles.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue(Boolean.FALSE.toString())
+					.build(),
+				PropertyDefinition.builder(MEMORY_THRESHOLD_KEY)
+					.name("Heap threshold")
+					.description("Percentage of the maximum heap which, when still used after a garbage collection, switches the analysis to the bundle at a time analysis and drops the kept bundle models. Use 100 to never switch.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Integer.toString(MEMORY_THRESHOLD_DEFAULT))
+					.build(),
+				PropertyDefinition.builder(MAX_FILE_SIZE_KEY)
+					.name("Large files : maximum size")
+					.description("Size in KB above which a file is analyzed in metadata-only mode : only its root element is parsed, and its issues are reported on the line of the root element. Use 0 for no limit.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.LONG)
+					.defaultValue(Long.toString(MAX_FILE_SIZE_DEFAULT))
+					.build(),
+				PropertyDefinition.builder(MAX_FILE_ELEMENTS_KEY)
+					.name("Large files : maximum elements")
+					.description("Number of elements above which a file is analyzed in metadata-only mode. Use 0 for no limit.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Integer.toString(MAX_FILE_ELEMENTS_DEFAULT))
+					.build(),
+				PropertyDefinition.builder(MAX_FILE_DEPTH_KEY)
+					.name("Large files : maximum depth")
+					.description("Nesting depth of the elements above which a file is analyzed in metadata-only mode. Use 0 for no limit.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Integer.toString(MAX_FILE_DEPTH_DEFAULT))
+					.build(),
+				PropertyDefinition.builder(PROJECT_LEVEL_KEY)
+					.name("Project level analysis")
+					.description("Analyze the xml files of all the modules at once, with one index of the proxies, shared flows and targets, instead of module by module. Use it when the bundles are split between modules.")
+					.category(CATEGORY)
+					.onQualifiers(Qualifiers.PROJECT)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue(Boolean.FALSE.toString())
+					.build()
+			);
+	}
+
+}
@@ -15,12 +15,20 @@
  */
 package com.arkea.satd.sonar.xml;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FilePredicates;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.rule.CheckFactory;
@@ -28,7 +36,10 @@ import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.xml.Xml;
 import org.sonarsource.analyzer.commons.ProgressReport;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -42,22 +53,34 @@ import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
  */
 public class ApigeeXmlSensor implements Sensor {
 
+	private static final Logger LOG = Loggers.get(ApigeeXmlSensor.class);
+
 	private final Checks<Object> checks;
 	private final FileSystem fileSystem;
-	private final FilePredicate mainFilesPredicate;
+	private final FilePredicate archivesPredicate;
+	private CheckRunner checkRunner = new CheckRunner(0, 0);
+	private int parseThreads = 1;
+	private HeapMonitor heapMonitor = new HeapMonitor(100);
+	private LargeFileGuard largeFileGuard = LargeFileGuard.NONE;
+	private AnalysisStatistics statistics = new AnalysisStatistics();
 
-	private static SensorContext staticContext;
+	// The context of the analysis running on the current thread, for the checks reporting issues on other files
+	private static final ThreadLocal<SensorContext> CONTEXT = new ThreadLocal<>();
 
 	public static void setContext(SensorContext ctx) {
-		staticContext = ctx;
+		if(ctx == null) {
+			CONTEXT.remove();
+		} else {
+			CONTEXT.set(ctx);
+		}
 	}
 	
 	public ApigeeXmlSensor(FileSystem fileSystem, CheckFactory checkFactory) {		
 		this.checks = checkFactory.create(CheckRepository.REPOSITORY_KEY).addAnnotatedChecks(CheckRepository.getCheckClasses());
 		this.fileSystem = fileSystem;
-		this.mainFilesPredicate = fileSystem.predicates().and(
+		this.archivesPredicate = fileSystem.predicates().and(
 		fileSystem.predicates().hasType(InputFile.Type.MAIN),
-		fileSystem.predicates().hasLanguage(Xml.KEY));
+		fileSystem.predicates().hasExtension(ZipBundle.EXTENSION));
 	}
 
 	private void runChecks(SensorContext context, XmlFile newXmlFile) {
@@ -69,11 +92,10 @@ public class ApigeeXmlSensor implements Sensor {
 	
 	// Visible for testing
 	  void runCheck(SensorContext context, SonarXmlCheck check, RuleKey ruleKey, XmlFile newXmlFile) {
-	    try {
-	      check.scanFile(context, ruleKey, newXmlFile);
-	    } catch (Exception e) {
-	    	// Do nothing
-	    }
+		// Failures and timeouts are counted by the runner, and reported at the end of the analysis
+		long start = System.nanoTime();
+		checkRunner.run(context, check, ruleKey, newXmlFile);
+		statistics.recordCheck(ruleKey, System.nanoTime() - start);
 	}	
 		
 	@Override
@@ -89,53 +111,78 @@ public class ApigeeXmlSensor implements Sensor {
 	}
 
 	@Override
-	public void execute(SensorContext context) {
-		
-		// Catch the context
-		ApigeeXmlSensor.setContext(context);
+	public void execute(SensorContext sensorContext) {
+		if(ApigeeProjectSensor.isEnabled(sensorContext)) {
+			LOG.debug("The Apigee files are analyzed by the project sensor");
+			return;
+		}
+		analyzeFileSystem(sensorContext);
+	}
 
-		// Clear the BundleRecorder from eventual previous execution
-		BundleRecorder.clear();
+	/**
+	 * Analyzes all the xml files of the file system
+	 */
+	void analyzeFileSystem(SensorContext sensorContext) {
+
+		statistics = new AnalysisStatistics();
 
+		long start = System.nanoTime();
 	    List<InputFile> inputFiles = new ArrayList<>();
-	    fileSystem.inputFiles(mainFilesPredicate).forEach(inputFiles::add);
+	    fileSystem.inputFiles(mainFilesPredicate(sensorContext.config())).forEach(inputFiles::add);
+	    Map<ZipBundle, InputFile> archives = openArchives(sensorContext, inputFiles);
+	    statistics.recordStage(AnalysisStatistics.STAGE_DISCOVERY, System.nanoTime() - start);
+	    statistics.setFilesCount(inputFiles.size());
 
+	    // Nothing to analyze : the state of the analysis is not set up
 	    if (inputFiles.isEmpty()) {
+	      closeArchives(archives.keySet());
 	      return;
 	    }
 
+		// Count the issues saved by each rule, the issues in the zipped bundles being reported on the archives
+		// and the issues in the files analyzed in metadata-only mode on the files themselves
+		SensorContext context = LargeFileGuard.reportOnOriginalFiles(
+				statistics.countIssues(archives.isEmpty() ? sensorContext : ZipBundle.reportOnArchives(sensorContext, archives)));
+
+		// Catch the context
+		ApigeeXmlSensor.setContext(context);
+
+		// Clear the BundleRecorder from eventual previous execution
+		BundleRecorder.clear();
+
+		QueryProfiler.clear();
+		QueryProfiler.setEnabled(context.config().getBoolean(ApigeeProperties.DEBUG_QUERIES_KEY).orElse(false));
+
+	    largeFileGuard = LargeFileGuard.of(context.config());
+	    heapMonitor = new HeapMonitor(context.config().getInt(ApigeeProperties.MEMORY_THRESHOLD_KEY).orElse(ApigeeProperties.MEMORY_THRESHOLD_DEFAULT));
+	    parseThreads = context.config().getInt(ApigeeProperties.PARSE_THREADS_KEY).orElse(ApigeeProperties.PARSE_THREADS_DEFAULT);
+	    checkRunner = new CheckRunner(
+	    		context.config().getLong(ApigeeProperties.CHECK_TIMEOUT_KEY).orElse(ApigeeProperties.CHECK_TIMEOUT_DEFAULT),
+	    		context.config().getInt(ApigeeProperties.CHECK_MAX_FAILURES_KEY).orElse(ApigeeProperties.CHECK_MAX_FAILURES_DEFAULT));
+
 	    ProgressReport progressReport = new ProgressReport("Report about progress of Apigee XML analyzer", TimeUnit.SECONDS.toMillis(10));
 	    progressReport.start(inputFiles.stream().map(InputFile::toString).collect(Collectors.toList()));
 
 	    boolean cancelled = false;
 	    try {
-	    	
-			// First loop to store ALL files.
-			for (InputFile inputFile : inputFiles) {
-				try {
-					XmlFile xmlFile = XmlFile.create(inputFile);
-					BundleRecorder.storeFile(xmlFile);
-				} catch(Exception e) {
-					// Case of parse exception
-			    }
-			}
-	    	
-			// Second loop to checks files one by one.
-	      for (InputFile inputFile : inputFiles) {
-	        if (context.isCancelled()) {
-	          cancelled = true;
-	          break;
-	        }
-			
-	        try {
-				XmlFile xmlFile = XmlFile.create(inputFile);
-				runChecks(context, xmlFile);
-			} catch(Exception e) {
-				// Case of parse exception
-		    }	        
-	        progressReport.nextFile();
-	      }
+	    	if(context.config().getBoolean(ApigeeProperties.BUNDLE_MODELS_KEY).orElseGet(() -> context.runtime().getProduct() == SonarProduct.SONARLINT)) {
+	    		cancelled = analyzeBundleModels(context, inputFiles, progressReport);
+	    	} else if(context.config().getBoolean(ApigeeProperties.BUNDLE_AT_A_TIME_KEY).orElse(false)) {
+	    		cancelled = analyzeBundleAtATime(context, inputFiles, progressReport);
+	    	} else {
+	    		cancelled = analyze(context, inputFiles, progressReport);
+	    	}
 	    } finally {
+	      closeArchives(archives.keySet());
+	      checkRunner.close();
+	      checkRunner.logSummary();
+	      reportStatistics(context);
+	      LOG.debug("{} symbols shared by the documents", BundleRecorder.getSymbols().size());
+	      BundleRecorder.release();
+	      if (QueryProfiler.isEnabled()) {
+	        QueryProfiler.logReport();
+	      }
+	      QueryProfiler.release();
 	      if (!cancelled) {
 	        progressReport.stop();
 	      } else {
@@ -144,7 +191,253 @@ public class ApigeeXmlSensor implements Sensor {
 	    }		
 	}
 
+	/**
+	 * Records all the files, parsed ahead by the parsing threads, then checks the recorded files one by one.
+	 * When the heap is short while the files are recorded, the analysis switches to the bundle at a time analysis, whose memory is bounded by the largest bundle.
+	 * @return true if the analysis was cancelled
+	 */
+	private boolean analyze(SensorContext context, List<InputFile> inputFiles, ProgressReport progressReport) {
+		try (ParsingPipeline pipeline = new ParsingPipeline(parseThreads, largeFileGuard, context::isCancelled)) {
+			// First stage to store ALL files.
+			List<ParsingPipeline.Parsed> parsedFiles = new ArrayList<>();
+			boolean recorded = pipeline.forEach(inputFiles, parsed -> {
+				record(parsed);
+				parsedFiles.add(parsed);
+				return !heapMonitor.isUnderPressure();
+			});
+			if(!recorded && !context.isCancelled()) {
+				LOG.warn("Apigee analysis short of heap ({}) : switching to the bundle at a time analysis", heapMonitor.getUsage());
+				BundleRecorder.clear();
+				BundleModel.clearModels();
+				return analyzeBundleAtATime(context, inputFiles, progressReport);
+			}
+			return !recorded || check(context, parsedFiles, progressReport);
+		}
+	}
+
+	/**
+	 * Records the files, then checks them one by one
+	 * @return true if the analysis was cancelled
+	 */
+	private boolean analyze(SensorContext context, ParsingPipeline pipeline, List<InputFile> inputFiles, ProgressReport progressReport) {
+		List<ParsingPipeline.Parsed> parsedFiles = new ArrayList<>();
+		boolean recorded = pipeline.forEach(inputFiles, parsed -> {
+			record(parsed);
+			parsedFiles.add(parsed);
+			return true;
+		});
+		return !recorded || check(context, parsedFiles, progressReport);
+	}
+
+	private void record(ParsingPipeline.Parsed parsed) {
+		statistics.recordStage(AnalysisStatistics.STAGE_PARSE, parsed.getNanos());
+		if(parsed.getXmlFile() != null) {
+			long start = System.nanoTime();
+			AnalysisSpan span = AnalysisEvents.index(parsed.getInputFile().toString());
+			BundleRecorder.storeFile(parsed.getXmlFile());
+			span.end();
+			statistics.recordStage(AnalysisStatistics.STAGE_INDEX, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Second stage to check files one by one, once ALL files are stored : the checks run on the recorded files, which are not parsed again.
+	 * @return true if the analysis was cancelled
+	 */
+	private boolean check(SensorContext context, List<ParsingPipeline.Parsed> parsedFiles, ProgressReport progressReport) {
+		for(ParsingPipeline.Parsed parsed : parsedFiles) {
+			if (context.isCancelled()) {
+				return true;
+			}
+			if(parsed.getXmlFile() != null) {
+				long start = System.nanoTime();
+				runChecks(context, parsed.getXmlFile());
+				statistics.recordStage(AnalysisStatistics.STAGE_CHECKS, System.nanoTime() - start);
+			}
+			progressReport.nextFile();
+		}
+		return false;
+	}
+
+	/**
+	 * Records and checks the bundles one by one, the files of a bundle being dropped before the next bundle,
+	 * so that the memory grows with the largest bundle rather than with the project.
+	 * Each zipped bundle is a bundle, the files outside the bundle directories are analyzed together, last.
+	 * With the shared flows index, the shared flow bundles are analyzed first, and their flows are kept for the next bundles.
+	 * @return true if the analysis was cancelled
+	 */
+	private boolean analyzeBundleAtATime(SensorContext context, List<InputFile> inputFiles, ProgressReport progressReport) {
+		boolean sharedFlowsIndex = context.config().getBoolean(ApigeeProperties.SHARED_FLOWS_INDEX_KEY).orElse(false);
+		Map<Path, List<InputFile>> bundles = new LinkedHashMap<>();
+		List<InputFile> others = new ArrayList<>();
+		for(InputFile inputFile : inputFiles) {
+			// The entries of a zipped bundle are grouped by archive
+			Path root = inputFile.uri().getPath().contains(ZipBundle.SEPARATOR) ? inputFile.path() : BundleModel.bundleRoot(inputFile);
+			if(root == null) {
+				others.add(inputFile);
+			} else {
+				bundles.computeIfAbsent(root, r -> new ArrayList<>()).add(inputFile);
+			}
+		}
+		List<List<InputFile>> groups = new ArrayList<>();
+		if(sharedFlowsIndex) {
+			bundles.forEach((root, files) -> {
+				if(isSharedFlowBundle(root)) {
+					groups.add(files);
+				}
+			});
+			bundles.forEach((root, files) -> {
+				if(!isSharedFlowBundle(root)) {
+					groups.add(files);
+				}
+			});
+		} else {
+			groups.addAll(bundles.values());
+		}
+		if(!others.isEmpty()) {
+			groups.add(others);
+		}
+
+		List<XmlFile> sharedFlows = new ArrayList<>();
+		try (ParsingPipeline pipeline = new ParsingPipeline(parseThreads, largeFileGuard, context::isCancelled)) {
+			for(List<InputFile> group : groups) {
+				BundleRecorder.clear();
+				sharedFlows.forEach(BundleRecorder::storeFile);
+				if(analyze(context, pipeline, group, progressReport)) {
+					return true;
+				}
+				if(sharedFlowsIndex) {
+					for(XmlFile sharedFlow : BundleRecorder.getSharedFlows()) {
+						if(!sharedFlows.contains(sharedFlow)) {
+							sharedFlows.add(sharedFlow);
+						}
+					}
+				}
+			}
+		} finally {
+			BundleRecorder.clear();
+		}
+		return false;
+	}
+
+	private static boolean isSharedFlowBundle(Path root) {
+		return "sharedflowbundle".equals(String.valueOf(root.getFileName()));
+	}
+
+	/**
+	 * Updates the kept model of each bundle directory with its analyzed files, then checks them against the model.
+	 * The models are dropped when the heap is short, and read again from the disk by the next analyses.
+	 * The files outside the bundle directories are analyzed together, as without the models.
+	 * @return true if the analysis was cancelled
+	 */
+	private boolean analyzeBundleModels(SensorContext sensorContext, List<InputFile> inputFiles, ProgressReport progressReport) {
+		Map<Path, List<InputFile>> bundles = new LinkedHashMap<>();
+		List<InputFile> others = new ArrayList<>();
+		for(InputFile inputFile : inputFiles) {
+			Path root = BundleModel.bundleRoot(inputFile);
+			if(root == null) {
+				others.add(inputFile);
+			} else {
+				bundles.computeIfAbsent(root, r -> new ArrayList<>()).add(inputFile);
+			}
+		}
+
+		// The files of the models which are not analyzed are unknown to the scanner
+		SensorContext context = LargeFileGuard.reportOnOriginalFiles(BundleModel.reportOnAnalyzedFiles(sensorContext));
+		ApigeeXmlSensor.setContext(context);
+		if(!others.isEmpty() && analyze(context, others, progressReport)) {
+			return true;
+		}
+
+		BundleRecorder.Recording recording = BundleRecorder.getRecording();
+		try {
+			for(Map.Entry<Path, List<InputFile>> bundle : bundles.entrySet()) {
+				BundleModel model = BundleModel.getOrCreate(bundle.getKey());
+				BundleRecorder.setRecording(model.getRecording());
+				long start = System.nanoTime();
+				List<XmlFile> xmlFiles;
+				try {
+					xmlFiles = model.update(bundle.getValue(), largeFileGuard);
+				} catch (IOException e) {
+					LOG.warn("Unable to read the bundle {}", bundle.getKey(), e);
+					continue;
+				}
+				statistics.recordStage(AnalysisStatistics.STAGE_INDEX, System.nanoTime() - start);
+				LOG.debug("Bundle model {} updated, {} file(s) read from the disk", bundle.getKey(), model.getReadCount());
+
+				for(XmlFile xmlFile : xmlFiles) {
+					if (context.isCancelled()) {
+						return true;
+					}
+					start = System.nanoTime();
+					runChecks(context, xmlFile);
+					statistics.recordStage(AnalysisStatistics.STAGE_CHECKS, System.nanoTime() - start);
+					progressReport.nextFile();
+				}
+				if(heapMonitor.isUnderPressure()) {
+					LOG.warn("Apigee analysis short of heap ({}) : dropping the bundle models", heapMonitor.getUsage());
+					BundleModel.clearModels();
+				}
+			}
+		} finally {
+			BundleRecorder.setRecording(recording);
+		}
+		return false;
+	}
+
+	/**
+	 * @return the predicate of the main xml files of the bundle directories, the other xml files being ignored
+	 */
+	private FilePredicate mainFilesPredicate(Configuration config) {
+		String[] bundleRoots = config.getStringArray(ApigeeProperties.BUNDLE_ROOTS_KEY);
+		FilePredicates predicates = fileSystem.predicates();
+		return predicates.and(
+				predicates.hasType(InputFile.Type.MAIN),
+				predicates.hasLanguage(Xml.KEY),
+				predicates.matchesPathPatterns(bundleRoots.length == 0 ? ApigeeProperties.BUNDLE_ROOTS_DEFAULT.split(",") : bundleRoots));
+	}
+
+	/**
+	 * Opens the zipped bundles of the file system, and adds their xml entries to the files to analyze
+	 * @return the opened bundles, with their archive
+	 */
+	private Map<ZipBundle, InputFile> openArchives(SensorContext context, List<InputFile> inputFiles) {
+		Map<ZipBundle, InputFile> archives = new LinkedHashMap<>();
+		if(context.config().getBoolean(ApigeeProperties.ARCHIVES_KEY).orElse(true)) {
+			for(InputFile archive : fileSystem.inputFiles(archivesPredicate)) {
+				try {
+					ZipBundle bundle = new ZipBundle(archive.path(), archive.toString());
+					archives.put(bundle, archive);
+					inputFiles.addAll(bundle.getInputFiles());
+				} catch (IOException e) {
+					LOG.warn("Unable to read the zipped bundle {}", archive, e);
+				}
+			}
+		}
+		return archives;
+	}
+
+	private static void closeArchives(Collection<ZipBundle> archives) {
+		for(ZipBundle archive : archives) {
+			try {
+				archive.close();
+			} catch (IOException e) {
+				LOG.debug("Unable to close the zipped bundle {}", archive.getKey(), e);
+			}
+		}
+	}
+
+	private void reportStatistics(SensorContext context) {
+		statistics.logSummary(context.config().getInt(ApigeeProperties.REPORT_TOP_KEY).orElse(ApigeeProperties.REPORT_TOP_DEFAULT));
+		try {
+			File report = statistics.writeJson(fileSystem.workDir());
+			LOG.debug("Apigee analysis report written in {}", report);
+		} catch (IOException e) {
+			LOG.warn("Unable to write the Apigee analysis report", e);
+		}
+	}
+
 	public static SensorContext getContext() {
-		return staticContext;
+		return CONTEXT.get();
 	}
 }
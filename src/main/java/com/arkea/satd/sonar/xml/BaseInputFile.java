@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextPointer;
+import org.sonar.api.batch.fs.TextRange;
+
+/**
+ * InputFile read by the plugin itself rather than by the scanner : an UTF-8 xml file, main, whose contents are read on each call.
+ * Lines are 1-based and line offsets 0-based, as in SonarQube.
+ */
+public abstract class BaseInputFile implements InputFile {
+
+	public static final String LANGUAGE = "xml";
+
+	private int[] lineLengths;
+
+	/**
+	 * @return the raw contents, decoded from UTF-8
+	 */
+	protected abstract String readContents() throws IOException;
+
+	/**
+	 * @return the size in bytes of the raw contents, -1 if unknown
+	 */
+	public abstract long size();
+
+	@Override
+	public String filename() {
+		String path = relativePath();
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	@Override
+	public String language() {
+		return LANGUAGE;
+	}
+
+	@Override
+	public Type type() {
+		return Type.MAIN;
+	}
+
+	@Override
+	public InputStream inputStream() throws IOException {
+		return new ByteArrayInputStream(contents().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public String contents() throws IOException {
+		String text = readContents();
+		// The scanner strips the byte order mark
+		return text.startsWith("\uFEFF") ? text.substring(1) : text;
+	}
+
+	@Override
+	public Status status() {
+		return Status.SAME;
+	}
+
+	@Override
+	public int lines() {
+		return lineLengths().length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		try {
+			return contents().isEmpty();
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+	@Override
+	public TextPointer newPointer(int line, int lineOffset) {
+		return new Pointer(line, lineOffset);
+	}
+
+	@Override
+	public TextRange newRange(TextPointer start, TextPointer end) {
+		return new Range(start, end);
+	}
+
+	@Override
+	public TextRange newRange(int startLine, int startLineOffset, int endLine, int endLineOffset) {
+		return newRange(newPointer(startLine, startLineOffset), newPointer(endLine, endLineOffset));
+	}
+
+	@Override
+	public TextRange selectLine(int line) {
+		return newRange(line, 0, line, lineLengths()[line - 1]);
+	}
+
+	@Override
+	public Charset charset() {
+		return StandardCharsets.UTF_8;
+	}
+
+	@Override
+	public String key() {
+		return relativePath();
+	}
+
+	@Override
+	public boolean isFile() {
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return relativePath();
+	}
+
+	/**
+	 * Lengths of the lines, without the line terminators (\n, \r\n or \r)
+	 */
+	private synchronized int[] lineLengths() {
+		if(lineLengths == null) {
+			String text;
+			try {
+				text = contents();
+			} catch (IOException e) {
+				text = "";
+			}
+			List<Integer> lengths = new ArrayList<>();
+			int start = 0;
+			for(int i=0; i<text.length(); i++) {
+				char c = text.charAt(i);
+				if(c == '\n' || c == '\r') {
+					lengths.add(i - start);
+					if(c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+						i++;
+					}
+					start = i + 1;
+				}
+			}
+			lengths.add(text.length() - start);
+			lineLengths = lengths.stream().mapToInt(Integer::intValue).toArray();
+		}
+		return lineLengths;
+	}
+
+	private static final class Pointer implements TextPointer {
+		private final int line;
+		private final int lineOffset;
+
+		private Pointer(int line, int lineOffset) {
+			this.line = line;
+			this.lineOffset = lineOffset;
+		}
+
+		@Override
+		public int line() {
+			return line;
+		}
+
+		@Override
+		public int lineOffset() {
+			return lineOffset;
+		}
+
+		@Override
+		public int compareTo(TextPointer o) {
+			return line == o.line() ? Integer.compare(lineOffset, o.lineOffset()) : Integer.compare(line, o.line());
+		}
+
+		@Override
+		public String toString() {
+			return line + ":" + lineOffset;
+		}
+	}
+
+	private static final class Range implements TextRange {
+		private final TextPointer start;
+		private final TextPointer end;
+
+		private Range(TextPointer start, TextPointer end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public TextPointer start() {
+			return start;
+		}
+
+		@Override
+		public TextPointer end() {
+			return end;
+		}
+
+		@Override
+		public boolean overlap(TextRange another) {
+			return end.compareTo(another.start()) > 0 && another.end().compareTo(start) > 0;
+		}
+
+		@Override
+		public String toString() {
+			return start + "-" + end;
+		}
+	}
+}
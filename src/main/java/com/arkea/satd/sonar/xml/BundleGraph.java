@@ -0,0 +1,380 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Graph of the recorded files : each endpoint, flow, step and policy name has a dense integer ID, and the relations are int arrays.
+ * A many-to-one relation is indexed by the ID of its source. The one-to-many relations are in compressed rows :
+ * the targets of the source i are the entries [start[i], start[i+1]) of the targets array.
+ * Built once from the recorded files, see {@link BundleRecorder#getGraph()}, its queries are array reads which allocate nothing.
+ */
+public final class BundleGraph {
+
+	// Endpoints : proxy endpoints, shared flows and target endpoints, and the target endpoints of their route rules
+	private final XmlFile[] endpointFiles;
+	private final Map<XmlFile, Integer> endpointIds;
+	private final int[] targetStart;
+	private final int[] targets;
+	private final int[] routeCounts;
+
+	// Flows of the endpoints, and the steps of each flow
+	private final Element[] flowElements;
+	private final int[] flowEndpoints;
+
+	// Steps, with the flow they belong to, -1 when outside the flows
+	private final Element[] stepElements;
+	private final int[] stepEndpoints;
+	private final int[] stepFlows;
+
+	// Names of the policies and of the steps, with the policy of the name, -1 when none, and the steps of the name
+	private final Map<String, Integer> nameIds;
+	private final String[] names;
+	private final XmlFile[] namePolicies;
+	private final int[] nameStepStart;
+	private final int[] nameSteps;
+
+	private BundleGraph(Builder builder) {
+		endpointFiles = builder.endpointFiles.toArray(new XmlFile[0]);
+		endpointIds = builder.endpointIds;
+		flowElements = builder.flowElements.toArray(new Element[0]);
+		flowEndpoints = builder.flowEndpoints.toArray();
+		stepElements = builder.stepElements.toArray(new Element[0]);
+		stepEndpoints = builder.stepEndpoints.toArray();
+		stepFlows = builder.stepFlows.toArray();
+		nameIds = builder.nameIds;
+		names = builder.names.toArray(new String[0]);
+
+		namePolicies = new XmlFile[names.length];
+		for(Map.Entry<String, XmlFile> policy : builder.policies.entrySet()) {
+			namePolicies[builder.nameId(policy.getKey())] = policy.getValue();
+		}
+
+		nameStepStart = new int[names.length + 1];
+		nameSteps = rows(builder.stepNames, builder.stepNameSteps, nameStepStart);
+
+		targetStart = new int[endpointFiles.length + 1];
+		targets = rows(builder.routeSources, builder.routeTargets, targetStart);
+		routeCounts = new int[endpointFiles.length];
+		for(int i=0; i<targets.length; i++) {
+			routeCounts[targets[i]]++;
+		}
+	}
+
+	/**
+	 * Builds the compressed rows of the relation given as pairs, the targets of each source staying in the order of the pairs
+	 */
+	private static int[] rows(Ints sources, Ints pairTargets, int[] start) {
+		for(int i=0; i<sources.size; i++) {
+			start[sources.values[i] + 1]++;
+		}
+		for(int i=1; i<start.length; i++) {
+			start[i] += start[i - 1];
+		}
+		int[] rows = new int[sources.size];
+		int[] next = Arrays.copyOf(start, start.length - 1);
+		for(int i=0; i<sources.size; i++) {
+			rows[next[sources.values[i]]++] = pairTargets.values[i];
+		}
+		return rows;
+	}
+
+	/**
+	 * Builds the graph of the recorded files, selected as by the indexes of {@link BundleRecorder}
+	 */
+	static BundleGraph build(SymbolTable symbols, Collection<XmlFile> proxiesEndpoint, Collection<XmlFile> targetsEndpoint, Collection<XmlFile> policies) {
+		Builder builder = new Builder(symbols);
+		proxiesEndpoint.forEach(xmlFile -> builder.add(xmlFile, false));
+		targetsEndpoint.forEach(xmlFile -> builder.add(xmlFile, false));
+		policies.forEach(xmlFile -> builder.add(xmlFile, true));
+		builder.addRoutes();
+		return new BundleGraph(builder);
+	}
+
+	public int getEndpointCount() {
+		return endpointFiles.length;
+	}
+
+	/**
+	 * @return the ID of the recorded endpoint, -1 if the file is not a recorded endpoint
+	 */
+	public int getEndpointId(XmlFile xmlFile) {
+		Integer id = endpointIds.get(xmlFile);
+		return id == null ? -1 : id;
+	}
+
+	public XmlFile getEndpointFile(int endpoint) {
+		return endpointFiles[endpoint];
+	}
+
+	/**
+	 * @return the number of target endpoints named by the route rules of the endpoint
+	 */
+	public int getTargetCount(int endpoint) {
+		return targetStart[endpoint + 1] - targetStart[endpoint];
+	}
+
+	public int getTarget(int endpoint, int index) {
+		return targets[targetStart[endpoint] + index];
+	}
+
+	/**
+	 * @return the number of route rules of the bundle leading to the endpoint
+	 */
+	public int getRouteCount(int endpoint) {
+		return routeCounts[endpoint];
+	}
+
+	public int getFlowCount() {
+		return flowElements.length;
+	}
+
+	public Element getFlowElement(int flow) {
+		return flowElements[flow];
+	}
+
+	public int getFlowEndpoint(int flow) {
+		return flowEndpoints[flow];
+	}
+
+	public int getStepCount() {
+		return stepElements.length;
+	}
+
+	public Element getStepElement(int step) {
+		return stepElements[step];
+	}
+
+	public XmlFile getStepFile(int step) {
+		return endpointFiles[stepEndpoints[step]];
+	}
+
+	/**
+	 * @return the flow of the step, -1 if the step is outside the flows
+	 */
+	public int getStepFlow(int step) {
+		return stepFlows[step];
+	}
+
+	/**
+	 * @return the ID of the policy or step name, -1 if no policy nor step has this name
+	 */
+	public int getNameId(String name) {
+		Integer id = nameIds.get(name);
+		return id == null ? -1 : id;
+	}
+
+	public String getName(int name) {
+		return names[name];
+	}
+
+	/**
+	 * @return the first recorded policy of the name, null if the name is only used by steps
+	 */
+	public XmlFile getPolicy(int name) {
+		return namePolicies[name];
+	}
+
+	/**
+	 * @return the number of steps of the name, in all the endpoints
+	 */
+	public int getStepCount(int name) {
+		return nameStepStart[name + 1] - nameStepStart[name];
+	}
+
+	public int getStep(int name, int index) {
+		return nameSteps[nameStepStart[name] + index];
+	}
+
+	/**
+	 * @return whether a step of an endpoint has the name
+	 */
+	public boolean isAttached(int name) {
+		return nameStepStart[name + 1] > nameStepStart[name];
+	}
+
+	/**
+	 * Collects the graph before its conversion into arrays
+	 */
+	private static final class Builder {
+		private final SymbolTable symbols;
+		private final Map<String, XmlFile> policies = new HashMap<>();
+		private final List<XmlFile> endpointFiles = new ArrayList<>();
+		private final Map<XmlFile, Integer> endpointIds = new IdentityHashMap<>();
+		private final Map<String, Integer> targetIds = new HashMap<>();
+		private final List<Element> flowElements = new ArrayList<>();
+		private final Ints flowEndpoints = new Ints();
+		private final Map<Node, Integer> flowIds = new IdentityHashMap<>();
+		private final List<Element> stepElements = new ArrayList<>();
+		private final Ints stepEndpoints = new Ints();
+		private final Ints stepFlows = new Ints();
+		private final Map<String, Integer> nameIds = new HashMap<>();
+		private final List<String> names = new ArrayList<>();
+		// Relation pairs
+		private final Ints stepNames = new Ints();
+		private final Ints stepNameSteps = new Ints();
+		private final Ints routeSources = new Ints();
+		private final Ints routeTargets = new Ints();
+
+		private Builder(SymbolTable symbols) {
+			this.symbols = symbols;
+		}
+
+		private int nameId(String name) {
+			Integer id = nameIds.get(name);
+			if(id == null) {
+				id = names.size();
+				nameIds.put(name, id);
+				names.add(name);
+			}
+			return id;
+		}
+
+		private void add(XmlFile xmlFile, boolean isPolicy) {
+			Element root = xmlFile.getDocument().getDocumentElement();
+			String rootNodeName = root.getNodeName();
+			if("ProxyEndpoint".equals(rootNodeName) || "SharedFlow".equals(rootNodeName) || "TargetEndpoint".equals(rootNodeName)) {
+				addEndpoint(xmlFile, root);
+			} else if(isPolicy) {
+				policies.putIfAbsent(symbols.intern(root.getAttribute("name")), xmlFile);
+			}
+		}
+
+		private void addEndpoint(XmlFile xmlFile, Element root) {
+			int endpoint = endpointFiles.size();
+			endpointFiles.add(xmlFile);
+			endpointIds.put(xmlFile, endpoint);
+			if("TargetEndpoint".equals(root.getNodeName())) {
+				targetIds.putIfAbsent(root.getAttribute("name"), endpoint);
+			}
+
+			// The flows are children of the endpoint, or of its Flows and FaultRules children, as in the model
+			addFlows(root, "PreFlow", endpoint);
+			addFlows(root, "PostFlow", endpoint);
+			addFlows(root, "PostClientFlow", endpoint);
+			for(Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+				if("Flows".equals(child.getNodeName())) {
+					addFlows(child, "Flow", endpoint);
+				} else if("FaultRules".equals(child.getNodeName())) {
+					addFlows(child, "FaultRule", endpoint);
+				}
+			}
+			addFlows(root, "DefaultFaultRule", endpoint);
+
+			// Same steps, in the same order, as the index of BundleRecorder
+			NodeList steps = root.getElementsByTagName("Step");
+			for(int i=0; i<steps.getLength(); i++) {
+				Element step = (Element) steps.item(i);
+				int stepId = stepElements.size();
+				stepElements.add(step);
+				stepEndpoints.add(endpoint);
+				stepFlows.add(flowOf(step));
+				int first = stepNames.size;
+				for(Node child = step.getFirstChild(); child != null; child = child.getNextSibling()) {
+					if(child.getNodeType() == Node.ELEMENT_NODE && "Name".equals(child.getNodeName())) {
+						for(String text : BundleRecorder.texts(child, symbols)) {
+							int name = nameId(text);
+							// A step is counted once per name
+							if(stepNames.indexOf(name, first) < 0) {
+								stepNames.add(name);
+								stepNameSteps.add(stepId);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private void addFlows(Node parent, String name, int endpoint) {
+			for(Node flow = parent.getFirstChild(); flow != null; flow = flow.getNextSibling()) {
+				if(flow.getNodeType() == Node.ELEMENT_NODE && name.equals(flow.getNodeName())) {
+					flowIds.put(flow, flowElements.size());
+					flowElements.add((Element) flow);
+					flowEndpoints.add(endpoint);
+				}
+			}
+		}
+
+		private int flowOf(Node step) {
+			for(Node parent = step.getParentNode(); parent != null; parent = parent.getParentNode()) {
+				Integer flow = flowIds.get(parent);
+				if(flow != null) {
+					return flow;
+				}
+			}
+			return -1;
+		}
+
+		private void addRoutes() {
+			policies.keySet().forEach(this::nameId);
+			for(int endpoint=0; endpoint<endpointFiles.size(); endpoint++) {
+				Element root = endpointFiles.get(endpoint).getDocument().getDocumentElement();
+				NodeList routeRules = root.getElementsByTagName("RouteRule");
+				for(int i=0; i<routeRules.getLength(); i++) {
+					for(Node child = routeRules.item(i).getFirstChild(); child != null; child = child.getNextSibling()) {
+						if(child.getNodeType() == Node.ELEMENT_NODE && "TargetEndpoint".equals(child.getNodeName())) {
+							Integer target = targetIds.get(child.getTextContent());
+							if(target != null) {
+								routeSources.add(endpoint);
+								routeTargets.add(target);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Growable array of ints
+	 */
+	private static final class Ints {
+		private int[] values = new int[16];
+		private int size;
+
+		private void add(int value) {
+			if(size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private int indexOf(int value, int from) {
+			for(int i=from; i<size; i++) {
+				if(values[i] == value) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
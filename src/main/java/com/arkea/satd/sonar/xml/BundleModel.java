@@ -0,0 +1,271 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+
+/**
+ * Files of a bundle directory, recorded and indexed once and kept between the analyses of the module.
+ * SonarLint analyzes the files one by one while the bundle checks need the whole bundle : an analysis only parses again
+ * the files it analyzes, which may be unsaved, and the files changed on the disk since the previous analysis.
+ * The analyses of a module run one after the other : only the map of the kept models is shared between threads.
+ */
+public class BundleModel {
+
+	public static final List<String> BUNDLE_DIRECTORIES = Arrays.asList("apiproxy", "sharedflowbundle");
+
+	// Number of models kept, the least recently used one being dropped
+	static final int MAX_MODELS = 16;
+
+	private static final Map<Path, BundleModel> MODELS = new LinkedHashMap<Path, BundleModel>(MAX_MODELS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, BundleModel> eldest) {
+			return size() > MAX_MODELS;
+		}
+	};
+
+	private final Path root;
+	private final BundleRecorder.Recording recording = new BundleRecorder.Recording();
+
+	// Modification time and size of the files read from the disk ; null for the analyzed files, read from the scanner
+	private final Map<Path, String> stamps = new HashMap<>();
+	private int readCount;
+
+	private BundleModel(Path root) {
+		this.root = root;
+	}
+
+	/**
+	 * @return the model of the bundle directory, created empty if none is kept
+	 */
+	static BundleModel getOrCreate(Path root) {
+		synchronized (MODELS) {
+			return MODELS.computeIfAbsent(root, BundleModel::new);
+		}
+	}
+
+	/**
+	 * @return the model kept for the bundle directory, null if none
+	 */
+	public static BundleModel get(Path root) {
+		synchronized (MODELS) {
+			return MODELS.get(root);
+		}
+	}
+
+	public static void clearModels() {
+		synchronized (MODELS) {
+			MODELS.clear();
+		}
+	}
+
+	/**
+	 * @return the apiproxy or sharedflowbundle directory holding the file, null if none
+	 */
+	public static Path bundleRoot(Path file) {
+		for(Path dir = file.getParent(); dir != null; dir = dir.getParent()) {
+			if(dir.getFileName() != null && BUNDLE_DIRECTORIES.contains(dir.getFileName().toString())) {
+				return dir;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the bundle directory holding the file on the disk, null if none or if the file is an entry of a zipped bundle
+	 */
+	static Path bundleRoot(InputFile inputFile) {
+		Path file = inputFile.path();
+		if(!file.toUri().getPath().equals(inputFile.uri().getPath())) {
+			return null;
+		}
+		return bundleRoot(file.toAbsolutePath());
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the number of files read from the disk by the last update
+	 */
+	public int getReadCount() {
+		return readCount;
+	}
+
+	BundleRecorder.Recording getRecording() {
+		return recording;
+	}
+
+	/**
+	 * Brings the model up to date before the analysis of some of its files. The analyzed files are parsed from the scanner,
+	 * the other files are read from the disk when they are new or changed, and the deleted files are removed.
+	 * The recording of the model must be the one of the current thread, see {@link BundleRecorder#setRecording}.
+	 * @return the analyzed files which could be parsed
+	 */
+	List<XmlFile> update(Collection<InputFile> analyzed, LargeFileGuard guard) throws IOException {
+		Set<Path> analyzedPaths = new HashSet<>();
+		analyzed.forEach(inputFile -> analyzedPaths.add(inputFile.path().toAbsolutePath()));
+		if(analyzed.size() * 2 > stamps.size()) {
+			// Most of the bundle is analyzed : recording it again is cheaper than replacing the files one by one
+			BundleRecorder.clear();
+			stamps.clear();
+		}
+
+		Map<Path, String> onDisk = list();
+		readCount = 0;
+		for(Path path : new ArrayList<>(stamps.keySet())) {
+			if(!onDisk.containsKey(path) && !analyzedPaths.contains(path)) {
+				BundleRecorder.removeFile(path.toUri().getPath());
+				stamps.remove(path);
+			}
+		}
+		for(Map.Entry<Path, String> file : onDisk.entrySet()) {
+			Path path = file.getKey();
+			if(!analyzedPaths.contains(path) && !file.getValue().equals(stamps.get(path))) {
+				store(new DiskInputFile(path, root.getParent().relativize(path).toString().replace('\\', '/')), guard);
+				stamps.put(path, file.getValue());
+				readCount++;
+			}
+		}
+
+		List<XmlFile> xmlFiles = new ArrayList<>();
+		for(InputFile inputFile : analyzed) {
+			XmlFile xmlFile = store(inputFile, guard);
+			if(xmlFile != null) {
+				xmlFiles.add(xmlFile);
+			}
+			// The scanner's version may be unsaved : the file is read from the disk again if not analyzed next time
+			stamps.put(inputFile.path().toAbsolutePath(), null);
+		}
+		return xmlFiles;
+	}
+
+	private static XmlFile store(InputFile inputFile, LargeFileGuard guard) {
+		try {
+			XmlFile xmlFile = guard.parse(inputFile);
+			BundleRecorder.storeFile(xmlFile);
+			return xmlFile;
+		} catch(Exception e) {
+			// Case of parse exception : the previous version must not be seen by the checks
+			BundleRecorder.removeFile(inputFile.uri().getPath());
+			return null;
+		}
+	}
+
+	/**
+	 * @return the modification time and size of the xml files of the bundle directory, by path
+	 */
+	private Map<Path, String> list() throws IOException {
+		if(!Files.isDirectory(root)) {
+			return new HashMap<>();
+		}
+		try (Stream<Path> stream = Files.walk(root)) {
+			List<Path> paths = stream.filter(Files::isRegularFile)
+					.filter(path -> ZipBundle.isXml(path.toString()) && !ZipBundle.isHidden(root.relativize(path).toString()))
+					.sorted()
+					.collect(Collectors.toList());
+			Map<Path, String> files = new LinkedHashMap<>();
+			for(Path path : paths) {
+				files.put(path, Files.getLastModifiedTime(path).toMillis() + ":" + Files.size(path));
+			}
+			return files;
+		}
+	}
+
+	/**
+	 * Wraps the context so that the issues located in files only read from the disk are dropped : those files are not part
+	 * of the analysis, their issues are reported when they are analyzed.
+	 */
+	static SensorContext reportOnAnalyzedFiles(SensorContext context) {
+		return AnalysisStatistics.proxy(SensorContext.class, context, (delegate, method, args) -> {
+			Object result = method.invoke(delegate, args);
+			if("newIssue".equals(method.getName())) {
+				return reportingOnAnalyzedFiles((NewIssue)result);
+			}
+			return result;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static NewIssue reportingOnAnalyzedFiles(NewIssue issue) {
+		// Whether the issue is located in a file read from the disk
+		boolean[] dropped = new boolean[1];
+		return AnalysisStatistics.proxy(NewIssue.class, issue, (delegate, method, args) -> {
+			NewIssue newIssue = (NewIssue) delegate;
+			switch(method.getName()) {
+				case "newLocation":
+					// The location is only known once complete, it is created by the issue if kept
+					return new RecordedLocation();
+				case "at":
+					dropped[0] |= isDropped((NewIssueLocation)args[0]);
+					return dropped[0] ? delegate : method.invoke(delegate, toLocation(newIssue, (NewIssueLocation)args[0]));
+				case "addLocation":
+					return isDropped((NewIssueLocation)args[0]) ? delegate : method.invoke(delegate, toLocation(newIssue, (NewIssueLocation)args[0]));
+				case "addFlow":
+					List<NewIssueLocation> flow = new ArrayList<>();
+					for(NewIssueLocation location : (Iterable<NewIssueLocation>)args[0]) {
+						if(!isDropped(location)) {
+							flow.add(toLocation(newIssue, location));
+						}
+					}
+					return flow.isEmpty() ? delegate : newIssue.addFlow(flow);
+				case "save":
+					return dropped[0] ? null : method.invoke(delegate, args);
+				default:
+					return method.invoke(delegate, args);
+			}
+		});
+	}
+
+	private static boolean isDropped(NewIssueLocation location) {
+		return location instanceof RecordedLocation && ((RecordedLocation)location).component instanceof DiskInputFile;
+	}
+
+	private static NewIssueLocation toLocation(NewIssue issue, NewIssueLocation location) {
+		return location instanceof RecordedLocation ? ((RecordedLocation)location).copyTo(issue) : location;
+	}
+
+	/**
+	 * File of the bundle read from the disk, not analyzed
+	 */
+	private static class DiskInputFile extends LocalInputFile {
+		private DiskInputFile(Path path, String relativePath) {
+			super(path, relativePath);
+		}
+	}
+}
@@ -16,109 +16,306 @@
 package com.arkea.satd.sonar.xml;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.arkea.satd.sonar.xml.model.Bundle;
+
 /**
- * This class records each files discovered in the bundle directory
+ * This class records each files discovered in the bundle directory.
+ * The files are indexed when they are stored, so that the searches do not walk all the documents.
+ * Each thread records its own files : the checks see the files of the analysis running on their thread.
  * @author Nicolas Tisserand
  */
 public class BundleRecorder {
 
-	private static Map<String, XmlFile> proxiesEndpoint = new HashMap<>();
-	private static Map<String, XmlFile> targetsEndpoint = new HashMap<>();
-	private static Map<String, XmlFile> resources = new HashMap<>();
-	private static Map<String, XmlFile> policies = new HashMap<>();
-	
+	// The files recorded by the analysis running on the current thread, so that several analyses can run in parallel
+	private static final ThreadLocal<Recording> RECORDING = ThreadLocal.withInitial(Recording::new);
+
+	/**
+	 * The files recorded by one analysis, and their indexes
+	 */
+	public static final class Recording {
+		private final Map<String, XmlFile> proxiesEndpoint = new LinkedHashMap<>();
+		private final Map<String, XmlFile> targetsEndpoint = new LinkedHashMap<>();
+		private final Map<String, XmlFile> resources = new LinkedHashMap<>();
+		private final Map<String, XmlFile> policies = new LinkedHashMap<>();
+
+		// Indexes of the stored files
+		private final Map<String, Map<Node, XmlFile>> stepsByName = new HashMap<>();
+		private final Map<String, Set<XmlFile>> endpointsByStepName = new HashMap<>();
+		private final Map<String, List<XmlFile>> policiesByType = new HashMap<>();
+		private final Map<String, XmlFile> policiesByName = new HashMap<>();
+		private final Map<String, List<XmlFile>> policiesByResourceURL = new HashMap<>();
+		private final Map<String, XmlFile> targetsByName = new HashMap<>();
+
+		// Structures computed by the checks from the whole bundle, see computeIfAbsent
+		private final Map<String, Object> derived = new HashMap<>();
+
+		// Texts shared by the recorded documents
+		private final SymbolTable symbols = new SymbolTable();
+	}
+
 	private BundleRecorder() {
 		// Private constructor
 	}
+
+	/**
+	 * @return the files recorded by the analysis running on the current thread
+	 */
+	static Recording getRecording() {
+		return RECORDING.get();
+	}
+
+	/**
+	 * Makes the current thread see the files recorded by an analysis, such as the worker thread running the checks of the analysis
+	 */
+	public static void setRecording(Recording recording) {
+		RECORDING.set(recording);
+	}
 	
 	public static void clear() {
-			proxiesEndpoint.clear();
-			targetsEndpoint.clear();
-			resources.clear();
-			policies.clear();
+		Recording r = RECORDING.get();
+		r.proxiesEndpoint.clear();
+		r.targetsEndpoint.clear();
+		r.resources.clear();
+		r.policies.clear();
+		r.symbols.clear();
+		clearIndexes();
+	}
+
+	/**
+	 * @return the symbol table of the analysis running on the current thread
+	 */
+	public static SymbolTable getSymbols() {
+		return RECORDING.get().symbols;
+	}
+
+	/**
+	 * Forgets the recording of the current thread at the end of an analysis, the thread being reused by the next tasks
+	 */
+	public static void release() {
+		RECORDING.remove();
+	}
+
+	private static void clearIndexes() {
+		Recording r = RECORDING.get();
+		r.stepsByName.clear();
+		r.endpointsByStepName.clear();
+		r.policiesByType.clear();
+		r.policiesByName.clear();
+		r.policiesByResourceURL.clear();
+		r.targetsByName.clear();
+		r.derived.clear();
 	}
 	
 	/**
-	 * Stores the XmlFile in static Maps depending on their type
+	 * Stores the XmlFile in the Maps of the current analysis depending on their type
 	 * @param xmlFile
 	 */
 	public static void storeFile(XmlFile xmlFile) {
+		Recording r = RECORDING.get();
 
 		Document document = xmlFile.getDocument();
 		String fileName = xmlFile.getInputFile().uri().getPath();
 		
 	    if (document.getDocumentElement() != null) {
-	    	
+
+	    	// The recorded documents are kept for the whole analysis : their texts are shared
+	    	r.symbols.intern(document);
+
 	    	String rootNodeName = document.getDocumentElement().getNodeName();
+	    	XmlFile previous = null;
+	    	boolean isPolicy = false;
 	    	
 	    	if("ProxyEndpoint".equals(rootNodeName) || "SharedFlow".equals(rootNodeName)) {
 				// ProxyEndpoint and SharedFlow storage
-		    	proxiesEndpoint.put(fileName, xmlFile);
+		    	previous = r.proxiesEndpoint.put(fileName, xmlFile);
 	    	} else if ("TargetEndpoint".equals(rootNodeName)) {
 				// TargetEndpoint storage
-		    	targetsEndpoint.put(fileName, xmlFile);
+		    	previous = r.targetsEndpoint.put(fileName, xmlFile);
 	    	} else if ("APIProxy".equals(rootNodeName) || "SharedFlowBundle".equals(rootNodeName) || "Manifest".equals(rootNodeName)) {
 				// APIProxy, SharedFlowBundle & Manifest storage
 		    	// No need to store for the moment 
 	    	} else if ("xsl:stylesheet".equals(rootNodeName) || "wsdl:definitions".equals(rootNodeName) || "xs:schema".equals(rootNodeName) ) {
 				// Resource storage
-	    		resources.put(fileName, xmlFile);
+	    		previous = r.resources.put(fileName, xmlFile);
 	    	} else {
 	    		// Policy storage
-	    		policies.put(fileName, xmlFile);
+	    		previous = r.policies.put(fileName, xmlFile);
+	    		isPolicy = true;
+	    	}
+
+	    	if(previous != null) {
+	    		// The file replaces an older version, whose entries are spread in the indexes
+	    		rebuildIndexes();
+	    	} else {
+	    		index(xmlFile, isPolicy);
+	    		r.derived.clear();
 	    	}
 	    }
 
 	}
+
+	/**
+	 * Removes the file stored under the path of its URI, for the incremental analyses
+	 * @param fileName
+	 */
+	public static void removeFile(String fileName) {
+		Recording r = RECORDING.get();
+		boolean removed = r.proxiesEndpoint.remove(fileName) != null;
+		removed |= r.targetsEndpoint.remove(fileName) != null;
+		removed |= r.resources.remove(fileName) != null;
+		removed |= r.policies.remove(fileName) != null;
+		if(removed) {
+			rebuildIndexes();
+		}
+	}
+
+	/**
+	 * @return the recorded SharedFlow files, the flows of the shared flow bundles
+	 */
+	public static List<XmlFile> getSharedFlows() {
+		List<XmlFile> sharedFlows = new ArrayList<>();
+		for(XmlFile xmlFile : RECORDING.get().proxiesEndpoint.values()) {
+			if("SharedFlow".equals(xmlFile.getDocument().getDocumentElement().getNodeName())) {
+				sharedFlows.add(xmlFile);
+			}
+		}
+		return sharedFlows;
+	}
+
+	private static void rebuildIndexes() {
+		Recording r = RECORDING.get();
+		clearIndexes();
+		// The symbols of the replaced or removed documents are dropped with them : the table only keeps the recorded ones
+		r.symbols.clear();
+		r.proxiesEndpoint.values().forEach(xmlFile -> r.symbols.intern(xmlFile.getDocument()));
+		r.targetsEndpoint.values().forEach(xmlFile -> r.symbols.intern(xmlFile.getDocument()));
+		r.resources.values().forEach(xmlFile -> r.symbols.intern(xmlFile.getDocument()));
+		r.policies.values().forEach(xmlFile -> r.symbols.intern(xmlFile.getDocument()));
+		r.proxiesEndpoint.values().forEach(xmlFile -> index(xmlFile, false));
+		r.targetsEndpoint.values().forEach(xmlFile -> index(xmlFile, false));
+		r.policies.values().forEach(xmlFile -> index(xmlFile, true));
+	}
+
+	private static void index(XmlFile xmlFile, boolean isPolicy) {
+		Recording r = RECORDING.get();
+		Element root = xmlFile.getDocument().getDocumentElement();
+		String rootNodeName = root.getNodeName();
+
+		if("ProxyEndpoint".equals(rootNodeName) || "SharedFlow".equals(rootNodeName) || "TargetEndpoint".equals(rootNodeName)) {
+			// Same as //Step[Name[text() = 'stepName']]
+			NodeList stepNodes = root.getElementsByTagName("Step");
+			for(int i=0; i<stepNodes.getLength(); i++) {
+				Node step = stepNodes.item(i);
+				for(Node child = step.getFirstChild(); child != null; child = child.getNextSibling()) {
+					if(child.getNodeType() == Node.ELEMENT_NODE && "Name".equals(child.getNodeName())) {
+						for(String text : texts(child, r.symbols)) {
+							r.stepsByName.computeIfAbsent(text, k -> new LinkedHashMap<>()).put(step, xmlFile);
+							r.endpointsByStepName.computeIfAbsent(text, k -> new LinkedHashSet<>()).add(xmlFile);
+						}
+					}
+				}
+			}
+			if("TargetEndpoint".equals(rootNodeName)) {
+				r.targetsByName.putIfAbsent(r.symbols.intern(root.getAttribute("name")), xmlFile);
+			}
+		} else if(isPolicy) {
+			r.policiesByType.computeIfAbsent(rootNodeName, k -> new ArrayList<>()).add(xmlFile);
+			r.policiesByName.putIfAbsent(r.symbols.intern(root.getAttribute("name")), xmlFile);
+			// Same as the string value of //ResourceURL : the first one in document order
+			NodeList resourceNodes = root.getElementsByTagName("ResourceURL");
+			String resourceURL = r.symbols.intern(resourceNodes.getLength() > 0 ? resourceNodes.item(0).getTextContent() : "");
+			r.policiesByResourceURL.computeIfAbsent(resourceURL, k -> new ArrayList<>()).add(xmlFile);
+		}
+	}
+
+	/**
+	 * The values of the XPath text() nodes of the node, from the symbol table : adjacent text and CDATA children are merged
+	 */
+	static List<String> texts(Node node, SymbolTable symbols) {
+		List<String> texts = new ArrayList<>();
+		StringBuilder current = null;
+		for(Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if(child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+				if(current == null) {
+					current = new StringBuilder();
+				}
+				current.append(child.getNodeValue());
+			} else if(current != null) {
+				texts.add(symbols.intern(current.toString()));
+				current = null;
+			}
+		}
+		if(current != null) {
+			texts.add(symbols.intern(current.toString()));
+		}
+		return texts;
+	}
+
+	/**
+	 * Returns the structure computed once from the recorded files by the supplier.
+	 * It is dropped each time the recorded files change.
+	 * @param key unique key, such as the name of the check
+	 * @param supplier
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T computeIfAbsent(String key, Supplier<T> supplier) {
+		Recording r = RECORDING.get();
+		Object value = r.derived.get(key);
+		if(value == null) {
+			value = supplier.get();
+			r.derived.put(key, value);
+		}
+		return (T)value;
+	}
 	
 	
+	/**
+	 * Returns the graph of the recorded files, built once and dropped each time the recorded files change
+	 * @return
+	 */
+	public static BundleGraph getGraph() {
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
+		return computeIfAbsent(BundleGraph.class.getName(), () -> BundleGraph.build(r.symbols, r.proxiesEndpoint.values(), r.targetsEndpoint.values(), r.policies.values()));
+	}
+
+	/**
+	 * Returns the typed model of the recorded files, built once and dropped each time the recorded files change
+	 * @return
+	 */
+	public static Bundle getBundle() {
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
+		return computeIfAbsent(Bundle.class.getName(), () -> new Bundle(r.proxiesEndpoint.values(), r.targetsEndpoint.values(), r.resources.values(), r.policies.values()));
+	}
+
 	/**
 	 * Returns all XmlFile containing a Step with the Name stepName
 	 * @param stepName
 	 * @return
 	 */
 	public static List<XmlFile> searchByStepName(String stepName) {
-		
-		List<XmlFile> matchingXmlFile = new ArrayList<>();
-
-		// Concat full list
-		List<XmlFile> fullXmlFile = new ArrayList<>();
-		fullXmlFile.addAll(proxiesEndpoint.values());
-		fullXmlFile.addAll(targetsEndpoint.values());
-		
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
 		
 		// Search for "stepName" in both ProxyEndpoint, SharedFlow and TargetEndpoint
-		for(XmlFile currentXml : fullXmlFile) {
-			Document document = currentXml.getDocument();
-			try {
-			    XPathFactory xPathfactory = XPathFactory.newInstance();
-			    XPath xpath = xPathfactory.newXPath();
-				
-				boolean hasMatchingStep = (boolean)xpath.evaluate("boolean( //Step/Name[text() = '"+stepName+"'])", document, XPathConstants.BOOLEAN);
-			    if(hasMatchingStep) {
-			    	matchingXmlFile.add(currentXml);
-			    }
-			} catch (XPathExpressionException e) {
-				// Nothing to do
-			}
-		}
-		
-		return matchingXmlFile;
+		return new ArrayList<>(r.endpointsByStepName.getOrDefault(stepName, Collections.emptySet()));
 	}
 	
 	
@@ -128,25 +325,10 @@ public class BundleRecorder {
 	 * @return
 	 */
 	public static List<XmlFile> searchPoliciesByType(String policyType) {
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
 		
-		List<XmlFile> matchingXmlFile = new ArrayList<>();
-		
-		for(XmlFile currentXml : policies.values()) {
-			Document document = currentXml.getDocument();
-			try {
-			    XPathFactory xPathfactory = XPathFactory.newInstance();
-			    XPath xpath = xPathfactory.newXPath();
-				
-				boolean isMatchingType = (boolean)xpath.evaluate("boolean(/"+policyType+")", document, XPathConstants.BOOLEAN);
-			    if(isMatchingType) {
-			    	matchingXmlFile.add(currentXml);
-			    }
-			} catch (XPathExpressionException e) {
-				// Nothing to do
-			}			
-		}
-		
-		return matchingXmlFile;
+		return new ArrayList<>(r.policiesByType.getOrDefault(policyType, Collections.emptyList()));
 	}
 	
 	/**
@@ -156,23 +338,10 @@ public class BundleRecorder {
 	 * @return
 	 */
 	public static XmlFile searchPoliciesByName(String policyName) {
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
 		
-		for(XmlFile currentXml : policies.values()) {
-			Document document = currentXml.getDocument();
-			try {
-			    XPathFactory xPathfactory = XPathFactory.newInstance();
-			    XPath xpath = xPathfactory.newXPath();
-				
-				String attrName = (String)xpath.evaluate("/*/@name", document, XPathConstants.STRING);
-			    if(attrName!=null && attrName.equals(policyName)) {
-			    	return currentXml;
-			    }
-			} catch (XPathExpressionException e) {
-				// Nothing to do
-			}			
-		}
-		
-		return null;
+		return r.policiesByName.get(policyName);
 	}
 	
 	/**
@@ -182,33 +351,11 @@ public class BundleRecorder {
 	 * @return
 	 */
 	public static Map<Node, XmlFile> searchStepsByName(String stepName) {
-		
-		Map<Node, XmlFile> matchingNodes = new HashMap<>();
-
-		// Concat full list
-		List<XmlFile> fullXmlFile = new ArrayList<>();
-		fullXmlFile.addAll(proxiesEndpoint.values());
-		fullXmlFile.addAll(targetsEndpoint.values());
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
 		
 		// Search for "stepName" in both ProxyEndpoint, SharedFlow and TargetEndpoint
-		for(XmlFile currentXml : fullXmlFile) {
-			try {
-			    XPathFactory xPathfactory = XPathFactory.newInstance();
-			    XPath xpath = xPathfactory.newXPath();
-				XPathExpression exprSteps = xpath.compile("//Step[Name[text() = '"+stepName+"']]");	
-				NodeList stepNodes = (NodeList)exprSteps.evaluate(currentXml.getDocument(), XPathConstants.NODESET);
-				if(stepNodes!=null) {
-					for(int i=0; i<stepNodes.getLength();i++) {
-						matchingNodes.put(stepNodes.item(i), currentXml);
-					}
-				}
-
-			} catch (XPathExpressionException e) {
-				// Nothing to do
-			}
-		}
-		
-		return matchingNodes;
+		return new HashMap<>(r.stepsByName.getOrDefault(stepName, Collections.emptyMap()));
 	}
 	
 	/**
@@ -218,23 +365,10 @@ public class BundleRecorder {
 	 * @return
 	 */
 	public static XmlFile searchTargetEndpointByName(String targetName) {
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
 		
-		for(XmlFile currentXml : targetsEndpoint.values()) {
-			Document document = currentXml.getDocument();
-			try {
-			    XPathFactory xPathfactory = XPathFactory.newInstance();
-			    XPath xpath = xPathfactory.newXPath();
-				
-				String attrName = (String)xpath.evaluate("/*/@name", document, XPathConstants.STRING);
-			    if(attrName!=null && attrName.equals(targetName)) {
-			    	return currentXml;
-			    }
-			} catch (XPathExpressionException e) {
-				// Nothing to do
-			}			
-		}
-		
-		return null;
+		return r.targetsByName.get(targetName);
 	}			
 
 	
@@ -244,28 +378,11 @@ public class BundleRecorder {
 	 * @return
 	 */
 	public static List<XmlFile> searchPoliciesByResourceURL(String resourceURL) {
+		Recording r = RECORDING.get();
+		QueryProfiler.countIndexLookup();
 		
-		List<XmlFile> matchingXmlFile = new ArrayList<>();
-		
-		for(XmlFile currentXml : policies.values()) {
-			Document document = currentXml.getDocument();
-			try {
-			    XPathFactory xPathfactory = XPathFactory.newInstance();
-			    XPath xpath = xPathfactory.newXPath();
-				
-				String resourceLink = (String)xpath.evaluate("//ResourceURL", document, XPathConstants.STRING);
-
-				// Test based only on the last part of the path
-			    if(resourceURL.equals(resourceLink)) {
-			    	matchingXmlFile.add(currentXml);
-			    }
-
-			} catch (XPathExpressionException e) {
-				// Nothing to do
-			}			
-		}
-		
-		return matchingXmlFile;
+		// Test based only on the last part of the path
+		return new ArrayList<>(r.policiesByResourceURL.getOrDefault(resourceURL, Collections.emptyList()));
 	}
 	
 	
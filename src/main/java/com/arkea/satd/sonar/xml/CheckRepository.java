@@ -109,5 +109,23 @@ public class CheckRepository {
 				UseTargetServersCheck.class
 			);
 	}	
+
+	/**
+	 * The checks reading the other files of the bundle through the BundleRecorder : their issues change with any file of the bundle
+	 */
+	public static List<Class<?>> getBundleCheckClasses() {
+		return Arrays.asList(
+				CacheCoherenceCheck.class,
+				ExtractVariablesCheck.class,
+				IgnoreUnresolvedVariablesWithoutFaultRuleCheck.class,
+				MultipleStatsCollectorsCheck.class,
+				QuotaPolicyReuseCheck.class,
+				ResponseCacheErrorResponseCheck.class,
+				RouteRulesToTargetCheck.class,
+				ThreatProtectionCheck.class,
+				UnattachedPolicyCheck.class,
+				UnattachedResourceCheck.class
+			);
+	}
 	
 }
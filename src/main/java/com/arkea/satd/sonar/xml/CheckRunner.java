@@ -0,0 +1,302 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
+
+/**
+ * Runs the checks in isolation : each call of a check on a file gets a time budget,
+ * and a check failing or timing out too many times is disabled for the rest of the analysis.
+ * <p>
+ * The checks run on the analysis thread. A watchdog thread marks the budgets exceeded and interrupts the check :
+ * a check ignoring the interruption is stopped at its next query or issue, and the issues it saves after its budget are discarded.
+ * The queries are the XPath compilations and evaluations, the traversals and the BundleRecorder lookups, see {@link QueryProfiler}.
+ * The analysis thread is still blocked by a check looping in plain Java without any query nor issue,
+ * or by a single XPath evaluation or regular expression match which does not end : the budget can't stop them.
+ */
+public class CheckRunner {
+
+	private static final Logger LOG = Loggers.get(CheckRunner.class);
+
+	private static final ThreadLocal<String> SCANNED_FILE = new ThreadLocal<>();
+	private static final ThreadLocal<Budget> BUDGET = new ThreadLocal<>();
+
+	private final long timeoutMillis;
+	private final int maxFailures;
+
+	private ScheduledExecutorService watchdog;
+	private final Set<Budget> running = ConcurrentHashMap.newKeySet();
+
+	private final Map<RuleKey, Integer> failures = new LinkedHashMap<>();
+	private final Map<RuleKey, Integer> timeouts = new LinkedHashMap<>();
+	private final Map<RuleKey, Integer> skipped = new LinkedHashMap<>();
+	private final Set<RuleKey> disabledRules = new LinkedHashSet<>();
+
+	/**
+	 * Time budget of a check running on a thread
+	 */
+	private static final class Budget {
+		private final Thread thread = Thread.currentThread();
+		private final long deadline;
+		private volatile boolean exceeded;
+		private boolean ended;
+		private boolean interrupted;
+
+		Budget(long timeoutMillis) {
+			this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		}
+
+		synchronized void exceed() {
+			if(!ended) {
+				exceeded = true;
+				interrupted = true;
+				thread.interrupt();
+			}
+		}
+
+		synchronized void end() {
+			ended = true;
+			if(interrupted) {
+				// Clears the interruption of the watchdog, which must not leak to the rest of the analysis
+				Thread.interrupted();
+			}
+		}
+	}
+
+	/**
+	 * Thrown in a check which exceeded its time budget, to stop it
+	 */
+	static final class BudgetExceededException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		BudgetExceededException() {
+			super("Time budget exceeded", null, false, false);
+		}
+	}
+
+	/**
+	 * @param timeoutMillis time budget of a check on one file, 0 or less to disable the budget
+	 * @param maxFailures number of failures before disabling a check, 0 or less to never disable it
+	 */
+	public CheckRunner(long timeoutMillis, int maxFailures) {
+		this.timeoutMillis = timeoutMillis;
+		this.maxFailures = maxFailures;
+	}
+
+	/**
+	 * Runs the check on the file, unless the check has been disabled
+	 * @return true if the check has been run successfully
+	 */
+	public boolean run(SensorContext context, SonarXmlCheck check, RuleKey ruleKey, XmlFile xmlFile) {
+
+		if(disabledRules.contains(ruleKey)) {
+			increment(skipped, ruleKey);
+			return false;
+		}
+
+		if(timeoutMillis <= 0) {
+			try {
+				scan(context, check, ruleKey, xmlFile);
+				return true;
+			} catch (Exception e) {
+				onFailure(ruleKey, xmlFile, e);
+				return false;
+			}
+		}
+
+		startWatchdog();
+		Budget budget = new Budget(timeoutMillis);
+		SensorContext analysisContext = ApigeeXmlSensor.getContext();
+		BUDGET.set(budget);
+		running.add(budget);
+		try {
+			// The issues are saved through the context given to the check, or through the context of the analysis
+			ApigeeXmlSensor.setContext(analysisContext == null ? null : guard(analysisContext));
+			scan(guard(context), check, ruleKey, xmlFile);
+		} catch (Exception e) {
+			if(!budget.exceeded) {
+				onFailure(ruleKey, xmlFile, e);
+				return false;
+			}
+		} finally {
+			running.remove(budget);
+			budget.end();
+			BUDGET.remove();
+			ApigeeXmlSensor.setContext(analysisContext);
+		}
+		if(budget.exceeded) {
+			onTimeout(ruleKey, xmlFile);
+			return false;
+		}
+		return true;
+	}
+
+	public Set<RuleKey> getDisabledRules() {
+		return disabledRules;
+	}
+
+	public int getSkippedCount() {
+		return skipped.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	/**
+	 * Logs a summary of the skipped work
+	 */
+	public void logSummary() {
+		if(failures.isEmpty() && timeouts.isEmpty() && skipped.isEmpty()) {
+			return;
+		}
+		LOG.warn("Apigee checks with errors : {} failure(s), {} timeout(s), {} skipped scan(s)",
+				failures.values().stream().mapToInt(Integer::intValue).sum(),
+				timeouts.values().stream().mapToInt(Integer::intValue).sum(),
+				getSkippedCount());
+
+		Set<RuleKey> ruleKeys = new LinkedHashSet<>();
+		ruleKeys.addAll(failures.keySet());
+		ruleKeys.addAll(timeouts.keySet());
+		ruleKeys.addAll(skipped.keySet());
+		for(RuleKey ruleKey : ruleKeys) {
+			LOG.warn("  {} : {} failure(s), {} timeout(s), {} skipped scan(s){}", ruleKey,
+					failures.getOrDefault(ruleKey, 0),
+					timeouts.getOrDefault(ruleKey, 0),
+					skipped.getOrDefault(ruleKey, 0),
+					disabledRules.contains(ruleKey) ? ", disabled" : "");
+		}
+	}
+
+	/**
+	 * Stops the watchdog thread. The runner can't be used anymore after this call.
+	 */
+	public void close() {
+		if(watchdog != null) {
+			watchdog.shutdownNow();
+			watchdog = null;
+		}
+	}
+
+	/**
+	 * @return the file scanned by the check running on the current thread, or null
+	 */
+	public static String scannedFile() {
+		return SCANNED_FILE.get();
+	}
+
+	/**
+	 * @return whether the check running on the current thread has a time budget
+	 */
+	static boolean hasBudget() {
+		return BUDGET.get() != null;
+	}
+
+	/**
+	 * Stops the check running on the current thread if it exceeded its time budget : called by the queries of the checks
+	 */
+	static void checkBudget() {
+		Budget budget = BUDGET.get();
+		if(budget != null && budget.exceeded) {
+			throw new BudgetExceededException();
+		}
+	}
+
+	private static void scan(SensorContext context, SonarXmlCheck check, RuleKey ruleKey, XmlFile xmlFile) {
+		String file = String.valueOf(xmlFile.getInputFile());
+		SCANNED_FILE.set(file);
+		AnalysisSpan span = AnalysisEvents.check(file, ruleKey.toString());
+		QueryProfiler.enter();
+		try {
+			check.scanFile(context, ruleKey, xmlFile);
+		} finally {
+			QueryProfiler.exit(ruleKey);
+			span.end();
+			SCANNED_FILE.remove();
+		}
+	}
+
+	/**
+	 * Wraps the context so that the issues saved by a check after its time budget are discarded
+	 */
+	private static SensorContext guard(SensorContext context) {
+		return AnalysisStatistics.proxy(SensorContext.class, context, (delegate, method, args) -> {
+			Object result = method.invoke(delegate, args);
+			if("newIssue".equals(method.getName())) {
+				return AnalysisStatistics.proxy(NewIssue.class, (NewIssue) result, (issue, issueMethod, issueArgs) -> {
+					if("save".equals(issueMethod.getName())) {
+						checkBudget();
+					}
+					return issueMethod.invoke(issue, issueArgs);
+				});
+			}
+			return result;
+		});
+	}
+
+	private void startWatchdog() {
+		if(watchdog == null) {
+			watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "apigee-check-watchdog");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long period = Math.max(1, Math.min(timeoutMillis / 4, 100));
+			watchdog.scheduleAtFixedRate(() -> {
+				long now = System.nanoTime();
+				for(Budget budget : running) {
+					if(now - budget.deadline > 0) {
+						budget.exceed();
+					}
+				}
+			}, period, period, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void onTimeout(RuleKey ruleKey, XmlFile xmlFile) {
+		LOG.warn("Check {} exceeded its time budget of {} ms on {}", ruleKey, timeoutMillis, xmlFile.getInputFile());
+		increment(timeouts, ruleKey);
+		checkBreaker(ruleKey);
+	}
+
+	private void onFailure(RuleKey ruleKey, XmlFile xmlFile, Throwable t) {
+		LOG.debug("Check " + ruleKey + " failed on " + xmlFile.getInputFile(), t);
+		increment(failures, ruleKey);
+		checkBreaker(ruleKey);
+	}
+
+	private void checkBreaker(RuleKey ruleKey) {
+		int count = failures.getOrDefault(ruleKey, 0) + timeouts.getOrDefault(ruleKey, 0);
+		if(maxFailures > 0 && count >= maxFailures && disabledRules.add(ruleKey)) {
+			LOG.warn("Check {} is disabled for the rest of the analysis after {} failure(s)", ruleKey, count);
+		}
+	}
+
+	private static void increment(Map<RuleKey, Integer> counters, RuleKey ruleKey) {
+		counters.merge(ruleKey, 1, Integer::sum);
+	}
+}
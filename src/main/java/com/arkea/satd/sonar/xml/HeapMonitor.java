@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Watches the heap still used after the garbage collections, as reported by the old generation pools.
+ * The heap is short when such a pool with a known maximum stays above the threshold after its last collection.
+ * The young generation pools, which are full or empty depending on the moment of the collection, are ignored.
+ */
+public class HeapMonitor {
+
+	private final int thresholdPercent;
+	private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+
+	/**
+	 * @param thresholdPercent percentage of the maximum size of the pools, 100 or more to never report a short heap
+	 */
+	public HeapMonitor(int thresholdPercent) {
+		this(thresholdPercent, ManagementFactory.getMemoryPoolMXBeans());
+	}
+
+	/**
+	 * @param thresholdPercent percentage of the maximum size of the pools, 100 or more to never report a short heap
+	 * @param memoryPools pools of the JVM, among which the old generation ones are watched
+	 */
+	public HeapMonitor(int thresholdPercent, List<MemoryPoolMXBean> memoryPools) {
+		this.thresholdPercent = thresholdPercent;
+		if(thresholdPercent < 100) {
+			for(MemoryPoolMXBean pool : memoryPools) {
+				if(isOldGeneration(pool)) {
+					pools.add(pool);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The old generation pools (Tenured Gen, PS Old Gen, G1 Old Gen...) are the heap pools supporting a usage threshold :
+	 * the Eden and Survivor pools only support a collection usage threshold.
+	 */
+	private static boolean isOldGeneration(MemoryPoolMXBean pool) {
+		return pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() && pool.isCollectionUsageThresholdSupported();
+	}
+
+	/**
+	 * @return true if an old generation pool is still used above the threshold after its last collection
+	 */
+	public boolean isUnderPressure() {
+		for(MemoryPoolMXBean pool : pools) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if(usage != null && usage.getMax() > 0 && usage.getUsed() * 100 >= usage.getMax() * thresholdPercent) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the usage of the old generation pools after their last collection, for the logs
+	 */
+	public String getUsage() {
+		StringBuilder sb = new StringBuilder();
+		for(MemoryPoolMXBean pool : pools) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if(usage != null && usage.getMax() > 0) {
+				if(sb.length() > 0) {
+					sb.append(", ");
+				}
+				sb.append(pool.getName()).append(' ').append(usage.getUsed() * 100 / usage.getMax()).append('%');
+			}
+		}
+		return sb.append(" used, threshold ").append(thresholdPercent).append('%').toString();
+	}
+}
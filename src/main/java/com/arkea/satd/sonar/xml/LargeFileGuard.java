@@ -0,0 +1,361 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextPointer;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonarsource.analyzer.commons.xml.SafeStaxParserFactory;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+
+/**
+ * Guards the analysis against the files too large to be parsed into a DOM, such as the generated schemas.
+ * The size of the file is checked first. Unless the file is too small to exceed any limit, a streaming pre-pass then counts
+ * the bytes, the elements and the nesting depth of the file, and stops at the first exceeded limit.
+ * The oversized files are analyzed in metadata-only mode : their DOM only holds the root element with its attributes,
+ * and the issues located in them are reported on the line where the root element starts.
+ */
+class LargeFileGuard {
+
+	private static final Logger LOG = Loggers.get(LargeFileGuard.class);
+
+	/**
+	 * Guard without limits, parsing every file
+	 */
+	static final LargeFileGuard NONE = new LargeFileGuard(0, 0, 0);
+
+	private final long maxSize;
+	private final int maxElements;
+	private final int maxDepth;
+
+	/**
+	 * @param maxSize maximum size in bytes, 0 for no limit
+	 * @param maxElements maximum number of elements, 0 for no limit
+	 * @param maxDepth maximum nesting depth of the elements, 0 for no limit
+	 */
+	LargeFileGuard(long maxSize, int maxElements, int maxDepth) {
+		this.maxSize = maxSize;
+		this.maxElements = maxElements;
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * @return the guard of the limits configured for the analysis
+	 */
+	static LargeFileGuard of(Configuration config) {
+		return new LargeFileGuard(
+				config.getLong(ApigeeProperties.MAX_FILE_SIZE_KEY).orElse(ApigeeProperties.MAX_FILE_SIZE_DEFAULT) * 1024,
+				config.getInt(ApigeeProperties.MAX_FILE_ELEMENTS_KEY).orElse(ApigeeProperties.MAX_FILE_ELEMENTS_DEFAULT),
+				config.getInt(ApigeeProperties.MAX_FILE_DEPTH_KEY).orElse(ApigeeProperties.MAX_FILE_DEPTH_DEFAULT));
+	}
+
+	/**
+	 * @return the parsed file, in metadata-only mode if it exceeds a limit
+	 */
+	XmlFile parse(InputFile inputFile) throws IOException {
+		if(maxSize <= 0 && maxElements <= 0 && maxDepth <= 0) {
+			return XmlFile.create(inputFile);
+		}
+		long size = size(inputFile);
+		if(size >= 0 && isUnderLimits(size)) {
+			return XmlFile.create(inputFile);
+		}
+		RootElement root = scan(inputFile, maxSize > 0 && size > maxSize);
+		if(root == null || root.exceededLimit == null) {
+			return XmlFile.create(inputFile);
+		}
+		LOG.info("{} {} : analyzed in metadata-only mode, from its root element only", inputFile, root.exceededLimit);
+		return XmlFile.create(MetadataOnly.create(inputFile, root.toDocument()));
+	}
+
+	/**
+	 * An element takes at least 4 bytes, as {@code <a/>}, and each level of nesting at least 7 more, as {@code <a></a>}
+	 * @return true if a file of this size can't exceed any limit
+	 */
+	boolean isUnderLimits(long size) {
+		return (maxSize <= 0 || size <= maxSize)
+				&& (maxElements <= 0 || size / 4 <= maxElements)
+				&& (maxDepth <= 0 || (size + 3) / 7 <= maxDepth);
+	}
+
+	/**
+	 * @return the size in bytes of the file, -1 if unknown
+	 */
+	private static long size(InputFile inputFile) {
+		if(inputFile instanceof BaseInputFile) {
+			return ((BaseInputFile)inputFile).size();
+		}
+		try {
+			return Files.size(inputFile.path());
+		} catch(IOException | RuntimeException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Streams the file until a limit is exceeded
+	 * @param oversized true if the file is already known to exceed the size limit : only its root element is read
+	 * @return the root element, null if the file is left to the DOM parser
+	 */
+	private RootElement scan(InputFile inputFile, boolean oversized) throws IOException {
+		// The factory of the DOM parser, locating the elements at their start
+		XMLInputFactory factory = SafeStaxParserFactory.createXMLInputFactory();
+		try (CountingInputStream in = new CountingInputStream(inputFile.inputStream());
+				Reader reader = new InputStreamReader(in, inputFile.charset())) {
+			XMLStreamReader xml = factory.createXMLStreamReader(reader);
+			try {
+				RootElement root = null;
+				int elements = 0;
+				int depth = 0;
+				while(xml.hasNext()) {
+					int event = xml.next();
+					if(event == XMLStreamConstants.START_ELEMENT) {
+						if(root == null) {
+							root = new RootElement(xml);
+							if(oversized) {
+								root.exceededLimit = "is larger than " + maxSize / 1024 + " KB";
+								return root;
+							}
+						}
+						if(maxElements > 0 && ++elements > maxElements) {
+							root.exceededLimit = "has more than " + maxElements + " elements";
+							return root;
+						}
+						if(maxDepth > 0 && ++depth > maxDepth) {
+							root.exceededLimit = "nests more than " + maxDepth + " levels of elements";
+							return root;
+						}
+					} else if(event == XMLStreamConstants.END_ELEMENT) {
+						depth--;
+					}
+					if(root != null && maxSize > 0 && in.count > maxSize) {
+						root.exceededLimit = "is larger than " + maxSize / 1024 + " KB";
+						return root;
+					}
+				}
+				return root;
+			} finally {
+				xml.close();
+			}
+		} catch(XMLStreamException e) {
+			// Case of malformed file or of DTD : the DOM parser reports it
+			return null;
+		}
+	}
+
+	/**
+	 * Wraps the context so that the issues located in the files analyzed in metadata-only mode are reported on the files known to the scanner
+	 */
+	static SensorContext reportOnOriginalFiles(SensorContext context) {
+		return AnalysisStatistics.proxy(SensorContext.class, context, (delegate, method, args) -> {
+			Object result = method.invoke(delegate, args);
+			if("newIssue".equals(method.getName())) {
+				return reportingOnOriginalFiles((NewIssue)result);
+			}
+			return result;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static NewIssue reportingOnOriginalFiles(NewIssue issue) {
+		return AnalysisStatistics.proxy(NewIssue.class, issue, (delegate, method, args) -> {
+			NewIssue newIssue = (NewIssue) delegate;
+			switch(method.getName()) {
+				case "newLocation":
+					// The location is only known once complete, it is converted when added to the issue
+					return new RecordedLocation();
+				case "at":
+				case "addLocation":
+					return method.invoke(delegate, toLocation(newIssue, (NewIssueLocation)args[0]));
+				case "addFlow":
+					List<NewIssueLocation> flow = new ArrayList<>();
+					((Iterable<NewIssueLocation>)args[0]).forEach(location -> flow.add(toLocation(newIssue, location)));
+					return newIssue.addFlow(flow);
+				default:
+					return method.invoke(delegate, args);
+			}
+		});
+	}
+
+	private static NewIssueLocation toLocation(NewIssue issue, NewIssueLocation location) {
+		if(!(location instanceof RecordedLocation)) {
+			return location;
+		}
+		RecordedLocation recorded = (RecordedLocation) location;
+		recorded.component = MetadataOnly.original(recorded.component);
+		return recorded.copyTo(issue);
+	}
+
+	/**
+	 * The root element of a file : its name, namespaces, attributes and line
+	 */
+	private static final class RootElement {
+		private final int line;
+		private final StringBuilder tag = new StringBuilder();
+		private String exceededLimit;
+
+		private RootElement(XMLStreamReader xml) {
+			line = xml.getLocation().getLineNumber();
+			tag.append('<').append(qualifiedName(xml.getPrefix(), xml.getLocalName()));
+			for(int i=0; i<xml.getNamespaceCount(); i++) {
+				attribute(qualifiedName("xmlns", xml.getNamespacePrefix(i)), xml.getNamespaceURI(i));
+			}
+			for(int i=0; i<xml.getAttributeCount(); i++) {
+				attribute(qualifiedName(xml.getAttributePrefix(i), xml.getAttributeLocalName(i)), xml.getAttributeValue(i));
+			}
+			tag.append("/>");
+		}
+
+		private void attribute(String name, String value) {
+			tag.append(' ').append(name).append("=\"");
+			for(char c : (value == null ? "" : value).toCharArray()) {
+				if(c == '&' || c == '<' || c == '"' || c < ' ') {
+					tag.append("&#").append((int)c).append(';');
+				} else {
+					tag.append(c);
+				}
+			}
+			tag.append('"');
+		}
+
+		private static String qualifiedName(String prefix, String localName) {
+			if(prefix == null || prefix.isEmpty()) {
+				return localName == null || localName.isEmpty() ? "xmlns" : localName;
+			}
+			return localName == null || localName.isEmpty() ? prefix : prefix + ":" + localName;
+		}
+
+		/**
+		 * @return a document holding the root element on the same line as in the file
+		 */
+		private String toDocument() {
+			StringBuilder document = new StringBuilder();
+			for(int i=1; i<line; i++) {
+				document.append('\n');
+			}
+			return document.append(tag).toString();
+		}
+	}
+
+	/**
+	 * The file as seen by the XmlFile in metadata-only mode : the contents are the root element only, and the ranges are whole lines of the file
+	 */
+	private static final class MetadataOnly implements InvocationHandler {
+		private final InputFile original;
+		private final String contents;
+
+		private MetadataOnly(InputFile original, String contents) {
+			this.original = original;
+			this.contents = contents;
+		}
+
+		private static InputFile create(InputFile original, String contents) {
+			return (InputFile) Proxy.newProxyInstance(InputFile.class.getClassLoader(), new Class<?>[] {InputFile.class}, new MetadataOnly(original, contents));
+		}
+
+		/**
+		 * @return the file known to the scanner for the files in metadata-only mode, the same component otherwise
+		 */
+		private static InputComponent original(InputComponent component) {
+			if(component != null && Proxy.isProxyClass(component.getClass()) && Proxy.getInvocationHandler(component) instanceof MetadataOnly) {
+				return ((MetadataOnly)Proxy.getInvocationHandler(component)).original;
+			}
+			return component;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch(method.getName()) {
+				case "contents":
+					return contents;
+				case "inputStream":
+					return new ByteArrayInputStream(contents.getBytes(original.charset()));
+				case "newPointer":
+					return original.newPointer((int)args[0], 0);
+				case "newRange":
+					// The elements of the document have no location in the file
+					return original.selectLine(args[0] instanceof TextPointer ? ((TextPointer)args[0]).line() : (int)args[0]);
+				default:
+					try {
+						return method.invoke(original, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+			}
+		}
+	}
+
+	/**
+	 * Counts the bytes read from the stream
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		private long count;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if(read >= 0) {
+				count++;
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if(read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+}
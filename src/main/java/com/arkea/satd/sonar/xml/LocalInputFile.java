@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Stand-in for the scanner's InputFile : an xml file read from the local disk
+ */
+public class LocalInputFile extends BaseInputFile {
+
+	private final Path path;
+	private final String relativePath;
+
+	public LocalInputFile(Path path, String relativePath) {
+		this.path = path;
+		this.relativePath = relativePath;
+	}
+
+	@Override
+	protected String readContents() throws IOException {
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public long size() {
+		try {
+			return Files.size(path);
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	@Override
+	public String relativePath() {
+		return relativePath;
+	}
+
+	@Override
+	public String absolutePath() {
+		return path.toAbsolutePath().toString().replace('\\', '/');
+	}
+
+	@Override
+	public File file() {
+		return path.toFile();
+	}
+
+	@Override
+	public Path path() {
+		return path;
+	}
+
+	@Override
+	public URI uri() {
+		return path.toUri();
+	}
+}
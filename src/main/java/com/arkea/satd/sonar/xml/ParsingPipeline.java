@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+
+/**
+ * Parses the files on worker threads, ahead of the stage consuming them on the calling thread.
+ * The files are handed over in their order, and at most a few files per thread are parsed ahead, so that the memory
+ * held by the parsed files waiting for their turn stays bounded. The cancellation is checked before each parsing and each handover.
+ */
+class ParsingPipeline implements AutoCloseable {
+
+	// Files parsed ahead by each thread
+	static final int FILES_AHEAD_PER_THREAD = 4;
+
+	private final ExecutorService executor;
+	private final int capacity;
+	private final LargeFileGuard guard;
+	private final BooleanSupplier cancelled;
+
+	/**
+	 * @param threads the parsing threads, the files being parsed on the calling thread when 1 or less
+	 * @param guard the limits of the files parsed into a DOM
+	 * @param cancelled whether the analysis is cancelled
+	 */
+	ParsingPipeline(int threads, LargeFileGuard guard, BooleanSupplier cancelled) {
+		this.guard = guard;
+		this.cancelled = cancelled;
+		if(threads > 1) {
+			AtomicInteger count = new AtomicInteger();
+			this.executor = Executors.newFixedThreadPool(threads, r -> {
+				Thread thread = new Thread(r, "apigee-parser-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.capacity = threads * FILES_AHEAD_PER_THREAD;
+		} else {
+			this.executor = null;
+			this.capacity = 1;
+		}
+	}
+
+	/**
+	 * Parses the files and hands them over to the consumer, in order, until the consumer returns false
+	 * @return false if the analysis was cancelled or the consumer stopped before all the files were handed over
+	 */
+	boolean forEach(List<InputFile> inputFiles, Predicate<Parsed> consumer) {
+		Deque<Future<Parsed>> queue = new ArrayDeque<>(capacity);
+		Iterator<InputFile> files = inputFiles.iterator();
+		try {
+			while(files.hasNext() || !queue.isEmpty()) {
+				while(files.hasNext() && queue.size() < capacity) {
+					queue.add(submit(files.next()));
+				}
+				Parsed parsed = queue.poll().get();
+				if(parsed == null || cancelled.getAsBoolean()) {
+					return false;
+				}
+				if(!consumer.test(parsed)) {
+					return false;
+				}
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			queue.forEach(future -> future.cancel(true));
+		}
+	}
+
+	private Future<Parsed> submit(InputFile inputFile) {
+		if(executor == null) {
+			return CompletableFuture.completedFuture(parse(inputFile));
+		}
+		return executor.submit(() -> parse(inputFile));
+	}
+
+	/**
+	 * @return the parsed file, null if the analysis is cancelled
+	 */
+	private Parsed parse(InputFile inputFile) {
+		if(cancelled.getAsBoolean()) {
+			return null;
+		}
+		long start = System.nanoTime();
+		AnalysisSpan span = AnalysisEvents.parse(inputFile.toString());
+		XmlFile xmlFile;
+		try {
+			xmlFile = guard.parse(inputFile);
+		} catch(Exception e) {
+			// Case of parse exception
+			xmlFile = null;
+		} finally {
+			span.end();
+		}
+		return new Parsed(inputFile, xmlFile, System.nanoTime() - start);
+	}
+
+	@Override
+	public void close() {
+		if(executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * A file handed over by the pipeline
+	 */
+	static final class Parsed {
+		private final InputFile inputFile;
+		private final XmlFile xmlFile;
+		private final long nanos;
+
+		private Parsed(InputFile inputFile, XmlFile xmlFile, long nanos) {
+			this.inputFile = inputFile;
+			this.xmlFile = xmlFile;
+			this.nanos = nanos;
+		}
+
+		InputFile getInputFile() {
+			return inputFile;
+		}
+
+		/**
+		 * @return the parsed file, null if it could not be parsed
+		 */
+		XmlFile getXmlFile() {
+			return xmlFile;
+		}
+
+		/**
+		 * @return the parsing time
+		 */
+		long getNanos() {
+			return nanos;
+		}
+	}
+}
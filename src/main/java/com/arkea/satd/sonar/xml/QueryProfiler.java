@@ -0,0 +1,358 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathFunctionResolver;
+import javax.xml.xpath.XPathVariableResolver;
+
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Entry point of the checks and of the BundleRecorder to query the documents.
+ * Each query, including each compilation and evaluation of an XPath given by {@link #newXPath()},
+ * stops the running check if it exceeded its time budget, see {@link CheckRunner}.
+ * In debug mode, counts for each rule the XPath evaluations, the DOM traversals
+ * and the BundleRecorder lookups made while the rule is scanning a file.
+ * Each thread has its own profile, as its own BundleRecorder recording : the analyses running in parallel are profiled apart.
+ */
+public final class QueryProfiler {
+
+	private static final Logger LOG = Loggers.get(QueryProfiler.class);
+
+	// XPathFactory.newInstance() is a costly lookup, and factories are not thread-safe
+	private static final ThreadLocal<XPathFactory> XPATH_FACTORY = ThreadLocal.withInitial(XPathFactory::newInstance);
+
+	private static final ThreadLocal<Counters> CURRENT = new ThreadLocal<>();
+
+	// The profile of the analysis running on the current thread
+	private static final ThreadLocal<Profile> PROFILE = ThreadLocal.withInitial(Profile::new);
+
+	/**
+	 * Whether the queries of an analysis are counted, and the counters of each rule
+	 */
+	private static final class Profile {
+		private boolean enabled;
+		private final Map<RuleKey, Counters> rules = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Query counters of a rule
+	 */
+	public static class Counters {
+		private int files;
+		private long xpathEvaluations;
+		private long xpathCompilations;
+		private long domTraversals;
+		private long nodes;
+		private long indexLookups;
+		private long maxXpathEvaluationsPerFile;
+
+		public int getFiles() {
+			return files;
+		}
+
+		public long getXpathEvaluations() {
+			return xpathEvaluations;
+		}
+
+		public long getXpathCompilations() {
+			return xpathCompilations;
+		}
+
+		public long getDomTraversals() {
+			return domTraversals;
+		}
+
+		public long getNodes() {
+			return nodes;
+		}
+
+		public long getIndexLookups() {
+			return indexLookups;
+		}
+
+		public long getMaxXpathEvaluationsPerFile() {
+			return maxXpathEvaluationsPerFile;
+		}
+
+		private void add(Counters other) {
+			files += other.files;
+			xpathEvaluations += other.xpathEvaluations;
+			xpathCompilations += other.xpathCompilations;
+			domTraversals += other.domTraversals;
+			nodes += other.nodes;
+			indexLookups += other.indexLookups;
+			maxXpathEvaluationsPerFile = Math.max(maxXpathEvaluationsPerFile, other.xpathEvaluations);
+		}
+	}
+
+	private QueryProfiler() {
+		// Private constructor
+	}
+
+	public static void setEnabled(boolean enable) {
+		PROFILE.get().enabled = enable;
+	}
+
+	public static boolean isEnabled() {
+		return PROFILE.get().enabled;
+	}
+
+	public static void clear() {
+		PROFILE.get().rules.clear();
+	}
+
+	/**
+	 * Forgets the profile of the current thread at the end of an analysis, the thread being reused by the next tasks
+	 */
+	public static void release() {
+		PROFILE.remove();
+	}
+
+	/**
+	 * Returns a new XPath, checking the time budget of the running check at each compilation and evaluation,
+	 * and counting its evaluations in debug mode
+	 */
+	public static XPath newXPath() {
+		CheckRunner.checkBudget();
+		XPath xpath = XPATH_FACTORY.get().newXPath();
+		return isEnabled() || CheckRunner.hasBudget() ? new CheckedXPath(xpath) : xpath;
+	}
+
+	/**
+	 * Same as Element.getElementsByTagName, counted as a DOM traversal in debug mode
+	 */
+	public static NodeList getElementsByTagName(Element element, String name) {
+		CheckRunner.checkBudget();
+		NodeList nodeList = element.getElementsByTagName(name);
+		Counters counters = CURRENT.get();
+		if(counters != null) {
+			counters.domTraversals++;
+			counters.nodes += nodeList.getLength();
+		}
+		return nodeList;
+	}
+
+	/**
+	 * Starts counting the queries of the rule on the current thread
+	 */
+	public static void enter() {
+		if(isEnabled()) {
+			Counters counters = new Counters();
+			counters.files = 1;
+			CURRENT.set(counters);
+		}
+	}
+
+	/**
+	 * Stops counting the queries of the rule on the current thread
+	 */
+	public static void exit(RuleKey ruleKey) {
+		Counters counters = CURRENT.get();
+		if(counters != null) {
+			CURRENT.remove();
+			PROFILE.get().rules.computeIfAbsent(ruleKey, k -> new Counters()).add(counters);
+		}
+	}
+
+	static void countIndexLookup() {
+		CheckRunner.checkBudget();
+		Counters counters = CURRENT.get();
+		if(counters != null) {
+			counters.indexLookups++;
+		}
+	}
+
+	public static Counters getCounters(RuleKey ruleKey) {
+		return PROFILE.get().rules.get(ruleKey);
+	}
+
+	/**
+	 * Logs the query counters of each rule, the most XPath consuming first
+	 */
+	public static void logReport() {
+		List<Map.Entry<RuleKey, Counters>> entries = new ArrayList<>(PROFILE.get().rules.entrySet());
+		entries.sort((e1, e2) -> Long.compare(e2.getValue().xpathEvaluations, e1.getValue().xpathEvaluations));
+
+		LOG.info("Apigee query profile per rule :");
+		for(Map.Entry<RuleKey, Counters> entry : entries) {
+			Counters counters = entry.getValue();
+			LOG.info("  {} : {} file(s), {} XPath evaluation(s) (max {} per file), {} XPath compilation(s), {} DOM traversal(s) returning {} node(s), {} index lookup(s)",
+					entry.getKey().rule(), counters.files, counters.xpathEvaluations, counters.maxXpathEvaluationsPerFile,
+					counters.xpathCompilations, counters.domTraversals, counters.nodes, counters.indexLookups);
+		}
+	}
+
+	private static void countEvaluation(Object result) {
+		Counters counters = CURRENT.get();
+		if(counters != null) {
+			counters.xpathEvaluations++;
+			if(result instanceof NodeList) {
+				counters.domTraversals++;
+				counters.nodes += ((NodeList)result).getLength();
+			}
+		}
+	}
+
+	private static void countCompilation() {
+		Counters counters = CURRENT.get();
+		if(counters != null) {
+			counters.xpathCompilations++;
+		}
+	}
+
+	/**
+	 * XPath checking the time budget before its compilations and evaluations, and counting them
+	 */
+	private static class CheckedXPath implements XPath {
+
+		private final XPath delegate;
+
+		CheckedXPath(XPath delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void reset() {
+			delegate.reset();
+		}
+
+		@Override
+		public void setXPathVariableResolver(XPathVariableResolver resolver) {
+			delegate.setXPathVariableResolver(resolver);
+		}
+
+		@Override
+		public XPathVariableResolver getXPathVariableResolver() {
+			return delegate.getXPathVariableResolver();
+		}
+
+		@Override
+		public void setXPathFunctionResolver(XPathFunctionResolver resolver) {
+			delegate.setXPathFunctionResolver(resolver);
+		}
+
+		@Override
+		public XPathFunctionResolver getXPathFunctionResolver() {
+			return delegate.getXPathFunctionResolver();
+		}
+
+		@Override
+		public void setNamespaceContext(NamespaceContext nsContext) {
+			delegate.setNamespaceContext(nsContext);
+		}
+
+		@Override
+		public NamespaceContext getNamespaceContext() {
+			return delegate.getNamespaceContext();
+		}
+
+		@Override
+		public XPathExpression compile(String expression) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			countCompilation();
+			return new CheckedXPathExpression(delegate.compile(expression));
+		}
+
+		@Override
+		public Object evaluate(String expression, Object item, QName returnType) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			Object result = delegate.evaluate(expression, item, returnType);
+			countEvaluation(result);
+			return result;
+		}
+
+		@Override
+		public String evaluate(String expression, Object item) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			countEvaluation(null);
+			return delegate.evaluate(expression, item);
+		}
+
+		@Override
+		public Object evaluate(String expression, InputSource source, QName returnType) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			Object result = delegate.evaluate(expression, source, returnType);
+			countEvaluation(result);
+			return result;
+		}
+
+		@Override
+		public String evaluate(String expression, InputSource source) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			countEvaluation(null);
+			return delegate.evaluate(expression, source);
+		}
+	}
+
+	/**
+	 * Compiled XPath expression checking the time budget before its evaluations, and counting them
+	 */
+	private static class CheckedXPathExpression implements XPathExpression {
+
+		private final XPathExpression delegate;
+
+		CheckedXPathExpression(XPathExpression delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Object evaluate(Object item, QName returnType) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			Object result = delegate.evaluate(item, returnType);
+			countEvaluation(result);
+			return result;
+		}
+
+		@Override
+		public String evaluate(Object item) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			countEvaluation(null);
+			return delegate.evaluate(item);
+		}
+
+		@Override
+		public Object evaluate(InputSource source, QName returnType) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			Object result = delegate.evaluate(source, returnType);
+			countEvaluation(result);
+			return result;
+		}
+
+		@Override
+		public String evaluate(InputSource source) throws XPathExpressionException {
+			CheckRunner.checkBudget();
+			countEvaluation(null);
+			return delegate.evaluate(source);
+		}
+	}
+}
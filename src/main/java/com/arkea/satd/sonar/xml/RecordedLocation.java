@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+
+/**
+ * Issue location recorded until it is added to its issue, for the contexts which relocate or drop the issues
+ */
+class RecordedLocation implements NewIssueLocation {
+
+	InputComponent component;
+	TextRange textRange;
+	String message;
+
+	@Override
+	public NewIssueLocation on(InputComponent component) {
+		this.component = component;
+		return this;
+	}
+
+	@Override
+	public NewIssueLocation at(TextRange location) {
+		this.textRange = location;
+		return this;
+	}
+
+	@Override
+	public NewIssueLocation message(String message) {
+		this.message = message;
+		return this;
+	}
+
+	/**
+	 * @return the same location, created by the issue
+	 */
+	NewIssueLocation copyTo(NewIssue issue) {
+		NewIssueLocation location = issue.newLocation();
+		if(component != null) {
+			location.on(component);
+		}
+		if(textRange != null) {
+			location.at(textRange);
+		}
+		if(message != null) {
+			location.message(message);
+		}
+		return location;
+	}
+}
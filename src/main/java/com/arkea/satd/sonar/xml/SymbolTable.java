@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.w3c.dom.Node;
+
+/**
+ * Symbol table of an analysis : the element names, the policy and step names, the conditions and the other short texts
+ * of all the documents are stored once, so that equal strings are the same instance.
+ * The lookups of the indexes then succeed on the identity check of String.equals, and the documents kept for the
+ * whole analysis share their texts. Each recording holds its own table, see {@link BundleRecorder#getSymbols()} :
+ * the analyses running in parallel do not share it. Not thread safe, as the recording holding it.
+ */
+public final class SymbolTable {
+
+	// Longer texts, such as scripts or payloads, are seldom repeated
+	static final int MAX_LENGTH = 256;
+
+	private final Map<String, String> symbols = new HashMap<>();
+
+	/**
+	 * @return the instance of the table equal to the string, the string itself if it is the first one or too long
+	 */
+	public String intern(String s) {
+		if(s == null || s.length() > MAX_LENGTH) {
+			return s;
+		}
+		String symbol = symbols.putIfAbsent(s, s);
+		return symbol == null ? s : symbol;
+	}
+
+	/**
+	 * Replaces the texts of the document, or of the subtree, by the instances of the table.
+	 * The element and attribute names are already shared by the DOM parser.
+	 */
+	public void intern(Node node) {
+		for(Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			short type = child.getNodeType();
+			if(type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE) {
+				String text = child.getNodeValue();
+				String symbol = intern(text);
+				if(symbol != text) {
+					child.setNodeValue(symbol);
+				}
+			} else if(type == Node.ELEMENT_NODE) {
+				intern(child);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of symbols
+	 */
+	public int size() {
+		return symbols.size();
+	}
+
+	/**
+	 * Empties the table when the recorded files are cleared, or before it is filled again with the files still recorded.
+	 * The strings stay valid, only the next ones are not shared with them.
+	 */
+	public void clear() {
+		symbols.clear();
+	}
+}
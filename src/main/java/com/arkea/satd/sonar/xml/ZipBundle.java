@@ -0,0 +1,234 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+
+/**
+ * Apigee bundle zipped in an archive (apiproxy.zip), whose xml entries are read without being extracted.
+ * An entry is identified by the archive key, "!/" and the entry name.
+ */
+public class ZipBundle implements Closeable {
+
+	public static final String EXTENSION = "zip";
+	public static final String SEPARATOR = "!/";
+	public static final List<String> XML_SUFFIXES = Arrays.asList(".xml", ".xsd", ".xsl", ".xslt", ".wsdl");
+
+	private final Path path;
+	private final String key;
+	private final ZipFile zipFile;
+	private final List<InputFile> inputFiles = new ArrayList<>();
+
+	/**
+	 * Opens the archive and lists its xml entries
+	 * @param path the archive
+	 * @param key the archive key, prefix of the entries keys
+	 */
+	public ZipBundle(Path path, String key) throws IOException {
+		this.path = path.toAbsolutePath();
+		this.key = key;
+		this.zipFile = new ZipFile(path.toFile(), StandardCharsets.UTF_8);
+		List<ZipEntry> entries = new ArrayList<>();
+		zipFile.stream().forEach(entries::add);
+		entries.sort(Comparator.comparing(ZipEntry::getName));
+		for(ZipEntry entry : entries) {
+			if(!entry.isDirectory() && isXml(entry.getName()) && !isHidden(entry.getName())) {
+				inputFiles.add(new EntryInputFile(entry));
+			}
+		}
+	}
+
+	public static boolean isXml(String name) {
+		String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+		return XML_SUFFIXES.stream().anyMatch(lowerCaseName::endsWith);
+	}
+
+	/**
+	 * Hidden files and the resource forks of the archives made on macOS
+	 */
+	public static boolean isHidden(String name) {
+		for(String segment : name.split("[/\\\\]")) {
+			if(segment.startsWith(".") || "__MACOSX".equals(segment)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the xml entries, sorted by name
+	 */
+	public List<InputFile> getInputFiles() {
+		return Collections.unmodifiableList(inputFiles);
+	}
+
+	@Override
+	public void close() throws IOException {
+		zipFile.close();
+	}
+
+	/**
+	 * Wraps the context so that the issues located in the entries of the archives are reported on the archives,
+	 * which are the files known to the scanner. The entry path and the line are prepended to the messages.
+	 * @param archives the archives input files, by bundle
+	 */
+	public static SensorContext reportOnArchives(SensorContext context, Map<ZipBundle, InputFile> archives) {
+		archives.values().forEach(context::markForPublishing);
+		return AnalysisStatistics.proxy(SensorContext.class, context, (delegate, method, args) -> {
+			Object result = method.invoke(delegate, args);
+			if("newIssue".equals(method.getName())) {
+				return reportingOnArchives((NewIssue)result, archives);
+			}
+			return result;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static NewIssue reportingOnArchives(NewIssue issue, Map<ZipBundle, InputFile> archives) {
+		return AnalysisStatistics.proxy(NewIssue.class, issue, (delegate, method, args) -> {
+			NewIssue newIssue = (NewIssue) delegate;
+			switch(method.getName()) {
+				case "newLocation":
+					// The location is only known once complete, it is converted when added to the issue
+					return new RecordedLocation();
+				case "at":
+				case "addLocation":
+					return method.invoke(delegate, toLocation(newIssue, (NewIssueLocation)args[0], archives));
+				case "addFlow":
+					List<NewIssueLocation> flow = new ArrayList<>();
+					((Iterable<NewIssueLocation>)args[0]).forEach(location -> flow.add(toLocation(newIssue, location, archives)));
+					return newIssue.addFlow(flow);
+				default:
+					return method.invoke(delegate, args);
+			}
+		});
+	}
+
+	private static NewIssueLocation toLocation(NewIssue issue, NewIssueLocation location, Map<ZipBundle, InputFile> archives) {
+		if(!(location instanceof RecordedLocation)) {
+			return location;
+		}
+		RecordedLocation entryLocation = (RecordedLocation) location;
+		InputFile archive = entryLocation.component instanceof EntryInputFile ? archives.get(((EntryInputFile)entryLocation.component).getBundle()) : null;
+		if(archive == null) {
+			return entryLocation.copyTo(issue);
+		}
+		// An archive has no lines : the issue is on the whole archive
+		String entry = ((EntryInputFile)entryLocation.component).getName();
+		if(entryLocation.textRange != null) {
+			entry += ":" + entryLocation.textRange.start().line();
+		}
+		return issue.newLocation().on(archive).message("[" + entry + "] " + (entryLocation.message == null ? "" : entryLocation.message));
+	}
+
+	/**
+	 * An xml entry of the archive, read from the archive on each call
+	 */
+	private class EntryInputFile extends BaseInputFile {
+		private final ZipEntry entry;
+
+		private EntryInputFile(ZipEntry entry) {
+			this.entry = entry;
+		}
+
+		private ZipBundle getBundle() {
+			return ZipBundle.this;
+		}
+
+		private String getName() {
+			return entry.getName();
+		}
+
+		@Override
+		protected String readContents() throws IOException {
+			try (InputStream is = zipFile.getInputStream(entry)) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.getSize() > 0 ? (int)Math.min(entry.getSize(), Integer.MAX_VALUE - 8) : 8192);
+				byte[] buffer = new byte[8192];
+				for(int read = is.read(buffer); read > 0; read = is.read(buffer)) {
+					bytes.write(buffer, 0, read);
+				}
+				return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+			}
+		}
+
+		@Override
+		public long size() {
+			return entry.getSize();
+		}
+
+		@Override
+		public String relativePath() {
+			return key + SEPARATOR + entry.getName();
+		}
+
+		@Override
+		public String absolutePath() {
+			return path.toString().replace('\\', '/') + SEPARATOR + entry.getName();
+		}
+
+		/**
+		 * @return the archive
+		 */
+		@Override
+		public File file() {
+			return path.toFile();
+		}
+
+		/**
+		 * @return the archive
+		 */
+		@Override
+		public Path path() {
+			return path;
+		}
+
+		@Override
+		public URI uri() {
+			// Hierarchical, unlike the jar: URIs, so that every entry has its own path
+			try {
+				return new URI("file", null, path.toUri().getPath() + SEPARATOR + entry.getName(), null);
+			} catch (URISyntaxException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -23,18 +23,21 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.api.batch.sensor.issue.NewIssue;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.XmlTextRange;
 import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
 import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.QueryProfiler;
+import com.arkea.satd.sonar.xml.model.Flow;
+import com.arkea.satd.sonar.xml.model.FlowGraph;
 
 
 /**
@@ -53,8 +56,7 @@ public abstract class AbstractBodyCheck extends SonarXmlCheck {
 		
 		boolean hasIssue = false;
 		
-		XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
+		XPath xpath = QueryProfiler.newXPath();
 
 	    // Search for the associated step in the full storage		    	
 	    List<XmlFile> listProxiesEndpoint = BundleRecorder.searchByStepName(stepName);
@@ -80,10 +82,8 @@ public abstract class AbstractBodyCheck extends SonarXmlCheck {
 					// Check also on flow condition :
 					// if the parent is a flow we might revert the decision if it has an appropriate condition
 					if(hasIssue) {
-						// Search the condition of the parent Node (Flow, but not PreFlow or PostFlow
-						String flowCondition = (String)xpath.evaluate("../../../*[name() = 'Flow']/Condition/text()", currentStep, XPathConstants.STRING);						
-						matcher = ptrn.matcher(flowCondition);	    
-						hasIssue = !matcher.find();
+						// Search the conditions leading to the parent Node in the flow graph (Flow, but not PreFlow or PostFlow)
+						hasIssue = !isGuarded(currentStep, ptrn);
 					}
 					
 					// Finally : Create issue if needed
@@ -109,4 +109,22 @@ public abstract class AbstractBodyCheck extends SonarXmlCheck {
 		
 		return hasIssue;
 	}
+
+	/**
+	 * Only the conditional Flows are guards, as the Condition of the enclosing Flow : the conditions of the FaultRules select the
+	 * handling of a fault, not the requests whose body is checked
+	 * @return whether the step is in a conditional Flow, all the edges entering its node in the flow graph having a condition matching the pattern
+	 */
+	private static boolean isGuarded(Node step, Pattern pattern) {
+		FlowGraph.Node node = BundleRecorder.getBundle().getFlowNode((Element) step);
+		if(node == null || node.getFlowType() != Flow.Type.FLOW || node.getIncoming().isEmpty()) {
+			return false;
+		}
+		for(FlowGraph.Edge edge : node.getIncoming()) {
+			if(edge.isFault() || edge.getCondition() == null || !pattern.matcher(edge.getCondition()).find()) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
@@ -18,7 +18,6 @@ package com.arkea.satd.sonar.xml.checks;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -26,6 +25,8 @@ import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 /**
  * Avoid Python language
  * Code : PO500
@@ -43,8 +44,7 @@ public class AvoidPythonCheck extends SonarXmlCheck {
 	    Document document = xmlFile.getDocument();
 	    if (document.getDocumentElement() != null) {
     	
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 		    	// Select in one shot the ResourceURL starting with py://
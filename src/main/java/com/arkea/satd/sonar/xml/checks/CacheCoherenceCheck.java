@@ -15,12 +15,12 @@
  */
 package com.arkea.satd.sonar.xml.checks;
 
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -29,6 +29,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
 import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.QueryProfiler;
 
 /**
  * Cache Coherence
@@ -38,6 +39,15 @@ import com.arkea.satd.sonar.xml.BundleRecorder;
 @Rule(key = "CacheCoherenceCheck")
 public class CacheCoherenceCheck extends SonarXmlCheck {
 
+	/**
+	 * Composite keys of all the cache policies of one type, computed once for the bundle
+	 */
+	private static class CacheKeys {
+		private final Set<String> keys = new HashSet<>();
+		// False when the key of a policy can not be computed, the check is then skipped as before
+		private boolean complete = true;
+	}
+
 	@Override
 	public void scanFile(XmlFile xmlFile) {
 		
@@ -52,8 +62,7 @@ public class CacheCoherenceCheck extends SonarXmlCheck {
 
 	    if (type1Document.getDocumentElement() != null && type1.equals(type1Document.getDocumentElement().getNodeName())) {
 	    	
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 		    	// Select CacheKey Node 
@@ -61,22 +70,11 @@ public class CacheCoherenceCheck extends SonarXmlCheck {
 		        String compositeKey1 = computeKey(xpath, cacheNode1);
 		        
 		        // Now search for a LookupCache policy
-		        List<XmlFile> type2Policies = BundleRecorder.searchPoliciesByType(type2);
-
-	        	boolean hasMatchingKey = false;
-	        	for(XmlFile type2XmlFile : type2Policies) {
-	        		
-	        		Document type2Document = type2XmlFile.getDocument();
-			    	Node cacheNode2 = (Node)xpath.evaluate( "//CacheKey",type2Document, XPathConstants.NODE);		        
-			        String compositeKey2 = computeKey(xpath, cacheNode2);
-			        
-			        if(compositeKey1.equals(compositeKey2)) {
-			        	hasMatchingKey = true;
-			        }
-	        	}
+		        CacheKeys type2Keys = BundleRecorder.computeIfAbsent(getClass().getName() + "." + type2, () -> cacheKeys(type2));
+	        	boolean hasMatchingKey = type2Keys.keys.contains(compositeKey1);
 	        	
         		// Violation
-	        	if(!hasMatchingKey) {
+	        	if(type2Keys.complete && !hasMatchingKey) {
 	        		reportIssue(cacheNode1, type1 + " may not have a corresponding "+ type2 + ".");
 	        	}
 		        
@@ -93,7 +91,22 @@ public class CacheCoherenceCheck extends SonarXmlCheck {
 	}
 
 
-	private String computeKey(XPath xpath, Node cacheNode) throws XPathExpressionException {
+	private static CacheKeys cacheKeys(String type) {
+		CacheKeys cacheKeys = new CacheKeys();
+	    XPath xpath = QueryProfiler.newXPath();
+    	for(XmlFile xmlFile : BundleRecorder.searchPoliciesByType(type)) {
+    		try {
+	    		Node cacheNode = (Node)xpath.evaluate( "//CacheKey", xmlFile.getDocument(), XPathConstants.NODE);
+	    		cacheKeys.keys.add(computeKey(xpath, cacheNode));
+			} catch (XPathExpressionException e) {
+				cacheKeys.complete = false;
+			}
+    	}
+    	return cacheKeys;
+	}
+
+
+	private static String computeKey(XPath xpath, Node cacheNode) throws XPathExpressionException {
         String prefix = (String)xpath.evaluate( "./Prefix/text()", cacheNode, XPathConstants.STRING);
         String keyFragmentRef = (String)xpath.evaluate( "./KeyFragment/@ref/text()", cacheNode, XPathConstants.STRING);
         String keyFragment = (String)xpath.evaluate( "./KeyFragment/text()", cacheNode, XPathConstants.STRING);
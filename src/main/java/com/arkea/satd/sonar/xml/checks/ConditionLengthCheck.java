@@ -18,7 +18,6 @@ package com.arkea.satd.sonar.xml.checks;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
@@ -28,6 +27,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Definition : Overly long conditions on Steps are difficult to debug and maintain.
@@ -49,8 +50,7 @@ public class ConditionLengthCheck extends SonarXmlCheck {
 		
 	    if (document.getDocumentElement() != null) {
     	
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 		    	// Select in one shot the Condition which are too long
@@ -19,7 +19,6 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
@@ -29,6 +28,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Definition : The Description tags should meet minimum length requirements to be useful. The default minimum length is 5. This can be modified in the Quality Profile.
@@ -49,8 +50,7 @@ public class DescriptionCheck extends SonarXmlCheck {
 	    Document document = xmlFile.getDocument();
 	    if (document.getDocumentElement() != null) {
     	
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 		    	// Select in one shot the Description which are too short
@@ -21,7 +21,6 @@ import java.util.regex.Pattern;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
@@ -30,6 +29,8 @@ import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Definition : The Description tag should be compliant with the pattern defined in the rule parameter ""
@@ -59,8 +60,7 @@ public class DescriptionPatternCheck extends SonarXmlCheck {
 	    if (document.getDocumentElement() != null && ("APIProxy".equals(document.getDocumentElement().getNodeName()) || 
 	    											  "SharedFlowBundle".equals(document.getDocumentElement().getNodeName()))) {
 
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 		    	// Select in one shot the Description which are too short
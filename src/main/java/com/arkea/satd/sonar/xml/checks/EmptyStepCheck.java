@@ -19,7 +19,6 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -28,6 +27,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Definition : Empty steps clutter a bundle. Performance is not degraded.
@@ -42,8 +43,7 @@ public class EmptyStepCheck extends SonarXmlCheck {
 		
 	    Document document = xmlFile.getDocument();
 	    
-	    XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
+	    XPath xpath = QueryProfiler.newXPath();
 	    
 	    try {
 	    	// Select in one shot the Step nodes which are empty
@@ -20,12 +20,13 @@ import java.util.regex.Pattern;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.w3c.dom.Document;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * ExtractVariables XML or JSON Payload
@@ -41,8 +42,7 @@ public class ExtractVariablesCheck extends AbstractBodyCheck {
 		
 	    Document document = xmlFile.getDocument();
 	    
-	    XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
+	    XPath xpath = QueryProfiler.newXPath();
 	    
 	    try {
 			Boolean hasPayloadExtraction = (Boolean)xpath.evaluate("count(/ExtractVariables/*[(name()='JSONPayload' or name()='XMLPayload')]/Variable) + count(/ExtractVariables/FormParam) > 0", document, XPathConstants.BOOLEAN);
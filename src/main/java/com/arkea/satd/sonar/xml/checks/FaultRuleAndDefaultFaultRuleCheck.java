@@ -18,7 +18,6 @@ package com.arkea.satd.sonar.xml.checks;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -27,6 +26,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 /**
  * DefaultFaultRule defined and FaultRule without condition.
  * Code : FR502
@@ -41,8 +42,7 @@ public class FaultRuleAndDefaultFaultRuleCheck extends SonarXmlCheck {
 	    Document document = xmlFile.getDocument();
 	    if (document.getDocumentElement() != null) {
     	
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 		    	NodeList faultRuleNodeList = (NodeList)xpath.evaluate("//FaultRule", document, XPathConstants.NODESET);
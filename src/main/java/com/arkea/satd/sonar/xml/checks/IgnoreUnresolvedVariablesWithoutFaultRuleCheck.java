@@ -21,7 +21,6 @@ import java.util.List;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -31,6 +30,7 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.QueryProfiler;
 
 /**
  * Use of IgnoreUnresolvedVariables without the use of FaultRules may lead to unexpected errors.
@@ -47,8 +47,7 @@ public class IgnoreUnresolvedVariablesWithoutFaultRuleCheck extends SonarXmlChec
 	    Document document = xmlFile.getDocument();
 	    if (document.getDocumentElement() != null) {
 	    	String rootNodeName = document.getDocumentElement().getNodeName();
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    Node errorLocation = document.getDocumentElement();
 		    
 		    try {
@@ -15,17 +15,16 @@
  */
 package com.arkea.satd.sonar.xml.checks;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.TreeMap;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.api.batch.sensor.issue.NewIssue;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
@@ -34,10 +33,12 @@ import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.XmlTextRange;
 import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
 import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
 import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.QueryProfiler;
 
 /**
  * Warn on duplicate policies when no conditions are present or conditions are duplicates.
@@ -49,53 +50,80 @@ import com.arkea.satd.sonar.xml.BundleRecorder;
 @Rule(key = "MultipleStatsCollectorsCheck")
 public class MultipleStatsCollectorsCheck extends SonarXmlCheck {
 
+	private static final String MESSAGE_STEP = "This policy is attached to a step without a condition. If you have more than two Statistics Collector policies, only the last one in the flow will execute.  Include a condition to make sure the correct one executes.";
+
+	/**
+	 * Collectors of the whole bundle, computed once instead of comparing each collector to all the others
+	 */
+	private static class Collectors {
+		// Number of collectors by Statistics content, and by Statistics content and name
+		private final Map<String, Integer> countByStatistics = new HashMap<>();
+		private final Map<String, Integer> countByStatisticsAndName = new HashMap<>();
+		// Steps sharing a flow with another collector step, one of them without condition
+		private final List<StepIssues> stepsIssues = new ArrayList<>();
+	}
+
+	private static class StepIssues {
+		private final Node step;
+		private final XmlFile xmlFile;
+		private final String name;
+		private final int count;
+
+		StepIssues(Node step, XmlFile xmlFile, String name, int count) {
+			this.step = step;
+			this.xmlFile = xmlFile;
+			this.name = name;
+			this.count = count;
+		}
+	}
+
+	/**
+	 * Steps of a flow, or of a fault rule
+	 */
+	private static class StepsGroup {
+		private int total;
+		private int withoutCondition;
+
+		void add(boolean noCondition) {
+			total++;
+			if(noCondition) {
+				withoutCondition++;
+			}
+		}
+	}
+
 	@Override
 	public void scanFile(XmlFile xmlFile) {
 		
 	    Document document = xmlFile.getDocument();
 	    if (document.getDocumentElement() != null && "StatisticsCollector".equals(document.getDocumentElement().getNodeName())) {
 	    	
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 
-    		// Search for other collectors policies
-    		List<XmlFile> collectorsList = BundleRecorder.searchPoliciesByType("StatisticsCollector");
-    		Set<String> collectorsNamesSet = new HashSet<>();
-    						    			
 		    try {
 		    	
 		    	// Select in one shot the name attribute and the Statistics node
 		    	String currentPolicyAttrName = (String)xpath.evaluate("/*/@name", document, XPathConstants.STRING);
     			Node statisticsNode = (Node)xpath.evaluate("//Statistics", document, XPathConstants.NODE);
+
+    			Collectors collectors = BundleRecorder.computeIfAbsent(getClass().getName(), MultipleStatsCollectorsCheck::collectors);
     			
     			//
     			// Search for duplicates of this policy  (ie. same <Statistics> elements)
+    			// Exclude the current policy itself, of course.
     			//
-    			for(XmlFile otherPolicy : collectorsList) {
-    				
-    				Document otherDocument = otherPolicy.getDocument();
-			    	String otherPolicyAttrName = (String)xpath.evaluate("/*/@name", otherDocument, XPathConstants.STRING);
-			    	
-			    	// Useful later
-			    	collectorsNamesSet.add(otherPolicyAttrName);
-			    	
-    				// Exclude the current policy itself, of course.
-    				if(!currentPolicyAttrName.equals(otherPolicyAttrName)) {
-    					Node otherStatisticsNode = (Node)xpath.evaluate("//Statistics", otherDocument, XPathConstants.NODE);
-    					otherStatisticsNode.normalize();
-    					statisticsNode.normalize();
-    					
-    					// Check if the Statistics nodes are equivalent
-    					if(statisticsNode.isEqualNode(otherStatisticsNode)) {
-    						reportIssue(document.getDocumentElement(), "This policy is duplicated in the bundle.");
-    					}
+    			if(statisticsNode != null) {
+    				String key = key(statisticsNode);
+    				int duplicates = collectors.countByStatistics.getOrDefault(key, 0) - collectors.countByStatisticsAndName.getOrDefault(key + '\0' + currentPolicyAttrName, 0);
+    				for(int i=0; i<duplicates; i++) {
+    					reportIssue(document.getDocumentElement(), "This policy is duplicated in the bundle.");
     				}
     			}
     			
     			//
     			// And then, work based on steps
     			//
-    			checkMultipleStatisticsCollectorWithoutCondition(document, currentPolicyAttrName, collectorsNamesSet);
+    			checkMultipleStatisticsCollectorWithoutCondition(document, currentPolicyAttrName, collectors);
     			
 		    
 			} catch (XPathExpressionException e) {
@@ -104,95 +132,154 @@ public class MultipleStatsCollectorsCheck extends SonarXmlCheck {
 	    }
 	}
 
-	private void checkMultipleStatisticsCollectorWithoutCondition(Document document, String currentPolicyAttrName, Set<String> collectorsNamesSet) throws XPathExpressionException {
-	    XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
+	private void checkMultipleStatisticsCollectorWithoutCondition(Document document, String currentPolicyAttrName, Collectors collectors) {
 
-		Map<Node, XmlFile> collectorsStepsMap = new HashMap<>();
-		for(String collectorName : collectorsNamesSet) {
-			collectorsStepsMap.putAll(BundleRecorder.searchStepsByName(collectorName));
-		}
-		
 		// Flag used to trigger an issue only once at the policy level
 		boolean hasIssueAtPolicyLevel = false;
 		
-		// If there's more than one Step using a StatisticsCollector
-		// Double iteration to compare steps between then
-		Set<Node> collectorsStepsSet = collectorsStepsMap.keySet();
-		for(Node stepI : collectorsStepsSet) {
+		for(StepIssues stepIssues : collectors.stepsIssues) {
 			
-			String stepIName = (String)xpath.evaluate("Name/text()", stepI, XPathConstants.STRING);
-			String stepIParentNodeName = (String)xpath.evaluate("name(..)", stepI, XPathConstants.STRING);
-			String stepIGrandParentNodeName = (String)xpath.evaluate("name(../..)", stepI, XPathConstants.STRING);
-			boolean isIAttachedToFlow = "Flow".equals(stepIGrandParentNodeName);
-			boolean isIAttachedToGlobalFlow = Arrays.asList("PreFlow", "PostFlow").contains(stepIGrandParentNodeName);
-			boolean isIAttachedToFault = "FaultRule".equals(stepIParentNodeName);
-			boolean isIAttachedToDefaultFault = "DefaultFaultRule".equals(stepIParentNodeName);
-			String stepIFlowName = "";
-			if(isIAttachedToFlow || isIAttachedToFault) {
-				stepIFlowName = (String)xpath.evaluate("../../@name", stepI, XPathConstants.STRING);
+			// Report the issue at the policy level
+			if(!hasIssueAtPolicyLevel && stepIssues.name.equals(currentPolicyAttrName)) {
+				reportIssue(document.getDocumentElement(), MESSAGE_STEP);
+				// Don't trigger this issue multiple times
+				hasIssueAtPolicyLevel = true;
 			}
-			String stepIBreadcrumb = stepIGrandParentNodeName + "/" + stepIParentNodeName + "@" + stepIFlowName + "/" + stepI.hashCode();
-			
-			for(Node stepJ : collectorsStepsSet) {
-
-				String stepJParentNodeName = (String)xpath.evaluate("name(..)", stepJ, XPathConstants.STRING);
-				String stepJGrandParentNodeName = (String)xpath.evaluate("name(../..)", stepJ, XPathConstants.STRING);
-				boolean isJAttachedToFlow = "Flow".equals(stepJGrandParentNodeName);
-				boolean isJAttachedToGlobalFlow = Arrays.asList("PreFlow", "PostFlow").contains(stepJGrandParentNodeName);
-				boolean isJAttachedToFault = "FaultRule".equals(stepJParentNodeName);
-				boolean isJAttachedToDefaultFault = "DefaultFaultRule".equals(stepJParentNodeName);
-				String stepJFlowName = "";
-				if(isJAttachedToFlow || isJAttachedToFault) {
-					stepJFlowName = (String)xpath.evaluate("../../@name", stepJ, XPathConstants.STRING);
-				}	
-				String stepJBreadcrumb = stepJGrandParentNodeName + "/" + stepJParentNodeName + "@" + stepJFlowName + "/" + stepJ.hashCode();
-				
-				if(!stepIBreadcrumb.equals(stepJBreadcrumb) &&  // Exclude the comparison with itself
-					 (  (isIAttachedToGlobalFlow   && isJAttachedToGlobalFlow )   ||                                  // Two policies are in the same global flow
-						(isIAttachedToDefaultFault && isJAttachedToDefaultFault ) ||                                  // Two policies are in the same defaultFaultRule
-						(isIAttachedToFlow         && isJAttachedToFlow  && stepIFlowName.equals(stepJFlowName) ) ||  // Two policies are in the same flow (exact name)
-						(isIAttachedToFault        && isJAttachedToFault && stepIFlowName.equals(stepJFlowName) ) ||  // Two policies are in the same faultRule (exact name)
-						(isIAttachedToFlow         && isJAttachedToGlobalFlow )   ||                                  // A policy in a Flow, the other in PreFlow or PostFlow
-						(isIAttachedToGlobalFlow   && isJAttachedToFlow )                                             // A policy in PreFlow or PostFlow, the other in a Flow
-					 )) {
-					
-					// Check that all steps have a non-null <Condition>
-					String conditionI = (String)xpath.evaluate("Condition/text()", stepI, XPathConstants.STRING);
-					boolean noConditionForStepI = conditionI==null || conditionI.isEmpty() || "true".equals(conditionI);
-					
-					String conditionJ = (String)xpath.evaluate("Condition/text()", stepJ, XPathConstants.STRING);
-					boolean noConditionForStepJ = conditionJ==null || conditionJ.isEmpty() || "true".equals(conditionJ);
-					
-					if(noConditionForStepI || noConditionForStepJ) {
-						
-						// Report the issue at the policy level
-						if(!hasIssueAtPolicyLevel && stepIName.equals(currentPolicyAttrName)) {
-							reportIssue(document.getDocumentElement(), "This policy is attached to a step without a condition. If you have more than two Statistics Collector policies, only the last one in the flow will execute.  Include a condition to make sure the correct one executes.");
-							// Don't trigger this issue multiple times
-							hasIssueAtPolicyLevel = true;
-						}
-						
-						// Report also the issue next to the StepI node
-						final NewIssue issueStepI = ApigeeXmlSensor.getContext().newIssue();
-						final XmlTextRange textRangeStepI = XmlFile.nodeLocation(stepI);
-						
-						XmlFile stepIXmlFile = collectorsStepsMap.get(stepI);
-						NewIssueLocation locationStepI = issueStepI.newLocation()
-								.on(stepIXmlFile.getInputFile())
-								.at(stepIXmlFile.getInputFile().newRange(textRangeStepI.getStartLine(), textRangeStepI.getStartColumn(), textRangeStepI.getEndLine(), textRangeStepI.getEndColumn()))
-								.message("This policy is attached to a step without a condition. If you have more than two Statistics Collector policies, only the last one in the flow will execute.  Include a condition to make sure the correct one executes.");
-
-						issueStepI.at(locationStepI)
-							.forRule(ruleKey())
-							.save(); // Mandatory to "commit" the issue in the final report		
-		
-						// Don't report the issue  to the StepJ node
-						// It will be done during the double loop iteration
 
+			// Report also the issue next to the step node, once for each other step of the flow
+			final XmlTextRange textRange = XmlFile.nodeLocation(stepIssues.step);
+			for(int i=0; i<stepIssues.count; i++) {
+				final NewIssue issueStep = ApigeeXmlSensor.getContext().newIssue();
+				NewIssueLocation locationStep = issueStep.newLocation()
+						.on(stepIssues.xmlFile.getInputFile())
+						.at(stepIssues.xmlFile.getInputFile().newRange(textRange.getStartLine(), textRange.getStartColumn(), textRange.getEndLine(), textRange.getEndColumn()))
+						.message(MESSAGE_STEP);
+
+				issueStep.at(locationStep)
+					.forRule(ruleKey())
+					.save(); // Mandatory to "commit" the issue in the final report		
+			}
+		}
+	}
+
+	private static Collectors collectors() {
+		Collectors collectors = new Collectors();
+	    XPath xpath = QueryProfiler.newXPath();
+
+		Map<Node, XmlFile> collectorsStepsMap = new HashMap<>();
+	    try {
+			for(XmlFile collector : BundleRecorder.searchPoliciesByType("StatisticsCollector")) {
+				Document collectorDocument = collector.getDocument();
+				String name = (String)xpath.evaluate("/*/@name", collectorDocument, XPathConstants.STRING);
+				Node statisticsNode = (Node)xpath.evaluate("//Statistics", collectorDocument, XPathConstants.NODE);
+				if(statisticsNode != null) {
+					String key = key(statisticsNode);
+					collectors.countByStatistics.merge(key, 1, Integer::sum);
+					collectors.countByStatisticsAndName.merge(key + '\0' + name, 1, Integer::sum);
+				}
+				collectorsStepsMap.putAll(BundleRecorder.searchStepsByName(name));
+			}
+
+			// A step is compared to the steps in the same global flow, default fault rule, flow or fault rule (exact name),
+			// and to the steps of the conditional flows when it is in a PreFlow or a PostFlow, and reciprocally.
+			List<Node> steps = new ArrayList<>(collectorsStepsMap.keySet());
+			String[] groups = new String[steps.size()];
+			boolean[] noConditions = new boolean[steps.size()];
+			StepsGroup globalFlows = new StepsGroup();
+			StepsGroup flows = new StepsGroup();
+			Map<String, StepsGroup> stepsGroups = new HashMap<>();
+
+			for(int i=0; i<steps.size(); i++) {
+				Node step = steps.get(i);
+				String parentNodeName = (String)xpath.evaluate("name(..)", step, XPathConstants.STRING);
+				String grandParentNodeName = (String)xpath.evaluate("name(../..)", step, XPathConstants.STRING);
+				String condition = (String)xpath.evaluate("Condition/text()", step, XPathConstants.STRING);
+				noConditions[i] = condition==null || condition.isEmpty() || "true".equals(condition);
+
+				if(Arrays.asList("PreFlow", "PostFlow").contains(grandParentNodeName)) {
+					groups[i] = "PreFlow";
+					globalFlows.add(noConditions[i]);
+				} else if("Flow".equals(grandParentNodeName)) {
+					groups[i] = "Flow@" + xpath.evaluate("../../@name", step, XPathConstants.STRING);
+					flows.add(noConditions[i]);
+				} else if("FaultRule".equals(parentNodeName)) {
+					groups[i] = "FaultRule@" + xpath.evaluate("../../@name", step, XPathConstants.STRING);
+				} else if("DefaultFaultRule".equals(parentNodeName)) {
+					groups[i] = "DefaultFaultRule";
+				}
+				if(groups[i] != null) {
+					stepsGroups.computeIfAbsent(groups[i], k -> new StepsGroup()).add(noConditions[i]);
+				}
+			}
+
+			for(int i=0; i<steps.size(); i++) {
+				if(groups[i] != null) {
+					// The other steps of the same group, the step itself excluded
+					StepsGroup group = stepsGroups.get(groups[i]);
+					int others = group.total - 1;
+					int othersWithoutCondition = group.withoutCondition - (noConditions[i] ? 1 : 0);
+					if("PreFlow".equals(groups[i])) {
+						others += flows.total;
+						othersWithoutCondition += flows.withoutCondition;
+					} else if(groups[i].startsWith("Flow@")) {
+						others += globalFlows.total;
+						othersWithoutCondition += globalFlows.withoutCondition;
+					}
+
+					int count = noConditions[i] ? others : othersWithoutCondition;
+					if(count > 0) {
+						Node step = steps.get(i);
+						String name = (String)xpath.evaluate("Name/text()", step, XPathConstants.STRING);
+						collectors.stepsIssues.add(new StepIssues(step, collectorsStepsMap.get(step), name, count));
 					}
 				}
 			}
+		} catch (XPathExpressionException e) {
+			// Nothing to do
+		}
+		return collectors;
+	}
+
+	/**
+	 * Key of the normalized node : nodes are equal in the sense of Node.isEqualNode when their keys are equal
+	 */
+	private static String key(Node node) {
+		node.normalize();
+		StringBuilder sb = new StringBuilder();
+		appendKey(sb, node);
+		return sb.toString();
+	}
+
+	private static void appendKey(StringBuilder sb, Node node) {
+		sb.append('(').append(node.getNodeType());
+		appendString(sb, node.getNodeName());
+		appendString(sb, node.getLocalName());
+		appendString(sb, node.getNamespaceURI());
+		appendString(sb, node.getPrefix());
+		appendString(sb, node.getNodeValue());
+		NamedNodeMap attributes = node.getAttributes();
+		if(attributes != null) {
+			// Attributes are compared regardless of their order
+			Map<String, Node> sortedAttributes = new TreeMap<>();
+			for(int i=0; i<attributes.getLength(); i++) {
+				sortedAttributes.put(attributes.item(i).getNodeName(), attributes.item(i));
+			}
+			sortedAttributes.values().forEach(attribute -> appendKey(sb, attribute));
+		}
+		sb.append('[');
+		if(node.getNodeType() != Node.ATTRIBUTE_NODE) {
+			for(Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+				appendKey(sb, child);
+			}
+		}
+		sb.append("])");
+	}
+
+	private static void appendString(StringBuilder sb, String value) {
+		if(value == null) {
+			sb.append('-');
+		} else {
+			sb.append(value.length()).append(':').append(value);
 		}
 	}
 	
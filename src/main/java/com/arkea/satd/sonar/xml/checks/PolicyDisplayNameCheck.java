@@ -19,7 +19,6 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -27,6 +26,8 @@ import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Policy Naming Conventions
@@ -49,8 +50,7 @@ public class PolicyDisplayNameCheck extends SonarXmlCheck {
 		    if(!"StatisticsCollector".equals(rootName)) {
 		    	
 		    	try {
-				    XPathFactory xPathfactory = XPathFactory.newInstance();
-				    XPath xpath = xPathfactory.newXPath();
+				    XPath xpath = QueryProfiler.newXPath();
 				    XPathExpression exprName = xpath.compile("/*/@name");
 				    String nameAttr = (String)exprName.evaluate(document, XPathConstants.STRING);
 					
@@ -15,13 +15,9 @@
  */
 package com.arkea.satd.sonar.xml.checks;
 
-import java.util.Map;
-import java.util.Set;
-
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.api.batch.sensor.issue.NewIssue;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
@@ -30,10 +26,11 @@ import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.XmlTextRange;
 import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.BundleGraph;
 import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.QueryProfiler;
 
 /**
  * When the same Quota policy is used more than once you must ensure that the conditions of execution are mutually exclusive 
@@ -58,24 +55,23 @@ public class QuotaPolicyReuseCheck extends SonarXmlCheck {
 			    
 			    try {
 			    	// Select in one shot the name of the policy
-				    XPathFactory xPathfactory = XPathFactory.newInstance();
-				    XPath xpath = xPathfactory.newXPath();
+				    XPath xpath = QueryProfiler.newXPath();
 			    	String currentPolicyAttrName = (String)xpath.evaluate("/Quota/@name", document, XPathConstants.STRING);
 			    	
-	    			Map<Node, XmlFile> quotaStepsMap = BundleRecorder.searchStepsByName(currentPolicyAttrName);
+			    	BundleGraph graph = BundleRecorder.getGraph();
+			    	int name = graph.getNameId(currentPolicyAttrName);
 
-			    	if(quotaStepsMap.size()>1) {
+			    	if(name >= 0 && graph.getStepCount(name)>1) {
 			    		// Report the issue at the file level
 			    		reportIssue(document.getDocumentElement(), "Quota Policy Reuse.");
 			    		
 						// Report also the issue next to the Step node
-		    			Set<Node> quotaStepsSet = quotaStepsMap.keySet();
-	    				
-	    				for(Node step : quotaStepsSet) {
+	    				for(int i=0; i<graph.getStepCount(name); i++) {
+	    					int step = graph.getStep(name, i);
 							final NewIssue issueStepI = ApigeeXmlSensor.getContext().newIssue();
-							final XmlTextRange textRangeStepI = XmlFile.nodeLocation(step);
+							final XmlTextRange textRangeStepI = XmlFile.nodeLocation(graph.getStepElement(step));
 							
-							XmlFile stepIXmlFile = quotaStepsMap.get(step);
+							XmlFile stepIXmlFile = graph.getStepFile(step);
 							NewIssueLocation locationStepI = issueStepI.newLocation()
 									.on(stepIXmlFile.getInputFile())
 									.at(stepIXmlFile.getInputFile().newRange(textRangeStepI.getStartLine(), textRangeStepI.getStartColumn(), textRangeStepI.getEndLine(), textRangeStepI.getEndColumn()))
@@ -18,13 +18,14 @@ package com.arkea.satd.sonar.xml.checks;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 /**
  * By default the ResponseCache policy will cache non 200 responses.
  * Either create a condition or use policy configuration options to exclude non 200 responses.
@@ -43,8 +44,7 @@ public class ResponseCacheErrorResponseCheck extends AbstractBodyCheck {
 	    Document document = xmlFile.getDocument();
 	    if (document.getDocumentElement() != null && "ResponseCache".equals(document.getDocumentElement().getNodeName())) {
     	
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 
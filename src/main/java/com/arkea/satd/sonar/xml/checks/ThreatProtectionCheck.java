@@ -18,12 +18,13 @@ package com.arkea.satd.sonar.xml.checks;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.w3c.dom.Document;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * JSON Threat Protection or XML Threat Protection
@@ -39,8 +40,7 @@ public class ThreatProtectionCheck extends AbstractBodyCheck {
 		
 	    Document document = xmlFile.getDocument();
 	    
-	    XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
+	    XPath xpath = QueryProfiler.newXPath();
 	    
 	    try {
 		    String nameAttr = (String)xpath.evaluate("//*[name() = 'JSONThreatProtection' or name() = 'XMLThreatProtection']/@name", document, XPathConstants.STRING);
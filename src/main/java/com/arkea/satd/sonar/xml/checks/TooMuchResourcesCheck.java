@@ -19,7 +19,6 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
@@ -28,6 +27,8 @@ import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Check number of resource callouts present in the bundle.
@@ -59,8 +60,7 @@ public class TooMuchResourcesCheck extends SonarXmlCheck {
 				  									  "SharedFlowBundle".equals(document.getDocumentElement().getNodeName()))) {
 	    	
 	    	// Search for policies declaration of an APIProxy document
-		    XPathFactory xPathfactory = XPathFactory.newInstance();
-		    XPath xpath = xPathfactory.newXPath();
+		    XPath xpath = QueryProfiler.newXPath();
 		    
 		    try {
 			    XPathExpression exprDisplayName = xpath.compile("count(/*/Resources/Resource)");
@@ -15,19 +15,18 @@
  */
 package com.arkea.satd.sonar.xml.checks;
 
-import java.util.List;
-
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
 
+import com.arkea.satd.sonar.xml.BundleGraph;
 import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.QueryProfiler;
 
 /**
  * Unattached policies are dead code and should be removed from production bundles.
@@ -47,21 +46,17 @@ public class UnattachedPolicyCheck extends SonarXmlCheck {
 
 	    	if(!"Manifest".equals(rootNodeName) && !"xsl:stylesheet".equals(rootNodeName) && !"wsdl:definitions".equals(rootNodeName) && !"xs:schema".equals(rootNodeName) ) {
 
-			    XPathFactory xPathfactory = XPathFactory.newInstance();
-			    XPath xpath = xPathfactory.newXPath();
+			    XPath xpath = QueryProfiler.newXPath();
 			    
 			    try {
 			    	// Select in one shot the name attribute
 			    	String attrName = (String)xpath.evaluate("/*/@name", document, XPathConstants.STRING);
 			    	
-			    	// Verify that this is a policy :
-			    	if(BundleRecorder.searchPoliciesByName(attrName) != null) {
-			    		
-			    		// Search for a step with the same name
-			    		List<XmlFile> stepsList = BundleRecorder.searchByStepName(attrName);
-			    		if(stepsList==null || stepsList.isEmpty()) {
-			    			reportIssue(document.getDocumentElement(), "This policy is not attached to a Step in the bundle.");
-			    		}
+			    	// Verify that this is a policy, then search for a step with the same name
+			    	BundleGraph graph = BundleRecorder.getGraph();
+			    	int name = graph.getNameId(attrName);
+			    	if(name >= 0 && graph.getPolicy(name) != null && !graph.isAttached(name)) {
+		    			reportIssue(document.getDocumentElement(), "This policy is not attached to a Step in the bundle.");
 			    	}
 			    	
 				} catch (XPathExpressionException e) {
@@ -18,7 +18,6 @@ package com.arkea.satd.sonar.xml.checks;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -27,6 +26,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Only one unconditional flow will get executed. Error if more than one was detected.
@@ -41,8 +42,7 @@ public class UnconditionalFlowCheck extends SonarXmlCheck {
 		
 	    Document document = xmlFile.getDocument();
 	    
-	    XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
+	    XPath xpath = QueryProfiler.newXPath();
 	    
 	    try {
 	    	// Select the Flow nodes
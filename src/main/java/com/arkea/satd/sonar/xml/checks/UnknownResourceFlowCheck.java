@@ -20,7 +20,6 @@ import java.util.Collections;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
@@ -30,6 +29,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 /**
  * A default flow must be defined.
  * Code : FL500
@@ -42,8 +43,7 @@ public class UnknownResourceFlowCheck extends SonarXmlCheck {
 	public void scanFile(XmlFile xmlFile) {
 		
 	    Document document = xmlFile.getDocument();
-	    XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
+	    XPath xpath = QueryProfiler.newXPath();
 	    
 	    try {
 	    	// Select the last Flow node
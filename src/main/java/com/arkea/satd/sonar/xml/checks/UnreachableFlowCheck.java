@@ -15,17 +15,15 @@
  */
 package com.arkea.satd.sonar.xml.checks;
 
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import java.util.List;
 
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+
+import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.model.Flow;
+import com.arkea.satd.sonar.xml.model.ProxyEndpoint;
 
 /**
  * Flow without a condition must be last.
@@ -38,28 +36,19 @@ public class UnreachableFlowCheck extends SonarXmlCheck {
 	@Override
 	public void scanFile(XmlFile xmlFile) {
 		
-	    Document document = xmlFile.getDocument();
-	    XPathFactory xPathfactory = XPathFactory.newInstance();
-	    XPath xpath = xPathfactory.newXPath();
-	    
-	    try {
-	    	// Select the Flow nodes
-	    	NodeList flowNodeList = (NodeList)xpath.evaluate("/ProxyEndpoint/Flows/Flow", document, XPathConstants.NODESET);
-	    	
-    		for(int i=0; i<flowNodeList.getLength(); i++) {
-    			Node flowNode = flowNodeList.item(i);
-
-    			// Search Condition value
-    			String cond = (String)xpath.evaluate("Condition", flowNode, XPathConstants.STRING);
-				if(i < flowNodeList.getLength()-1 &&
-					(cond==null || cond.isEmpty() || "true".equalsIgnoreCase(cond)) ) {
+		ProxyEndpoint proxyEndpoint = BundleRecorder.getBundle().getProxyEndpoint(xmlFile);
+		if(proxyEndpoint != null) {
+			List<Flow> flows = proxyEndpoint.getFlows();
+			
+			for(int i=0; i<flows.size()-1; i++) {
+				Flow flow = flows.get(i);
+				String cond = flow.getCondition();
+				if(cond==null || cond.isEmpty() || "true".equalsIgnoreCase(cond)) {
 
 					// Create a violation if flow node is not the last one
-					reportIssue(flowNode, "Flow without a condition should be last.");
-    			}
-    		}	    
-		} catch (XPathExpressionException e) {
-			// Nothing to do
+					reportIssue(flow.getElement(), "Flow without a condition should be last.");
+				}
+			}
 		}
 	}
 
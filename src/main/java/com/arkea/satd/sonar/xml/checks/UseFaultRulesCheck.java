@@ -21,6 +21,8 @@ import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
 
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
 
 /**
  * Force the use of fault rules.
@@ -36,8 +38,8 @@ public class UseFaultRulesCheck extends SonarXmlCheck {
 	    Document document = xmlFile.getDocument();
 	    if (document.getDocumentElement() != null && "ProxyEndpoint".equals(document.getDocumentElement().getNodeName())) {
 	    	// Search for FaultRule of a ProxyEndpoint document
-	    	NodeList faultRuleNodeList = document.getDocumentElement().getElementsByTagName("FaultRule");
-	    	NodeList defaultFaultRuleNodeList = document.getDocumentElement().getElementsByTagName("DefaultFaultRule");
+	    	NodeList faultRuleNodeList = QueryProfiler.getElementsByTagName(document.getDocumentElement(), "FaultRule");
+	    	NodeList defaultFaultRuleNodeList = QueryProfiler.getElementsByTagName(document.getDocumentElement(), "DefaultFaultRule");
 	    	
 	    	// If there is neither FaultRule or DefaultFaultRule, this is a violation.
 	    	if(faultRuleNodeList.getLength() + defaultFaultRuleNodeList.getLength() == 0) {	    
@@ -21,9 +21,11 @@ import java.util.Set;
 import org.sonar.check.Rule;
 import org.sonarsource.analyzer.commons.xml.XmlFile;
 import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
-import org.w3c.dom.Document;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+
+import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.model.ProxyEndpoint;
+import com.arkea.satd.sonar.xml.model.RouteRule;
 
 
 /**
@@ -37,28 +39,22 @@ public class UseTargetServersCheck extends SonarXmlCheck {
 	@Override
 	public void scanFile(XmlFile xmlFile) {
 		
-	    Document document = xmlFile.getDocument();
-	    if (document.getDocumentElement() != null && "ProxyEndpoint".equals(document.getDocumentElement().getNodeName())) {
-
-	    	// Search for last Flow of an ProxyEndpoint document
-	    	NodeList targetNodeList = document.getDocumentElement().getElementsByTagName("TargetEndpoint");
-	    	NodeList routesNodeList = document.getDocumentElement().getElementsByTagName("RouteRule");
-	    	
-	    	
-	    	boolean hasNoroute = false;
-	    	if(routesNodeList.getLength() > targetNodeList.getLength()) {
-	    		hasNoroute = true;
-	    	}
+		ProxyEndpoint proxyEndpoint = BundleRecorder.getBundle().getProxyEndpoint(xmlFile);
+		if(proxyEndpoint != null) {
 	    	
 	    	Set<String> targetRefSet = new HashSet<>();
-	    	int nbOfRouteRulesWithTarget = targetNodeList.getLength();
+	    	int nbOfRouteRulesWithTarget = 0;
 
-	    	Node nodeWithIssue = document.getDocumentElement(); // By default
-	    	for(int i=0; i<targetNodeList.getLength(); i++) {
-		    	targetRefSet.add(targetNodeList.item(i).getTextContent());
-	    		// Use the <TargetEndpoint> node, it's a better location to indicate the violation
-		    	nodeWithIssue = targetNodeList.item(i);
+	    	Node nodeWithIssue = proxyEndpoint.getElement(); // By default
+	    	for(RouteRule routeRule : proxyEndpoint.getRouteRules()) {
+	    		if(routeRule.getTargetEndpoint() != null) {
+	    			targetRefSet.add(routeRule.getTargetEndpoint());
+	    			nbOfRouteRulesWithTarget++;
+		    		// Use the <TargetEndpoint> node, it's a better location to indicate the violation
+	    			nodeWithIssue = routeRule.getTargetEndpointElement();
+	    		}
 	    	}
+	    	boolean hasNoroute = proxyEndpoint.getRouteRules().size() > nbOfRouteRulesWithTarget;
 
     		// If there are more than ONE TargetEndpoint, this is ok (default behaviour).
 	    	// If there is only NoRoute (without TargetEndpoint), then it's not a violation.
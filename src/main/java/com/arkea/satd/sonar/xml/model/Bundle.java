@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+
+/**
+ * Typed model of the recorded files : endpoints, shared flows, policies and resources, with their flows, steps and route rules,
+ * and the control-flow graphs of the proxy endpoints, of the shared flows and of the target endpoints.
+ * Built once from the parsed files, see {@link com.arkea.satd.sonar.xml.BundleRecorder#getBundle()}, and never modified.
+ */
+public final class Bundle {
+
+	private final List<ProxyEndpoint> proxyEndpoints = new ArrayList<>();
+	private final List<SharedFlow> sharedFlows = new ArrayList<>();
+	private final List<TargetEndpoint> targetEndpoints = new ArrayList<>();
+	private final List<Policy> policies = new ArrayList<>();
+	private final List<Resource> resources = new ArrayList<>();
+
+	private final Map<XmlFile, Object> models = new IdentityHashMap<>();
+	private final Map<String, TargetEndpoint> targetEndpointsByName = new HashMap<>();
+	private final Map<String, Policy> policiesByName = new HashMap<>();
+	private final Map<Object, FlowGraph> flowGraphs = new IdentityHashMap<>();
+	private final Map<Element, FlowGraph.Node> flowNodes = new IdentityHashMap<>();
+
+	/**
+	 * Builds the model of the files, as stored by {@link com.arkea.satd.sonar.xml.BundleRecorder}
+	 */
+	public Bundle(Collection<XmlFile> proxiesEndpoint, Collection<XmlFile> targetsEndpoint, Collection<XmlFile> resourceFiles, Collection<XmlFile> policyFiles) {
+		for(XmlFile xmlFile : proxiesEndpoint) {
+			ProxyEndpoint proxyEndpoint = ProxyEndpoint.of(xmlFile);
+			if(proxyEndpoint != null) {
+				proxyEndpoints.add(proxyEndpoint);
+				models.put(xmlFile, proxyEndpoint);
+			} else {
+				SharedFlow sharedFlow = SharedFlow.of(xmlFile);
+				sharedFlows.add(sharedFlow);
+				models.put(xmlFile, sharedFlow);
+			}
+		}
+		for(XmlFile xmlFile : targetsEndpoint) {
+			TargetEndpoint targetEndpoint = TargetEndpoint.of(xmlFile);
+			targetEndpoints.add(targetEndpoint);
+			targetEndpointsByName.putIfAbsent(targetEndpoint.getName(), targetEndpoint);
+			models.put(xmlFile, targetEndpoint);
+		}
+		for(XmlFile xmlFile : resourceFiles) {
+			Resource resource = new Resource(xmlFile);
+			resources.add(resource);
+			models.put(xmlFile, resource);
+		}
+		for(XmlFile xmlFile : policyFiles) {
+			Policy policy = new Policy(xmlFile);
+			policies.add(policy);
+			policiesByName.putIfAbsent(policy.getName(), policy);
+			models.put(xmlFile, policy);
+		}
+		for(ProxyEndpoint proxyEndpoint : proxyEndpoints) {
+			addFlowGraph(proxyEndpoint, FlowGraph.of(proxyEndpoint, this));
+		}
+		for(SharedFlow sharedFlow : sharedFlows) {
+			addFlowGraph(sharedFlow, FlowGraph.of(sharedFlow));
+		}
+		// The steps of the target endpoints are first mapped to the graphs of the proxy endpoints routing to them
+		for(TargetEndpoint targetEndpoint : targetEndpoints) {
+			addFlowGraph(targetEndpoint, FlowGraph.of(targetEndpoint));
+		}
+	}
+
+	private void addFlowGraph(Object model, FlowGraph flowGraph) {
+		flowGraphs.put(model, flowGraph);
+		for(FlowGraph.Node node : flowGraph.getNodes()) {
+			for(Step step : node.getSteps()) {
+				flowNodes.putIfAbsent(step.getElement(), node);
+			}
+		}
+	}
+
+	public List<ProxyEndpoint> getProxyEndpoints() {
+		return Collections.unmodifiableList(proxyEndpoints);
+	}
+
+	public List<SharedFlow> getSharedFlows() {
+		return Collections.unmodifiableList(sharedFlows);
+	}
+
+	public List<TargetEndpoint> getTargetEndpoints() {
+		return Collections.unmodifiableList(targetEndpoints);
+	}
+
+	public List<Policy> getPolicies() {
+		return Collections.unmodifiableList(policies);
+	}
+
+	public List<Resource> getResources() {
+		return Collections.unmodifiableList(resources);
+	}
+
+	/**
+	 * @return the first target endpoint with the name, null if none
+	 */
+	public TargetEndpoint getTargetEndpoint(String name) {
+		return targetEndpointsByName.get(name);
+	}
+
+	/**
+	 * @return the first policy with the name, null if none
+	 */
+	public Policy getPolicy(String name) {
+		return policiesByName.get(name);
+	}
+
+	/**
+	 * @return the control-flow graph of the proxy endpoint, built once for the recorded ones
+	 */
+	public FlowGraph getFlowGraph(ProxyEndpoint proxyEndpoint) {
+		FlowGraph flowGraph = flowGraphs.get(proxyEndpoint);
+		return flowGraph != null ? flowGraph : FlowGraph.of(proxyEndpoint, this);
+	}
+
+	/**
+	 * @return the control-flow graph of the shared flow, built once for the recorded ones
+	 */
+	public FlowGraph getFlowGraph(SharedFlow sharedFlow) {
+		FlowGraph flowGraph = flowGraphs.get(sharedFlow);
+		return flowGraph != null ? flowGraph : FlowGraph.of(sharedFlow);
+	}
+
+	/**
+	 * @return the control-flow graph of the target endpoint alone, built once for the recorded ones
+	 */
+	public FlowGraph getFlowGraph(TargetEndpoint targetEndpoint) {
+		FlowGraph flowGraph = flowGraphs.get(targetEndpoint);
+		return flowGraph != null ? flowGraph : FlowGraph.of(targetEndpoint);
+	}
+
+	/**
+	 * @return the node of the flow graphs running the step element, the graph of a proxy endpoint first for the steps of a target endpoint,
+	 * null when the step is in no graph
+	 */
+	public FlowGraph.Node getFlowNode(Element step) {
+		return flowNodes.get(step);
+	}
+
+	/**
+	 * @return the model of the proxy endpoint file, built from the file when it is not recorded, null if it is not a proxy endpoint
+	 */
+	public ProxyEndpoint getProxyEndpoint(XmlFile xmlFile) {
+		Object model = models.get(xmlFile);
+		if(model == null) {
+			return ProxyEndpoint.of(xmlFile);
+		}
+		return model instanceof ProxyEndpoint ? (ProxyEndpoint) model : null;
+	}
+
+	/**
+	 * @return the model of the target endpoint file, built from the file when it is not recorded, null if it is not a target endpoint
+	 */
+	public TargetEndpoint getTargetEndpoint(XmlFile xmlFile) {
+		Object model = models.get(xmlFile);
+		if(model == null) {
+			return TargetEndpoint.of(xmlFile);
+		}
+		return model instanceof TargetEndpoint ? (TargetEndpoint) model : null;
+	}
+
+	/**
+	 * @return the model of the shared flow file, built from the file when it is not recorded, null if it is not a shared flow
+	 */
+	public SharedFlow getSharedFlow(XmlFile xmlFile) {
+		Object model = models.get(xmlFile);
+		if(model == null) {
+			return SharedFlow.of(xmlFile);
+		}
+		return model instanceof SharedFlow ? (SharedFlow) model : null;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Navigation in the DOM elements the model is built from
+ */
+final class Elements {
+
+	private Elements() {
+		// Private constructor
+	}
+
+	/**
+	 * @return the child elements of the parent with the name, in document order
+	 */
+	static List<Element> children(Element parent, String name) {
+		List<Element> children = null;
+		for(Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if(child.getNodeType() == Node.ELEMENT_NODE && name.equals(child.getNodeName())) {
+				if(children == null) {
+					children = new ArrayList<>();
+				}
+				children.add((Element) child);
+			}
+		}
+		return children == null ? Collections.emptyList() : children;
+	}
+
+	/**
+	 * @return the first child element of the parent with the name, null if none
+	 */
+	static Element child(Element parent, String name) {
+		for(Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if(child.getNodeType() == Node.ELEMENT_NODE && name.equals(child.getNodeName())) {
+				return (Element) child;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the text content of the first child element of the parent with the name, null if none
+	 */
+	static String childText(Element parent, String name) {
+		Element child = child(parent, name);
+		return child == null ? null : child.getTextContent();
+	}
+
+	/**
+	 * @return the grandchildren of the parent with the name, under its children with the other name
+	 */
+	static List<Element> grandchildren(Element parent, String childName, String name) {
+		List<Element> grandchildren = new ArrayList<>();
+		for(Element child : children(parent, childName)) {
+			grandchildren.addAll(children(child, name));
+		}
+		return grandchildren.isEmpty() ? Collections.emptyList() : grandchildren;
+	}
+}
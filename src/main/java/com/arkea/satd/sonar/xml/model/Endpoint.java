@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.List;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+
+/**
+ * Flows shared by the proxy endpoints and the target endpoints
+ */
+public abstract class Endpoint {
+
+	private final XmlFile xmlFile;
+	private final Element element;
+	private final String name;
+	private final Flow preFlow;
+	private final List<Flow> flows;
+	private final Flow postFlow;
+	private final List<Flow> faultRules;
+	private final Flow defaultFaultRule;
+
+	Endpoint(XmlFile xmlFile) {
+		this.xmlFile = xmlFile;
+		this.element = xmlFile.getDocument().getDocumentElement();
+		this.name = element.getAttribute("name");
+		this.preFlow = Flow.of(Flow.Type.PRE_FLOW, element, "PreFlow");
+		this.flows = Flow.of(Flow.Type.FLOW, element, "Flows", "Flow");
+		this.postFlow = Flow.of(Flow.Type.POST_FLOW, element, "PostFlow");
+		this.faultRules = Flow.of(Flow.Type.FAULT_RULE, element, "FaultRules", "FaultRule");
+		this.defaultFaultRule = Flow.of(Flow.Type.DEFAULT_FAULT_RULE, element, "DefaultFaultRule");
+	}
+
+	public XmlFile getXmlFile() {
+		return xmlFile;
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the PreFlow, null if none
+	 */
+	public Flow getPreFlow() {
+		return preFlow;
+	}
+
+	/**
+	 * @return the conditional flows, in their order of evaluation
+	 */
+	public List<Flow> getFlows() {
+		return flows;
+	}
+
+	/**
+	 * @return the PostFlow, null if none
+	 */
+	public Flow getPostFlow() {
+		return postFlow;
+	}
+
+	public List<Flow> getFaultRules() {
+		return faultRules;
+	}
+
+	/**
+	 * @return the DefaultFaultRule, null if none
+	 */
+	public Flow getDefaultFaultRule() {
+		return defaultFaultRule;
+	}
+}
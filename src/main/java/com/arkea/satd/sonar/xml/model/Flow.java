@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.w3c.dom.Element;
+
+/**
+ * Flow of an endpoint, including the fault rules : its condition and its steps
+ */
+public final class Flow {
+
+	public enum Type {
+		PRE_FLOW,
+		FLOW,
+		POST_FLOW,
+		POST_CLIENT_FLOW,
+		FAULT_RULE,
+		DEFAULT_FAULT_RULE
+	}
+
+	private final Type type;
+	private final Element element;
+	private final String name;
+	private final String condition;
+	private final List<Step> requestSteps;
+	private final List<Step> responseSteps;
+	private final List<Step> steps;
+
+	private Flow(Type type, Element element) {
+		this.type = type;
+		this.element = element;
+		this.name = element.getAttribute("name");
+		this.condition = Elements.childText(element, "Condition");
+		this.requestSteps = Step.of(Elements.child(element, "Request"));
+		this.responseSteps = Step.of(Elements.child(element, "Response"));
+		this.steps = Step.of(element);
+	}
+
+	/**
+	 * @return the flow of the type which is a child of the endpoint, null if none
+	 */
+	static Flow of(Type type, Element endpoint, String name) {
+		Element element = Elements.child(endpoint, name);
+		return element == null ? null : new Flow(type, element);
+	}
+
+	/**
+	 * @return the flows of the type under the container children of the endpoint, such as the Flow of Flows
+	 */
+	static List<Flow> of(Type type, Element endpoint, String containerName, String name) {
+		List<Flow> flows = new ArrayList<>();
+		for(Element element : Elements.grandchildren(endpoint, containerName, name)) {
+			flows.add(new Flow(type, element));
+		}
+		return Collections.unmodifiableList(flows);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	/**
+	 * @return the name attribute, empty if none
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the text of the condition, null if the flow has no Condition
+	 */
+	public String getCondition() {
+		return condition;
+	}
+
+	public List<Step> getRequestSteps() {
+		return requestSteps;
+	}
+
+	public List<Step> getResponseSteps() {
+		return responseSteps;
+	}
+
+	/**
+	 * @return the steps which are direct children of the flow, as in the fault rules
+	 */
+	public List<Step> getSteps() {
+		return steps;
+	}
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+
+/**
+ * Control-flow graph of the request path of a proxy endpoint, of a shared flow, or of a target endpoint alone.
+ * <p>
+ * The nodes run steps in sequence : the request or response segment of a flow, a fault rule, a shared flow.
+ * The route rules and the fault handling are nodes too, without steps.
+ * The outgoing edges of a node are evaluated in order, and the first one whose condition is true is taken,
+ * a null condition being always true : the PreFlow leads to the conditional flows then to the PostFlow,
+ * the PostFlow of the request to the route rules then to the response.
+ * The route rules lead to the flows of their target endpoint, then to the response of the proxy endpoint, and to the PostClientFlow.
+ * Each node running steps has a fault edge to the fault handling of its endpoint : the fault rules, in their order of evaluation,
+ * then the DefaultFaultRule, which lead to the PostClientFlow of the proxy endpoint.
+ * <p>
+ * The response segment of a conditional flow is entered on the condition of the flow, as the request segment :
+ * the graph does not tell that both segments belong to the same execution.
+ */
+public final class FlowGraph {
+
+	public enum Kind {
+		ENTRY,
+		FLOW,
+		SHARED_FLOW,
+		ROUTE_RULE,
+		FAULT,
+		EXIT
+	}
+
+	public enum Phase {
+		REQUEST,
+		RESPONSE
+	}
+
+	/**
+	 * Node of the graph, with the steps it runs in sequence
+	 */
+	public static final class Node {
+		private final int id;
+		private final Kind kind;
+		private final XmlFile xmlFile;
+		private final Flow.Type flowType;
+		private final Flow flow;
+		private final Phase phase;
+		private final RouteRule routeRule;
+		private final List<Step> steps;
+		private final List<Edge> outgoing = new ArrayList<>();
+		private final List<Edge> incoming = new ArrayList<>();
+
+		private Node(int id, Kind kind, XmlFile xmlFile, Flow.Type flowType, Flow flow, Phase phase, RouteRule routeRule, List<Step> steps) {
+			this.id = id;
+			this.kind = kind;
+			this.xmlFile = xmlFile;
+			this.flowType = flowType;
+			this.flow = flow;
+			this.phase = phase;
+			this.routeRule = routeRule;
+			this.steps = steps;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the file of the endpoint or of the shared flow of the node, null for the entry and the exit
+		 */
+		public XmlFile getXmlFile() {
+			return xmlFile;
+		}
+
+		/**
+		 * @return the type of the flow of a FLOW node, even when the endpoint has no such flow
+		 */
+		public Flow.Type getFlowType() {
+			return flowType;
+		}
+
+		/**
+		 * @return the flow of a FLOW node, null when the endpoint has no such flow
+		 */
+		public Flow getFlow() {
+			return flow;
+		}
+
+		/**
+		 * @return the segment of the flow, null for the fault rules and the nodes which are not flows
+		 */
+		public Phase getPhase() {
+			return phase;
+		}
+
+		/**
+		 * @return the route rule of a ROUTE_RULE node
+		 */
+		public RouteRule getRouteRule() {
+			return routeRule;
+		}
+
+		public List<Step> getSteps() {
+			return steps;
+		}
+
+		/**
+		 * @return the edges leaving the node, in their order of evaluation
+		 */
+		public List<Edge> getOutgoing() {
+			return Collections.unmodifiableList(outgoing);
+		}
+
+		public List<Edge> getIncoming() {
+			return Collections.unmodifiableList(incoming);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(kind.name());
+			if(flowType != null) {
+				sb.append(' ').append(flowType.name());
+			}
+			if(flow != null && !flow.getName().isEmpty()) {
+				sb.append(' ').append(flow.getName());
+			}
+			if(phase != null) {
+				sb.append(' ').append(phase.name());
+			}
+			if(routeRule != null) {
+				sb.append(' ').append(routeRule.getName());
+			}
+			if(xmlFile != null) {
+				sb.append(" of ").append(xmlFile.getInputFile().filename());
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Edge of the graph, taken when its condition is true
+	 */
+	public static final class Edge {
+		private final Node source;
+		private final Node target;
+		private final String condition;
+		private final boolean fault;
+
+		private Edge(Node source, Node target, String condition, boolean fault) {
+			this.source = source;
+			this.target = target;
+			this.condition = condition;
+			this.fault = fault;
+		}
+
+		public Node getSource() {
+			return source;
+		}
+
+		public Node getTarget() {
+			return target;
+		}
+
+		/**
+		 * @return the text of the condition, null when the edge is always taken
+		 */
+		public String getCondition() {
+			return condition;
+		}
+
+		/**
+		 * @return whether the edge is taken when a step of the source raises a fault
+		 */
+		public boolean isFault() {
+			return fault;
+		}
+	}
+
+	private final List<Node> nodes = new ArrayList<>();
+	private final Map<Element, Node> nodesByStep = new IdentityHashMap<>();
+	private final Node entry;
+	private final Node exit;
+
+	private FlowGraph() {
+		entry = add(Kind.ENTRY, null, null, null, null, null, Collections.emptyList());
+		exit = add(Kind.EXIT, null, null, null, null, null, Collections.emptyList());
+	}
+
+	/**
+	 * Builds the graph of the proxy endpoint, with the flows of the target endpoints of the bundle its route rules lead to
+	 */
+	static FlowGraph of(ProxyEndpoint proxyEndpoint, Bundle bundle) {
+		FlowGraph graph = new FlowGraph();
+		XmlFile xmlFile = proxyEndpoint.getXmlFile();
+
+		Flow postClientFlow = proxyEndpoint.getPostClientFlow();
+		Node postClient = graph.add(Kind.FLOW, xmlFile, Flow.Type.POST_CLIENT_FLOW, postClientFlow, Phase.RESPONSE, null, postClientFlow == null ? Collections.<Step>emptyList() : postClientFlow.getResponseSteps());
+		graph.link(postClient, graph.exit, null);
+
+		// The fault rules of a proxy endpoint are evaluated from the last one to the first one
+		List<Flow> faultRules = new ArrayList<>(proxyEndpoint.getFaultRules());
+		Collections.reverse(faultRules);
+		Node fault = graph.faultHandling(xmlFile, faultRules, proxyEndpoint.getDefaultFaultRule(), postClient);
+
+		Node[] request = graph.segment(proxyEndpoint, Phase.REQUEST, fault);
+		Node[] response = graph.segment(proxyEndpoint, Phase.RESPONSE, fault);
+		graph.link(graph.entry, request[0], null);
+		graph.link(response[1], postClient, null);
+
+		Map<TargetEndpoint, Node> targets = new IdentityHashMap<>();
+		for(RouteRule routeRule : proxyEndpoint.getRouteRules()) {
+			Node route = graph.add(Kind.ROUTE_RULE, xmlFile, null, null, null, routeRule, Collections.emptyList());
+			graph.link(request[1], route, routeRule.getCondition());
+			TargetEndpoint targetEndpoint = routeRule.getTargetEndpoint() == null ? null : bundle.getTargetEndpoint(routeRule.getTargetEndpoint());
+			if(targetEndpoint == null) {
+				// NoRoute, URL or unknown target endpoint
+				graph.link(route, response[0], null);
+			} else {
+				Node target = targets.get(targetEndpoint);
+				if(target == null) {
+					target = graph.target(targetEndpoint, response[0], postClient);
+					targets.put(targetEndpoint, target);
+				}
+				graph.link(route, target, null);
+			}
+		}
+		// No route rule matched
+		graph.link(request[1], response[0], null);
+		return graph;
+	}
+
+	/**
+	 * Builds the graph of the target endpoint alone, for the target endpoints whose proxy endpoints are not in the bundle
+	 */
+	static FlowGraph of(TargetEndpoint targetEndpoint) {
+		FlowGraph graph = new FlowGraph();
+		graph.link(graph.entry, graph.target(targetEndpoint, graph.exit, graph.exit), null);
+		return graph;
+	}
+
+	/**
+	 * Builds the graph of the steps of the shared flow, which leave the shared flow on a fault
+	 */
+	static FlowGraph of(SharedFlow sharedFlow) {
+		FlowGraph graph = new FlowGraph();
+		Node node = graph.add(Kind.SHARED_FLOW, sharedFlow.getXmlFile(), null, null, null, null, sharedFlow.getSteps());
+		graph.link(graph.entry, node, null);
+		graph.link(node, graph.exit, null);
+		graph.fault(node, graph.exit);
+		return graph;
+	}
+
+	/**
+	 * Adds the request and the response of the target endpoint, and returns the first node of its request
+	 */
+	private Node target(TargetEndpoint targetEndpoint, Node proxyResponse, Node postClient) {
+		Node fault = faultHandling(targetEndpoint.getXmlFile(), targetEndpoint.getFaultRules(), targetEndpoint.getDefaultFaultRule(), postClient);
+		Node[] request = segment(targetEndpoint, Phase.REQUEST, fault);
+		Node[] response = segment(targetEndpoint, Phase.RESPONSE, fault);
+		// The backend is called between the request and the response
+		link(request[1], response[0], null);
+		link(response[1], proxyResponse, null);
+		return request[0];
+	}
+
+	/**
+	 * Adds the PreFlow, the conditional flows and the PostFlow of the endpoint for the phase, and returns the PreFlow and PostFlow nodes
+	 */
+	private Node[] segment(Endpoint endpoint, Phase phase, Node fault) {
+		Node pre = flow(endpoint.getXmlFile(), Flow.Type.PRE_FLOW, endpoint.getPreFlow(), phase);
+		Node post = flow(endpoint.getXmlFile(), Flow.Type.POST_FLOW, endpoint.getPostFlow(), phase);
+		fault(post, fault);
+		for(Flow flow : endpoint.getFlows()) {
+			Node node = flow(endpoint.getXmlFile(), Flow.Type.FLOW, flow, phase);
+			link(pre, node, flow.getCondition());
+			link(node, post, null);
+			fault(node, fault);
+		}
+		// No conditional flow matched
+		link(pre, post, null);
+		fault(pre, fault);
+		return new Node[] {pre, post};
+	}
+
+	private Node flow(XmlFile xmlFile, Flow.Type type, Flow flow, Phase phase) {
+		List<Step> steps = Collections.emptyList();
+		if(flow != null) {
+			steps = phase == Phase.REQUEST ? flow.getRequestSteps() : flow.getResponseSteps();
+		}
+		return add(Kind.FLOW, xmlFile, type, flow, phase, null, steps);
+	}
+
+	/**
+	 * Adds the fault handling of an endpoint, and returns its entry node
+	 */
+	private Node faultHandling(XmlFile xmlFile, List<Flow> faultRules, Flow defaultFaultRule, Node next) {
+		Node fault = add(Kind.FAULT, xmlFile, null, null, null, null, Collections.emptyList());
+		for(Flow faultRule : faultRules) {
+			Node node = add(Kind.FLOW, xmlFile, Flow.Type.FAULT_RULE, faultRule, null, null, faultRule.getSteps());
+			link(fault, node, faultRule.getCondition());
+			link(node, next, null);
+		}
+		Node node = add(Kind.FLOW, xmlFile, Flow.Type.DEFAULT_FAULT_RULE, defaultFaultRule, null, null, defaultFaultRule == null ? Collections.<Step>emptyList() : defaultFaultRule.getSteps());
+		link(fault, node, null);
+		link(node, next, null);
+		return fault;
+	}
+
+	private Node add(Kind kind, XmlFile xmlFile, Flow.Type flowType, Flow flow, Phase phase, RouteRule routeRule, List<Step> steps) {
+		Node node = new Node(nodes.size(), kind, xmlFile, flowType, flow, phase, routeRule, steps);
+		nodes.add(node);
+		for(Step step : steps) {
+			nodesByStep.putIfAbsent(step.getElement(), node);
+		}
+		return node;
+	}
+
+	private void link(Node source, Node target, String condition) {
+		Edge edge = new Edge(source, target, condition, false);
+		source.outgoing.add(edge);
+		target.incoming.add(edge);
+	}
+
+	/**
+	 * Adds the fault edge of a node running steps, evaluated after its other edges
+	 */
+	private void fault(Node source, Node fault) {
+		if(!source.steps.isEmpty()) {
+			Edge edge = new Edge(source, fault, null, true);
+			source.outgoing.add(edge);
+			fault.incoming.add(edge);
+		}
+	}
+
+	public Node getEntry() {
+		return entry;
+	}
+
+	public Node getExit() {
+		return exit;
+	}
+
+	public List<Node> getNodes() {
+		return Collections.unmodifiableList(nodes);
+	}
+
+	/**
+	 * @return the node running the step element, null if the step is not in the graph
+	 */
+	public Node getNode(Element step) {
+		return nodesByStep.get(step);
+	}
+
+	/**
+	 * @return whether a path leads from a node to the other one, a node reaching itself
+	 */
+	public boolean isReachable(Node from, Node to) {
+		BitSet visited = new BitSet(nodes.size());
+		Deque<Node> pending = new ArrayDeque<>();
+		pending.push(from);
+		visited.set(from.id);
+		while(!pending.isEmpty()) {
+			Node node = pending.pop();
+			if(node == to) {
+				return true;
+			}
+			for(Edge edge : node.outgoing) {
+				if(!visited.get(edge.target.id)) {
+					visited.set(edge.target.id);
+					pending.push(edge.target);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether the second step can run after the first one in a same execution of the graph
+	 */
+	public boolean canRunAfter(Element first, Element second) {
+		Node firstNode = nodesByStep.get(first);
+		Node secondNode = nodesByStep.get(second);
+		if(firstNode == null || secondNode == null) {
+			return false;
+		}
+		if(firstNode == secondNode) {
+			return indexOf(firstNode, first) < indexOf(secondNode, second);
+		}
+		return isReachable(firstNode, secondNode);
+	}
+
+	private static int indexOf(Node node, Element step) {
+		for(int i=0; i<node.steps.size(); i++) {
+			if(node.steps.get(i).getElement() == step) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
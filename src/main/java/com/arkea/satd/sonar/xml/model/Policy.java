@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Policy : its type, its name and the resource it uses
+ */
+public final class Policy {
+
+	private final XmlFile xmlFile;
+	private final Element element;
+	private final String type;
+	private final String name;
+	private final boolean enabled;
+	private final String resourceURL;
+
+	Policy(XmlFile xmlFile) {
+		this.xmlFile = xmlFile;
+		this.element = xmlFile.getDocument().getDocumentElement();
+		this.type = element.getNodeName();
+		this.name = element.getAttribute("name");
+		this.enabled = !"false".equals(element.getAttribute("enabled"));
+		// Same as the string value of //ResourceURL : the first one in document order
+		NodeList resourceNodes = element.getElementsByTagName("ResourceURL");
+		this.resourceURL = resourceNodes.getLength() > 0 ? resourceNodes.item(0).getTextContent() : null;
+	}
+
+	public XmlFile getXmlFile() {
+		return xmlFile;
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	/**
+	 * @return the name of the root element, such as Quota or AssignMessage
+	 */
+	public String getType() {
+		return type;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the URL of the used resource, such as xsl://transform.xsl, null if none
+	 */
+	public String getResourceURL() {
+		return resourceURL;
+	}
+}
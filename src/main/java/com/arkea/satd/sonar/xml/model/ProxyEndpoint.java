@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.List;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+
+/**
+ * Proxy endpoint : its flows and its route rules
+ */
+public final class ProxyEndpoint extends Endpoint {
+
+	private final Flow postClientFlow;
+	private final List<RouteRule> routeRules;
+
+	private ProxyEndpoint(XmlFile xmlFile) {
+		super(xmlFile);
+		this.postClientFlow = Flow.of(Flow.Type.POST_CLIENT_FLOW, getElement(), "PostClientFlow");
+		this.routeRules = RouteRule.of(getElement());
+	}
+
+	/**
+	 * @return the model of the file, null if it is not a proxy endpoint
+	 */
+	public static ProxyEndpoint of(XmlFile xmlFile) {
+		Element root = xmlFile.getDocument().getDocumentElement();
+		return root != null && "ProxyEndpoint".equals(root.getNodeName()) ? new ProxyEndpoint(xmlFile) : null;
+	}
+
+	/**
+	 * @return the PostClientFlow, null if none
+	 */
+	public Flow getPostClientFlow() {
+		return postClientFlow;
+	}
+
+	/**
+	 * @return the route rules, in their order of evaluation
+	 */
+	public List<RouteRule> getRouteRules() {
+		return routeRules;
+	}
+}
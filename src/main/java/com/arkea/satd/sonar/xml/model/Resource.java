@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+
+/**
+ * Xml resource of a bundle : an XSL transformation, a WSDL or an XML schema
+ */
+public final class Resource {
+
+	private final XmlFile xmlFile;
+	private final String type;
+	private final String url;
+
+	Resource(XmlFile xmlFile) {
+		this.xmlFile = xmlFile;
+		String rootNodeName = xmlFile.getDocument().getDocumentElement().getNodeName();
+		this.type = "xs:schema".equals(rootNodeName) ? "xsd" : rootNodeName.substring(0, rootNodeName.indexOf(':'));
+		this.url = type + "://" + xmlFile.getInputFile().filename();
+	}
+
+	public XmlFile getXmlFile() {
+		return xmlFile;
+	}
+
+	/**
+	 * @return xsl, wsdl or xsd
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return the URL of the resource in the policies, such as xsl://transform.xsl
+	 */
+	public String getUrl() {
+		return url;
+	}
+}
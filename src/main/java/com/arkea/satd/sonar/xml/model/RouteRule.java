@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.w3c.dom.Element;
+
+/**
+ * Route rule of a proxy endpoint : its condition, and the target endpoint or the URL it routes to
+ */
+public final class RouteRule {
+
+	private final Element element;
+	private final String name;
+	private final String condition;
+	private final Element targetEndpointElement;
+	private final String targetEndpoint;
+	private final String url;
+
+	private RouteRule(Element element) {
+		this.element = element;
+		this.name = element.getAttribute("name");
+		this.condition = Elements.childText(element, "Condition");
+		this.targetEndpointElement = Elements.child(element, "TargetEndpoint");
+		this.targetEndpoint = targetEndpointElement == null ? null : targetEndpointElement.getTextContent();
+		this.url = Elements.childText(element, "URL");
+	}
+
+	static List<RouteRule> of(Element endpoint) {
+		List<RouteRule> routeRules = new ArrayList<>();
+		for(Element element : Elements.children(endpoint, "RouteRule")) {
+			routeRules.add(new RouteRule(element));
+		}
+		return Collections.unmodifiableList(routeRules);
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the text of the condition, null if the route rule has no Condition
+	 */
+	public String getCondition() {
+		return condition;
+	}
+
+	/**
+	 * @return the name of the target endpoint, null if none, as for a NoRoute rule
+	 */
+	public String getTargetEndpoint() {
+		return targetEndpoint;
+	}
+
+	/**
+	 * @return the TargetEndpoint element, null if none
+	 */
+	public Element getTargetEndpointElement() {
+		return targetEndpointElement;
+	}
+
+	/**
+	 * @return the URL routed to without a target endpoint, null if none
+	 */
+	public String getUrl() {
+		return url;
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.List;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+
+/**
+ * Shared flow : the steps it runs in sequence
+ */
+public final class SharedFlow {
+
+	private final XmlFile xmlFile;
+	private final Element element;
+	private final String name;
+	private final List<Step> steps;
+
+	private SharedFlow(XmlFile xmlFile) {
+		this.xmlFile = xmlFile;
+		this.element = xmlFile.getDocument().getDocumentElement();
+		this.name = element.getAttribute("name");
+		this.steps = Step.of(element);
+	}
+
+	/**
+	 * @return the model of the file, null if it is not a shared flow
+	 */
+	public static SharedFlow of(XmlFile xmlFile) {
+		Element root = xmlFile.getDocument().getDocumentElement();
+		return root != null && "SharedFlow".equals(root.getNodeName()) ? new SharedFlow(xmlFile) : null;
+	}
+
+	public XmlFile getXmlFile() {
+		return xmlFile;
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<Step> getSteps() {
+		return steps;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.w3c.dom.Element;
+
+/**
+ * Step of a flow : the name of the policy it executes, and its condition
+ */
+public final class Step {
+
+	private final Element element;
+	private final String name;
+	private final String condition;
+
+	private Step(Element element) {
+		this.element = element;
+		this.name = Elements.childText(element, "Name");
+		this.condition = Elements.childText(element, "Condition");
+	}
+
+	/**
+	 * @return the steps which are children of the parent, none when the parent is null
+	 */
+	static List<Step> of(Element parent) {
+		if(parent == null) {
+			return Collections.emptyList();
+		}
+		List<Step> steps = new ArrayList<>();
+		for(Element step : Elements.children(parent, "Step")) {
+			steps.add(new Step(step));
+		}
+		return Collections.unmodifiableList(steps);
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	/**
+	 * @return the name of the executed policy, null if the step has no Name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the text of the condition, null if the step has no Condition
+	 */
+	public String getCondition() {
+		return condition;
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml.model;
+
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+
+/**
+ * Target endpoint : its flows and the backend it connects to
+ */
+public final class TargetEndpoint extends Endpoint {
+
+	private final String url;
+	private final boolean loadBalanced;
+
+	private TargetEndpoint(XmlFile xmlFile) {
+		super(xmlFile);
+		Element connection = Elements.child(getElement(), "HTTPTargetConnection");
+		this.url = connection == null ? null : Elements.childText(connection, "URL");
+		this.loadBalanced = connection != null && Elements.child(connection, "LoadBalancer") != null;
+	}
+
+	/**
+	 * @return the model of the file, null if it is not a target endpoint
+	 */
+	public static TargetEndpoint of(XmlFile xmlFile) {
+		Element root = xmlFile.getDocument().getDocumentElement();
+		return root != null && "TargetEndpoint".equals(root.getNodeName()) ? new TargetEndpoint(xmlFile) : null;
+	}
+
+	/**
+	 * @return the URL of the HTTP target connection, null if none
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * @return whether the HTTP target connection goes through the target servers of a LoadBalancer
+	 */
+	public boolean isLoadBalanced() {
+		return loadBalanced;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.xml;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the analysis : file parsing, bundle indexing, check invocations and saved issues.
+ * This is the JDK 11 implementation, packaged in META-INF/versions/11 of the plugin jar.
+ */
+public final class AnalysisEvents {
+
+	private AnalysisEvents() {
+		// Private constructor
+	}
+
+	/**
+	 * Starts the parsing of a file
+	 */
+	public static AnalysisSpan parse(String file) {
+		ParseEvent event = new ParseEvent();
+		if(!event.isEnabled()) {
+			return AnalysisSpan.NONE;
+		}
+		event.file = file;
+		return start(event);
+	}
+
+	/**
+	 * Starts the indexing of a file in the BundleRecorder
+	 */
+	public static AnalysisSpan index(String file) {
+		IndexEvent event = new IndexEvent();
+		if(!event.isEnabled()) {
+			return AnalysisSpan.NONE;
+		}
+		event.file = file;
+		return start(event);
+	}
+
+	/**
+	 * Starts the invocation of a check on a file
+	 */
+	public static AnalysisSpan check(String file, String rule) {
+		CheckEvent event = new CheckEvent();
+		if(!event.isEnabled()) {
+			return AnalysisSpan.NONE;
+		}
+		event.file = file;
+		event.rule = rule;
+		return start(event);
+	}
+
+	/**
+	 * An issue has been saved by the rule while scanning the file
+	 */
+	public static void issue(String file, String rule) {
+		IssueEvent event = new IssueEvent();
+		if(event.isEnabled()) {
+			event.file = file;
+			event.rule = rule;
+			event.commit();
+		}
+	}
+
+	private static AnalysisSpan start(Event event) {
+		event.begin();
+		return event::commit;
+	}
+
+	@Name("com.arkea.satd.sonar.apigee.Parse")
+	@Label("Parse")
+	@Category({"Apigee", "Analysis"})
+	@StackTrace(false)
+	static class ParseEvent extends Event {
+		@Label("File")
+		String file;
+	}
+
+	@Name("com.arkea.satd.sonar.apigee.Index")
+	@Label("Index")
+	@Category({"Apigee", "Analysis"})
+	@StackTrace(false)
+	static class IndexEvent extends Event {
+		@Label("File")
+		String file;
+	}
+
+	@Name("com.arkea.satd.sonar.apigee.Check")
+	@Label("Check")
+	@Category({"Apigee", "Analysis"})
+	@StackTrace(false)
+	static class CheckEvent extends Event {
+		@Label("File")
+		String file;
+
+		@Label("Rule")
+		String rule;
+	}
+
+	@Name("com.arkea.satd.sonar.apigee.Issue")
+	@Label("Issue")
+	@Category({"Apigee", "Analysis"})
+	static class IssueEvent extends Event {
+		@Label("File")
+		String file;
+
+		@Label("Rule")
+		String rule;
+	}
+}
@@ -29,20 +29,22 @@ import org.sonar.api.SonarEdition;
 import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.utils.Version;
 
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+
 public class ApigeePluginTest {
 
   @SuppressWarnings("unchecked")
   @Test
   public void count_extensions_for_sonarqube_server_6_0() throws Exception {
     Plugin.Context context = setupContext(SonarRuntimeImpl.forSonarQube(Version.create(6, 0), SonarQubeSide.SERVER, SonarEdition.COMMUNITY));
-    assertThat(context.getExtensions()).as("Number of extensions for SQ 6.0").hasSize(3);
+    assertThat(context.getExtensions()).as("Number of extensions for SQ 6.0").hasSize(4 + ApigeeProperties.getProperties().size());
   }
 
   @SuppressWarnings("unchecked")
   @Test
   public void count_extensions_for_sonarqube_server_6_2() throws Exception {
     Plugin.Context context = setupContext(SonarRuntimeImpl.forSonarQube(Version.create(6, 2), SonarQubeSide.SERVER, SonarEdition.COMMUNITY));
-    assertThat(context.getExtensions()).as("Number of extensions for SQ 6.2").hasSize(3);
+    assertThat(context.getExtensions()).as("Number of extensions for SQ 6.2").hasSize(4 + ApigeeProperties.getProperties().size());
   }
   
   
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.config.internal.MapSettings;
+
+import com.arkea.satd.sonar.xml.ApigeeProjectSensor;
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+
+/**
+ * Analysis of a bundle whose targets are in another module
+ */
+public class ApigeeProjectSensorTest {
+
+	private static final Path MY_AWFUL_PROXY = Paths.get("src/test/resources/MyAwfulProxy");
+	private static final Path TARGETS = MY_AWFUL_PROXY.resolve("apiproxy/targets");
+	private static final String ROUTE_RULES_TO_TARGET = "RouteRulesToTargetCheck ";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testTargetsInAnotherModule() throws IOException {
+		List<String> expected = issues(new SensorTester(MY_AWFUL_PROXY, temporaryFolder.newFolder().toPath()).analyze());
+
+		Path projectDir = temporaryFolder.newFolder().toPath();
+		Path proxyModule = copy(MY_AWFUL_PROXY, projectDir.resolve("proxy"), path -> !path.startsWith(TARGETS));
+		Path targetsModule = copy(MY_AWFUL_PROXY, projectDir.resolve("targets"), path -> path.startsWith(TARGETS));
+		MapSettings projectLevel = new MapSettings().setProperty(ApigeeProperties.PROJECT_LEVEL_KEY, true);
+
+		// The targets are unknown to the analysis of the proxy module
+		assertThat(issues(analyzeModule(proxyModule, new MapSettings())).stream().filter(issue -> issue.startsWith(ROUTE_RULES_TO_TARGET)).count())
+			.isGreaterThan(expected.stream().filter(issue -> issue.startsWith(ROUTE_RULES_TO_TARGET)).count());
+
+		// The module sensor gives way to the project sensor
+		assertThat(analyzeModule(proxyModule, projectLevel).allIssues()).isEmpty();
+
+		SensorContextTester context = SensorContextTester.create(projectDir);
+		context.setSettings(projectLevel);
+		new ApigeeProjectSensor(fileSystem(projectDir, proxyModule, targetsModule), SensorTester.newCheckFactory()).execute(context);
+		ApigeeXmlSensor.setContext(null);
+		assertThat(issues(context)).containsExactlyElementsOf(expected);
+	}
+
+	private SensorContextTester analyzeModule(Path moduleDir, MapSettings settings) throws IOException {
+		SensorContextTester context = SensorContextTester.create(moduleDir);
+		context.setSettings(settings);
+		new ApigeeXmlSensor(fileSystem(moduleDir, moduleDir), SensorTester.newCheckFactory()).execute(context);
+		ApigeeXmlSensor.setContext(null);
+		return context;
+	}
+
+	private DefaultFileSystem fileSystem(Path baseDir, Path... moduleDirs) throws IOException {
+		DefaultFileSystem fs = new DefaultFileSystem(baseDir);
+		fs.setWorkDir(temporaryFolder.newFolder().toPath());
+		for(Path moduleDir : moduleDirs) {
+			try (Stream<Path> stream = Files.walk(moduleDir)) {
+				for(Path path : stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+					fs.add(SensorTester.createInputFile(baseDir, path));
+				}
+			}
+		}
+		return fs;
+	}
+
+	/**
+	 * The issues as sorted strings, with the file paths starting at the apiproxy directory whatever the module
+	 */
+	private static List<String> issues(SensorContextTester context) {
+		return context.allIssues().stream()
+				.map(ApigeeProjectSensorTest::toString)
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	private static String toString(Issue issue) {
+		String key = issue.primaryLocation().inputComponent().key();
+		return issue.ruleKey().rule()
+				+ " " + key.substring(key.indexOf("apiproxy/"))
+				+ " " + issue.primaryLocation().textRange()
+				+ " " + issue.primaryLocation().message();
+	}
+
+	private static Path copy(Path source, Path target, Predicate<Path> filter) throws IOException {
+		try (Stream<Path> stream = Files.walk(source)) {
+			for(Path path : stream.filter(Files::isRegularFile).filter(filter).collect(Collectors.toList())) {
+				Path copy = target.resolve(source.relativize(path).toString());
+				Files.createDirectories(copy.getParent());
+				Files.copy(path, copy);
+			}
+		}
+		return target;
+	}
+}
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Iterator;
@@ -40,11 +41,16 @@ import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
 import org.sonar.api.batch.rule.internal.NewActiveRule;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.plugins.xml.Xml;
 
+import com.arkea.satd.sonar.xml.AnalysisStatistics;
+import com.arkea.satd.sonar.xml.ApigeeProperties;
 import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.BundleRecorder;
 import com.arkea.satd.sonar.xml.CheckRepository;
+import com.arkea.satd.sonar.xml.QueryProfiler;
 
 public class ApigeeXmlSensorTest extends AbstractXmlPluginTester {
 
@@ -100,6 +106,173 @@ public class ApigeeXmlSensorTest extends AbstractXmlPluginTester {
 	}	
 	
 
+	@Test
+	public void testTimingReport() throws Exception {
+
+		init();
+
+		DefaultInputFile inputFile = createInputFile("MyAwfulProxy/apiproxy/MyAwfulProxy.xml");
+		fs.add(inputFile);
+
+		sensor.execute(context);
+
+		File report = new File(fs.workDir(), AnalysisStatistics.REPORT_FILENAME);
+		assertThat(report).exists();
+		String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+		assertThat(json)
+				.contains("\"files\": 1")
+				.contains("{\"name\": \"parse\"")
+				.contains("{\"name\": \"index\"")
+				.contains("{\"rule\": \"apigee-xml:TooMuchProxyEndpointsCheck\"")
+				.containsPattern("\"rule\": \"apigee-xml:TooMuchProxyEndpointsCheck\", \"millis\": \\d+, \"calls\": 1, \"issues\": 1");
+
+		// Important : clean the context !!!!
+		ApigeeXmlSensor.setContext(null);
+	}
+
+	@Test
+	public void testQueryProfiling() throws Exception {
+
+		init();
+		context.setSettings(new MapSettings().setProperty(ApigeeProperties.DEBUG_QUERIES_KEY, true));
+
+		// Scan the awful bundle recursively and add all file in the context
+		String basePath = "src/test/resources/MyAwfulProxy/apiproxy";
+		Collection<File> allFiles = FileUtils.listFiles(new File(basePath), TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE);
+		for(Iterator<File> it = allFiles.iterator(); it.hasNext();) {
+			File f = it.next();
+			fs.add(createInputFile(f.getAbsolutePath()));
+		}
+
+		sensor.execute(context);
+
+		// Same issues as without profiling
+		assertThat(context.allIssues()).hasSize(59);
+
+		String json = new String(Files.readAllBytes(new File(fs.workDir(), AnalysisStatistics.REPORT_FILENAME).toPath()), StandardCharsets.UTF_8);
+		assertThat(json)
+				.containsPattern("\"rule\": \"apigee-xml:UnattachedPolicyCheck\".*\"queries\": \\{\"xpathEvaluations\": [1-9]\\d*, .*\"indexLookups\": [1-9]\\d*\\}")
+				.containsPattern("\"rule\": \"apigee-xml:UseFaultRulesCheck\".*\"domTraversals\": [1-9]");
+
+		// The profile doesn't outlive the analysis
+		assertThat(QueryProfiler.isEnabled()).isFalse();
+
+		// Important : clean the context !!!!
+		ApigeeXmlSensor.setContext(null);
+	}
+
+	/**
+	 * Nothing to analyze : no state of the analysis is left behind
+	 */
+	@Test
+	public void testNoFile() throws Exception {
+
+		init();
+		ApigeeXmlSensor.setContext(null);
+		context.setSettings(new MapSettings().setProperty(ApigeeProperties.DEBUG_QUERIES_KEY, true));
+
+		sensor.execute(context);
+
+		assertThat(context.allIssues()).isEmpty();
+		assertThat(QueryProfiler.isEnabled()).isFalse();
+		assertThat(ApigeeXmlSensor.getContext()).isNull();
+	}
+
+	/**
+	 * Each bundle gets the issues of its own analysis, and no file is kept once the analysis is over
+	 */
+	@Test
+	public void testBundleAtATime() throws Exception {
+
+		init();
+		context.setSettings(new MapSettings().setProperty(ApigeeProperties.BUNDLE_AT_A_TIME_KEY, true));
+
+		for(String basePath : new String[] {"src/test/resources/MyAwfulProxy/apiproxy", "src/test/resources/MyAwfulSharedFlow/sharedflowbundle"}) {
+			for(File f : FileUtils.listFiles(new File(basePath), TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE)) {
+				fs.add(createInputFile(f.getAbsolutePath()));
+			}
+		}
+
+		sensor.execute(context);
+		assertThat(context.allIssues()).hasSize(59 + 19);
+		assertThat(BundleRecorder.searchPoliciesByType("AssignMessage")).isEmpty();
+
+		// Important : clean the context !!!!
+		ApigeeXmlSensor.setContext(null);
+	}
+
+	/**
+	 * A short heap switches the analysis to the bundle at a time analysis, which keeps no file once the analysis is over
+	 */
+	@Test
+	public void testShortHeap() throws Exception {
+
+		init();
+		context.setSettings(new MapSettings().setProperty(ApigeeProperties.MEMORY_THRESHOLD_KEY, 0));
+
+		for(String basePath : new String[] {"src/test/resources/MyAwfulProxy/apiproxy", "src/test/resources/MyAwfulSharedFlow/sharedflowbundle"}) {
+			for(File f : FileUtils.listFiles(new File(basePath), TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE)) {
+				fs.add(createInputFile(f.getAbsolutePath()));
+			}
+		}
+
+		sensor.execute(context);
+		assertThat(context.allIssues()).hasSize(59 + 19);
+		assertThat(BundleRecorder.searchPoliciesByType("AssignMessage")).isEmpty();
+
+		// Important : clean the context !!!!
+		ApigeeXmlSensor.setContext(null);
+	}
+
+	/**
+	 * A cancelled analysis parses no file
+	 */
+	@Test
+	public void testCancelled() throws Exception {
+
+		init();
+		context.setCancelled(true);
+
+		String basePath = "src/test/resources/MyAwfulProxy/apiproxy";
+		for(File f : FileUtils.listFiles(new File(basePath), TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE)) {
+			fs.add(createInputFile(f.getAbsolutePath()));
+		}
+
+		sensor.execute(context);
+		assertThat(context.allIssues()).isEmpty();
+
+		String json = new String(Files.readAllBytes(new File(fs.workDir(), AnalysisStatistics.REPORT_FILENAME).toPath()), StandardCharsets.UTF_8);
+		assertThat(json).doesNotContain("{\"name\": \"parse\"");
+
+		// Important : clean the context !!!!
+		ApigeeXmlSensor.setContext(null);
+	}
+
+	/**
+	 * The xml files outside the bundle directories are not analyzed
+	 */
+	@Test
+	public void testBundleRoots() throws Exception {
+
+		init();
+		context.setSettings(new MapSettings().setProperty(ApigeeProperties.BUNDLE_ROOTS_KEY, "**/apiproxy/**"));
+
+		fs.add(createInputFile("MyAwfulProxy/apiproxy/MyAwfulProxy.xml"));
+		fs.add(createInputFile("MyAwfulSharedFlow/sharedflowbundle/MyAwfulSharedFlow.xml"));
+
+		sensor.execute(context);
+		assertThat(context.allIssues())
+				.extracting(issue -> issue.primaryLocation().inputComponent().key())
+				.isNotEmpty()
+				.allMatch(key -> key.contains("/apiproxy/"));
+
+		String json = new String(Files.readAllBytes(new File(fs.workDir(), AnalysisStatistics.REPORT_FILENAME).toPath()), StandardCharsets.UTF_8);
+		assertThat(json).contains("\"files\": 1");
+
+		// Important : clean the context !!!!
+		ApigeeXmlSensor.setContext(null);
+	}
+
 	@Test
 	public void testSensorOnMyAwfulSharedFlow() throws Exception {
 
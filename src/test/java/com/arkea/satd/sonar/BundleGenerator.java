@@ -0,0 +1,470 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic generator of Apigee repositories, made of apiproxy and sharedflowbundle trees.
+ * The same configuration, seed included, always produces the same files.
+ * 
+ * Each proxy is written in {root}/proxy-{n}/apiproxy, each shared flow in {root}/sharedflow-{n}/sharedflowbundle.
+ * Policy names contain the bundle index, so that the bundles do not interfere with each other in the BundleRecorder.
+ * 
+ */
+public class BundleGenerator {
+
+	/** Default policy types, with a compliant name prefix */
+	private static final Map<String, String> PREFIXES = new LinkedHashMap<>();
+
+	static {
+		PREFIXES.put("AssignMessage", "AM");
+		PREFIXES.put("ExtractVariables", "EV");
+		PREFIXES.put("Quota", "Q");
+		PREFIXES.put("SpikeArrest", "SA");
+		PREFIXES.put("VerifyAPIKey", "VA");
+		PREFIXES.put("LookupCache", "LC");
+		PREFIXES.put("PopulateCache", "PC");
+		PREFIXES.put("StatisticsCollector", "Stats");
+		PREFIXES.put("RaiseFault", "RF");
+		PREFIXES.put("XSL", "XSL");
+	}
+
+	/**
+	 * Kinds of rule violations injected by the generator
+	 */
+	public enum Violation {
+		/** PolicyNameConventionCheck */
+		POLICY_NAME,
+		/** PolicyDisplayNameCheck */
+		DISPLAY_NAME,
+		/** UnattachedPolicyCheck */
+		UNATTACHED_POLICY,
+		/** NondistributedQuotaCheck */
+		NONDISTRIBUTED_QUOTA,
+		/** UnconditionalFlowCheck */
+		UNCONDITIONAL_FLOW,
+		/** EmptyStepCheck */
+		EMPTY_STEP,
+		/** UseTargetServersCheck */
+		TARGET_SERVERS,
+		/** DescriptionCheck */
+		DESCRIPTION
+	}
+
+	/**
+	 * Generator configuration
+	 */
+	public static class Config {
+		private long seed = 42L;
+		private int proxies = 1;
+		private int flows = 5;
+		private final Map<String, Integer> policiesPerType = new LinkedHashMap<>();
+		private int sharedFlows = 0;
+		private int resources = 1;
+		private int conditionComplexity = 1;
+		private double violationRate = 0.0;
+
+		public Config() {
+			PREFIXES.keySet().forEach(type -> policiesPerType.put(type, 1));
+		}
+
+		public Config seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/** Number of API proxies */
+		public Config proxies(int proxies) {
+			this.proxies = proxies;
+			return this;
+		}
+
+		/** Number of conditional flows per ProxyEndpoint */
+		public Config flows(int flows) {
+			this.flows = flows;
+			return this;
+		}
+
+		/** Number of policies of each default type, per bundle */
+		public Config policiesPerType(int count) {
+			policiesPerType.replaceAll((type, c) -> count);
+			return this;
+		}
+
+		/** Number of policies of one type, per bundle. The type is added when it is not a default one. */
+		public Config policiesPerType(String type, int count) {
+			policiesPerType.put(type, count);
+			return this;
+		}
+
+		/** Number of shared flow bundles, each proxy calls one of them with a FlowCallout */
+		public Config sharedFlows(int sharedFlows) {
+			this.sharedFlows = sharedFlows;
+			return this;
+		}
+
+		/** Number of XSL resources per bundle, used by the XSL policies */
+		public Config resources(int resources) {
+			this.resources = resources;
+			return this;
+		}
+
+		/** Number of clauses of the flow and step conditions */
+		public Config conditionComplexity(int conditionComplexity) {
+			this.conditionComplexity = conditionComplexity;
+			return this;
+		}
+
+		/** Probability, between 0 and 1, that a generated element carries a rule violation */
+		public Config violationRate(double violationRate) {
+			this.violationRate = violationRate;
+			return this;
+		}
+
+		/** Configuration multiplied by the factor : proxies and shared flows for a larger repository */
+		public Config scale(int factor) {
+			Config scaled = new Config()
+					.seed(seed)
+					.proxies(proxies * factor)
+					.flows(flows)
+					.sharedFlows(sharedFlows * factor)
+					.resources(resources)
+					.conditionComplexity(conditionComplexity)
+					.violationRate(violationRate);
+			scaled.policiesPerType.clear();
+			scaled.policiesPerType.putAll(policiesPerType);
+			return scaled;
+		}
+	}
+
+	private final Config config;
+	private final Random random;
+	private final Map<Violation, Integer> violations = new LinkedHashMap<>();
+	private final Set<String> collectors = new HashSet<>();
+	private int filesCount;
+
+	public BundleGenerator(Config config) {
+		this.config = config;
+		this.random = new Random(config.seed);
+		for(Violation violation : Violation.values()) {
+			violations.put(violation, 0);
+		}
+	}
+
+	/**
+	 * Number of injected violations, by kind
+	 */
+	public Map<Violation, Integer> getViolations() {
+		return Collections.unmodifiableMap(violations);
+	}
+
+	public int getFilesCount() {
+		return filesCount;
+	}
+
+	/**
+	 * Writes all the bundles under root
+	 * @return root
+	 */
+	public Path generate(Path root) throws IOException {
+		for(int s=0; s<config.sharedFlows; s++) {
+			generateSharedFlow(root.resolve("sharedflow-" + s).resolve("sharedflowbundle"), s);
+		}
+		for(int p=0; p<config.proxies; p++) {
+			generateProxy(root.resolve("proxy-" + p).resolve("apiproxy"), p);
+		}
+		return root;
+	}
+
+	private void generateProxy(Path dir, int index) throws IOException {
+		String name = "proxy-" + index;
+		List<String> attached = new ArrayList<>();
+		List<String> policies = generatePolicies(dir, "p" + index, attached, false);
+
+		if(config.sharedFlows > 0) {
+			String callout = "FC-p" + index;
+			String sharedFlow = "sharedflow-" + (index % config.sharedFlows);
+			write(dir.resolve("policies/" + callout + ".xml"), header()
+					+ "<FlowCallout async=\"false\" continueOnError=\"false\" enabled=\"true\" name=\"" + callout + "\">\n"
+					+ "    <DisplayName>" + callout + "</DisplayName>\n"
+					+ "    <SharedFlowBundle>" + sharedFlow + "</SharedFlowBundle>\n"
+					+ "</FlowCallout>\n");
+			policies.add(callout);
+			attached.add(0, callout);
+		}
+
+		StringBuilder descriptor = new StringBuilder(header())
+				.append("<APIProxy revision=\"1\" name=\"").append(name).append("\">\n")
+				.append("    <Description>").append(description(name)).append("</Description>\n")
+				.append("    <DisplayName>").append(name).append("</DisplayName>\n")
+				.append("    <Policies>\n");
+		policies.forEach(p -> descriptor.append("        <Policy>").append(p).append("</Policy>\n"));
+		descriptor.append("    </Policies>\n")
+				.append("    <ProxyEndpoints>\n        <ProxyEndpoint>default</ProxyEndpoint>\n    </ProxyEndpoints>\n")
+				.append(resourcesList())
+				.append("    <TargetEndpoints>\n        <TargetEndpoint>default</TargetEndpoint>\n    </TargetEndpoints>\n")
+				.append("</APIProxy>\n");
+		write(dir.resolve(name + ".xml"), descriptor.toString());
+
+		// Policies are attached in turn to the PreFlow and to each conditional flow
+		List<List<String>> flowSteps = new ArrayList<>();
+		for(int f=0; f<=config.flows; f++) {
+			flowSteps.add(new ArrayList<>());
+		}
+		for(int i=0; i<attached.size(); i++) {
+			flowSteps.get(i % flowSteps.size()).add(attached.get(i));
+		}
+
+		StringBuilder endpoint = new StringBuilder(header())
+				.append("<ProxyEndpoint name=\"default\">\n")
+				.append("    <Description>Default endpoint of ").append(name).append("</Description>\n")
+				.append("    <FaultRules>\n        <FaultRule name=\"fault\">\n            <Step>\n                <Name>").append(attached.isEmpty() ? "none" : attached.get(attached.size() - 1)).append("</Name>\n            </Step>\n            <Condition>(fault.name = \"QuotaViolation\")</Condition>\n        </FaultRule>\n    </FaultRules>\n")
+				.append("    <PreFlow name=\"PreFlow\">\n        <Request>\n").append(steps(flowSteps.get(0), "            ")).append("        </Request>\n        <Response/>\n    </PreFlow>\n")
+				.append("    <Flows>\n");
+		for(int f=0; f<config.flows; f++) {
+			endpoint.append("        <Flow name=\"flow-").append(f).append("\">\n")
+				.append("            <Description>Resource ").append(f).append("</Description>\n")
+				.append("            <Request>\n").append(steps(flowSteps.get(f + 1), "                ")).append("            </Request>\n")
+				.append("            <Response/>\n");
+			if(violate(Violation.UNCONDITIONAL_FLOW)) {
+				endpoint.append("            <Condition></Condition>\n");
+			} else {
+				endpoint.append("            <Condition>").append(condition("(proxy.pathsuffix MatchesPath \"/resource-" + f + "\")")).append("</Condition>\n");
+			}
+			endpoint.append("        </Flow>\n");
+		}
+		endpoint.append("        <Flow name=\"unknown-resource\">\n            <Request/>\n            <Response/>\n        </Flow>\n")
+				.append("    </Flows>\n")
+				.append("    <PostFlow name=\"PostFlow\">\n        <Request/>\n        <Response/>\n    </PostFlow>\n")
+				.append("    <HTTPProxyConnection>\n        <BasePath>/").append(name).append("</BasePath>\n        <VirtualHost>secure</VirtualHost>\n    </HTTPProxyConnection>\n")
+				.append(violate(Violation.TARGET_SERVERS) ? "" : "    <RouteRule name=\"noroute\">\n        <Condition>(request.verb = \"OPTIONS\")</Condition>\n    </RouteRule>\n")
+				.append("    <RouteRule name=\"default\">\n        <TargetEndpoint>default</TargetEndpoint>\n    </RouteRule>\n")
+				.append("</ProxyEndpoint>\n");
+		write(dir.resolve("proxies/default.xml"), endpoint.toString());
+
+		StringBuilder target = new StringBuilder(header())
+				.append("<TargetEndpoint name=\"default\">\n")
+				.append("    <Description>Default target of ").append(name).append("</Description>\n")
+				.append("    <PreFlow name=\"PreFlow\">\n        <Request/>\n        <Response/>\n    </PreFlow>\n")
+				.append("    <HTTPTargetConnection>\n")
+				.append("        <LoadBalancer>\n            <Server name=\"backend-").append(index).append("\"/>\n        </LoadBalancer>\n        <Path>/v1</Path>\n")
+				.append("    </HTTPTargetConnection>\n</TargetEndpoint>\n");
+		write(dir.resolve("targets/default.xml"), target.toString());
+
+		generateResources(dir);
+	}
+
+	private void generateSharedFlow(Path dir, int index) throws IOException {
+		String name = "sharedflow-" + index;
+		List<String> attached = new ArrayList<>();
+		List<String> policies = generatePolicies(dir, "s" + index, attached, true);
+
+		StringBuilder descriptor = new StringBuilder(header())
+				.append("<SharedFlowBundle revision=\"1\" name=\"").append(name).append("\">\n")
+				.append("    <Description>").append(description(name)).append("</Description>\n")
+				.append("    <DisplayName>").append(name).append("</DisplayName>\n")
+				.append("    <Policies>\n");
+		policies.forEach(p -> descriptor.append("        <Policy>").append(p).append("</Policy>\n"));
+		descriptor.append("    </Policies>\n")
+				.append(resourcesList())
+				.append("    <subType>SharedFlow</subType>\n")
+				.append("    <SharedFlows>\n        <SharedFlow>SF-main</SharedFlow>\n    </SharedFlows>\n")
+				.append("</SharedFlowBundle>\n");
+		write(dir.resolve(name + ".xml"), descriptor.toString());
+
+		write(dir.resolve("sharedflows/SF-main.xml"), header()
+				+ "<SharedFlow name=\"SF-main\">\n" + steps(attached, "    ") + "</SharedFlow>\n");
+
+		generateResources(dir);
+	}
+
+	/**
+	 * Writes the policies of one bundle.
+	 * A shared flow has no FaultRules, so it gets no AssignMessage nor RaiseFault, which ignore unresolved variables by default.
+	 * @param attached filled with the names of the policies to attach in a Step
+	 * @return the names of all the policies
+	 */
+	private List<String> generatePolicies(Path dir, String bundleId, List<String> attached, boolean sharedFlow) throws IOException {
+		List<String> names = new ArrayList<>();
+		for(Map.Entry<String, Integer> entry : config.policiesPerType.entrySet()) {
+			String type = entry.getKey();
+			if(("XSL".equals(type) && config.resources == 0) || (sharedFlow && ("AssignMessage".equals(type) || "RaiseFault".equals(type)))) {
+				continue;
+			}
+			for(int i=0; i<entry.getValue(); i++) {
+				String prefix = violate(Violation.POLICY_NAME) ? "my" + type : PREFIXES.getOrDefault(type, type);
+				String name = prefix + "-" + bundleId + "-" + i;
+				names.add(name);
+				if("StatisticsCollector".equals(type)) {
+					collectors.add(name);
+				}
+				if(!violate(Violation.UNATTACHED_POLICY)) {
+					attached.add(name);
+				}
+				write(dir.resolve("policies/" + name + ".xml"), policy(type, name, bundleId + "-" + i, i));
+			}
+		}
+		return names;
+	}
+
+	private String policy(String type, String name, String id, int index) {
+		StringBuilder sb = new StringBuilder(header())
+				.append('<').append(type).append(" async=\"false\" continueOnError=\"false\" enabled=\"true\" name=\"").append(name).append("\">\n");
+		sb.append("    <DisplayName>").append(violate(Violation.DISPLAY_NAME) ? type + " " + index : name).append("</DisplayName>\n");
+		switch(type) {
+		case "AssignMessage":
+			sb.append("    <Set>\n        <Headers>\n            <Header name=\"X-Request-Id\">{messageid}</Header>\n        </Headers>\n    </Set>\n")
+				.append("    <IgnoreUnresolvedVariables>false</IgnoreUnresolvedVariables>\n")
+				.append("    <AssignTo createNew=\"false\" transport=\"http\" type=\"request\"/>\n");
+			break;
+		case "ExtractVariables":
+			sb.append("    <Source>request</Source>\n")
+				.append("    <Header name=\"x-id-").append(id).append("\">\n        <Pattern>{id}</Pattern>\n    </Header>\n")
+				.append("    <VariablePrefix>header</VariablePrefix>\n");
+			break;
+		case "Quota":
+			sb.append("    <Allow count=\"").append(100 + random.nextInt(900)).append("\"/>\n")
+				.append("    <Interval>1</Interval>\n    <TimeUnit>minute</TimeUnit>\n")
+				.append("    <Distributed>").append(!violate(Violation.NONDISTRIBUTED_QUOTA)).append("</Distributed>\n")
+				.append("    <Synchronous>true</Synchronous>\n");
+			break;
+		case "SpikeArrest":
+			sb.append("    <Rate>").append(10 + random.nextInt(90)).append("ps</Rate>\n");
+			break;
+		case "VerifyAPIKey":
+			sb.append("    <APIKey ref=\"request.header.x-api-key\"/>\n");
+			break;
+		case "LookupCache":
+		case "PopulateCache":
+			sb.append("    <CacheResource>cache-").append(index).append("</CacheResource>\n")
+				.append("    <CacheKey>\n        <Prefix>cache-").append(id).append("</Prefix>\n        <KeyFragment ref=\"request.uri\"/>\n    </CacheKey>\n")
+				.append("    <Scope>Exclusive</Scope>\n");
+			sb.append("LookupCache".equals(type) ? "    <AssignTo>cached</AssignTo>\n" : "    <Source>response.content</Source>\n    <ExpirySettings>\n        <TimeoutInSec>300</TimeoutInSec>\n    </ExpirySettings>\n");
+			break;
+		case "StatisticsCollector":
+			sb.append("    <Statistics>\n        <Statistic name=\"stat-").append(id).append("\" ref=\"request.verb\" type=\"String\">GET</Statistic>\n    </Statistics>\n");
+			break;
+		case "RaiseFault":
+			sb.append("    <FaultResponse>\n        <Set>\n            <StatusCode>404</StatusCode>\n            <ReasonPhrase>Not Found</ReasonPhrase>\n        </Set>\n    </FaultResponse>\n")
+				.append("    <IgnoreUnresolvedVariables>false</IgnoreUnresolvedVariables>\n");
+			break;
+		case "XSL":
+			sb.append("    <Source>response</Source>\n")
+				.append("    <ResourceURL>xsl://resource-").append(index % config.resources).append(".xsl</ResourceURL>\n")
+				.append("    <OutputVariable>response.content</OutputVariable>\n");
+			break;
+		default:
+			sb.append("    <Properties/>\n");
+		}
+		return sb.append("</").append(type).append(">\n").toString();
+	}
+
+	private void generateResources(Path dir) throws IOException {
+		for(int r=0; r<config.resources; r++) {
+			write(dir.resolve("resources/xsl/resource-" + r + ".xsl"), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+					+ "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">\n"
+					+ "    <xsl:template match=\"/\">\n        <resource id=\"" + r + "\"><xsl:copy-of select=\".\"/></resource>\n    </xsl:template>\n"
+					+ "</xsl:stylesheet>\n");
+		}
+	}
+
+	private String resourcesList() {
+		StringBuilder sb = new StringBuilder("    <Resources>\n");
+		for(int r=0; r<config.resources; r++) {
+			sb.append("        <Resource>xsl://resource-").append(r).append(".xsl</Resource>\n");
+		}
+		return sb.append("    </Resources>\n").toString();
+	}
+
+	private String steps(List<String> names, String indent) {
+		StringBuilder sb = new StringBuilder();
+		for(String name : names) {
+			if(violate(Violation.EMPTY_STEP)) {
+				sb.append(indent).append("<Step/>\n");
+			}
+			sb.append(indent).append("<Step>\n");
+			sb.append(indent).append("    <Name>").append(name).append("</Name>\n");
+			// Statistics collectors are always conditional, or MultipleStatsCollectorsCheck compares them across bundles
+			if(collectors.contains(name) || random.nextBoolean()) {
+				sb.append(indent).append("    <Condition>").append(condition("(request.verb = \"" + (random.nextBoolean() ? "GET" : "POST") + "\")")).append("</Condition>\n");
+			}
+			sb.append(indent).append("</Step>\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Condition made of the first clause and of conditionComplexity - 1 random clauses
+	 */
+	private String condition(String first) {
+		StringBuilder sb = new StringBuilder(first);
+		for(int c=1; c<config.conditionComplexity; c++) {
+			sb.append(random.nextBoolean() ? " and " : " or ");
+			switch(random.nextInt(3)) {
+			case 0:
+				sb.append("(request.header.x-version = \"").append(random.nextInt(10)).append("\")");
+				break;
+			case 1:
+				sb.append("(request.queryparam.id != null)");
+				break;
+			default:
+				sb.append("(client.ip JavaRegex \"10\\.").append(random.nextInt(256)).append("\\..*\")");
+			}
+		}
+		return escape(sb.toString());
+	}
+
+	private String description(String name) {
+		return violate(Violation.DESCRIPTION) ? "" : "Generated bundle " + name + " for load and scale testing";
+	}
+
+	/**
+	 * Draws whether the next element carries the violation, and counts it
+	 */
+	private boolean violate(Violation violation) {
+		if(config.violationRate > 0 && random.nextDouble() < config.violationRate) {
+			violations.merge(violation, 1, Integer::sum);
+			return true;
+		}
+		return false;
+	}
+
+	private static String header() {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+
+	private void write(Path path, String content) throws IOException {
+		Files.createDirectories(path.getParent());
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+		filesCount++;
+	}
+}
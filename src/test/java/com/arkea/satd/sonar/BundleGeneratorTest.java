@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+
+import com.arkea.satd.sonar.BundleGenerator.Violation;
+
+public class BundleGeneratorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testSameSeedSameFiles() throws IOException {
+		BundleGenerator.Config config = new BundleGenerator.Config()
+				.seed(7).proxies(3).sharedFlows(2).flows(4).conditionComplexity(3).violationRate(0.2);
+
+		Map<String, String> first = read(new BundleGenerator(config).generate(temporaryFolder.newFolder().toPath()));
+		Map<String, String> second = read(new BundleGenerator(config).generate(temporaryFolder.newFolder().toPath()));
+		Map<String, String> other = read(new BundleGenerator(config.seed(8)).generate(temporaryFolder.newFolder().toPath()));
+
+		assertThat(second).isEqualTo(first);
+		assertThat(other).isNotEqualTo(first);
+	}
+
+	@Test
+	public void testCounts() throws IOException {
+		BundleGenerator generator = new BundleGenerator(new BundleGenerator.Config()
+				.proxies(4).sharedFlows(2).flows(3).resources(2).policiesPerType(2).policiesPerType("JavaCallout", 1));
+		Path root = generator.generate(temporaryFolder.newFolder().toPath());
+
+		assertThat(root.resolve("proxy-3/apiproxy/proxy-3.xml")).exists();
+		assertThat(root.resolve("proxy-3/apiproxy/proxies/default.xml")).exists();
+		assertThat(root.resolve("proxy-3/apiproxy/targets/default.xml")).exists();
+		assertThat(root.resolve("proxy-3/apiproxy/resources/xsl/resource-1.xsl")).exists();
+		assertThat(root.resolve("proxy-3/apiproxy/policies/FC-p3.xml")).exists();
+		assertThat(root.resolve("proxy-3/apiproxy/policies/JavaCallout-p3-0.xml")).exists();
+		assertThat(root.resolve("sharedflow-1/sharedflowbundle/sharedflows/SF-main.xml")).exists();
+
+		// 10 default types * 2 + 1 JavaCallout, plus the FlowCallout in each proxy, minus AssignMessage and RaiseFault in shared flows
+		assertThat(root.resolve("proxy-0/apiproxy/policies").toFile().list()).hasSize(22);
+		assertThat(root.resolve("sharedflow-0/sharedflowbundle/policies").toFile().list()).hasSize(17);
+		// proxies : descriptor, endpoint, target, resources and policies ; shared flows : descriptor, flow, resources and policies
+		assertThat(generator.getFilesCount()).isEqualTo(4 * (3 + 2 + 22) + 2 * (2 + 2 + 17));
+		assertThat(generator.getViolations().values()).containsOnly(0);
+	}
+
+	@Test
+	public void testViolationRate() throws IOException {
+		BundleGenerator.Config config = new BundleGenerator.Config().proxies(2).sharedFlows(1).flows(4);
+
+		Map<String, Long> clean = issuesByRule(new BundleGenerator(config.violationRate(0)));
+
+		BundleGenerator awful = new BundleGenerator(config.violationRate(0.5));
+		Map<String, Long> violations = issuesByRule(awful);
+
+		assertThat(clean).isEmpty();
+		assertThat(violations).containsKeys("PolicyNameConventionCheck", "PolicyDisplayNameCheck", "UnattachedPolicyCheck",
+				"NondistributedQuotaCheck", "UnconditionalFlowCheck", "UseTargetServersCheck", "DescriptionCheck", "EmptyStepCheck");
+		assertThat(violations.get("PolicyNameConventionCheck")).isEqualTo(awful.getViolations().get(Violation.POLICY_NAME).longValue());
+	}
+
+	private Map<String, Long> issuesByRule(BundleGenerator generator) throws IOException {
+		Path root = generator.generate(temporaryFolder.newFolder().toPath());
+		SensorContextTester context = new SensorTester(root, temporaryFolder.newFolder().toPath()).analyze();
+		return context.allIssues().stream()
+				.collect(Collectors.groupingBy((Issue issue) -> issue.ruleKey().rule(), TreeMap::new, Collectors.counting()));
+	}
+
+	private static Map<String, String> read(Path root) throws IOException {
+		Map<String, String> files = new TreeMap<>();
+		try (Stream<Path> stream = Files.walk(root)) {
+			for(Path path : stream.filter(Files::isRegularFile).collect(Collectors.toList())) {
+				files.put(root.relativize(path).toString(), new String(Files.readAllBytes(path), "UTF-8"));
+			}
+		}
+		return files;
+	}
+}
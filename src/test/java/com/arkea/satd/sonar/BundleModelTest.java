@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.internal.SonarRuntimeImpl;
+import org.sonar.api.utils.Version;
+
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+import com.arkea.satd.sonar.xml.BundleModel;
+
+/**
+ * Analyses of single files, as in SonarLint, against the bundle models kept between the analyses
+ */
+public class BundleModelTest {
+
+	private static final String UNATTACHED_POLICY = "UnattachedPolicyCheck";
+	private static final List<String> STEP_RULES = Arrays.asList("QuotaPolicyReuseCheck", "MultipleStatsCollectorsCheck", "ThreatProtectionCheck", "ResponseCacheErrorResponseCheck");
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@After
+	public void clearModels() {
+		BundleModel.clearModels();
+	}
+
+	/**
+	 * Each file analyzed alone gets the issues of the whole bundle analysis located in it,
+	 * except those reported while checking another file
+	 */
+	@Test
+	public void testSingleFiles() throws IOException {
+		Path baseDir = copy(Paths.get("src/test/resources/MyAwfulProxy"), temporaryFolder.newFolder().toPath());
+		SensorTester tester = new SensorTester(baseDir, temporaryFolder.newFolder().toPath());
+		List<String> expected = issues(tester.analyze(new MapSettings()));
+
+		List<String> actual = new ArrayList<>();
+		for(DefaultInputFile inputFile : tester.getInputFiles()) {
+			List<String> fileIssues = issues(analyzeInSonarLint(tester, inputFile));
+			assertThat(fileIssues).allMatch(issue -> issue.contains(" " + inputFile.key() + " "));
+			actual.addAll(fileIssues);
+		}
+		Collections.sort(actual);
+		assertThat(expected).containsAll(actual);
+		assertThat(expected.stream()
+				.filter(issue -> !isReportedOnSteps(issue))
+				.collect(Collectors.toList()))
+			.allMatch(actual::contains);
+	}
+
+	/**
+	 * The model reads again only the files changed on the disk
+	 */
+	@Test
+	public void testChangedOnDisk() throws IOException {
+		Path baseDir = copy(Paths.get("src/test/resources/MyAwfulProxy"), temporaryFolder.newFolder().toPath());
+		Path policy = baseDir.resolve("apiproxy/policies/Spike-Arrest-2.xml");
+		Files.write(policy, new String(Files.readAllBytes(baseDir.resolve("apiproxy/policies/Spike-Arrest-1.xml")), StandardCharsets.UTF_8)
+				.replace("Spike-Arrest-1", "Spike-Arrest-2").getBytes(StandardCharsets.UTF_8));
+		SensorTester tester = new SensorTester(baseDir, temporaryFolder.newFolder().toPath());
+		DefaultInputFile inputFile = tester.getInputFiles().stream()
+				.filter(file -> file.path().equals(policy.toAbsolutePath()))
+				.findFirst()
+				.get();
+		BundleModel model;
+
+		assertThat(issues(analyzeInSonarLint(tester, inputFile))).anyMatch(issue -> issue.startsWith(UNATTACHED_POLICY));
+		model = BundleModel.get(baseDir.resolve("apiproxy").toAbsolutePath());
+		assertThat(model.getReadCount()).isGreaterThan(20);
+
+		assertThat(issues(analyzeInSonarLint(tester, inputFile))).anyMatch(issue -> issue.startsWith(UNATTACHED_POLICY));
+		assertThat(model.getReadCount()).isZero();
+
+		// Attach the policy in the endpoint, which is not analyzed
+		Path endpoint = baseDir.resolve("apiproxy/proxies/default.xml");
+		FileTime modified = Files.getLastModifiedTime(endpoint);
+		Files.write(endpoint, new String(Files.readAllBytes(endpoint), StandardCharsets.UTF_8)
+				.replace("<Name>Spike-Arrest-1</Name>", "<Name>Spike-Arrest-2</Name>").getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(endpoint, FileTime.fromMillis(modified.toMillis() + 2000));
+
+		assertThat(issues(analyzeInSonarLint(tester, inputFile))).noneMatch(issue -> issue.startsWith(UNATTACHED_POLICY));
+		assertThat(model.getReadCount()).isEqualTo(1);
+	}
+
+	/**
+	 * Issues reported on the steps of the endpoints while checking the policies
+	 */
+	private static boolean isReportedOnSteps(String issue) {
+		return STEP_RULES.contains(issue.substring(0, issue.indexOf(' '))) && issue.contains("/proxies/");
+	}
+
+	private static SensorContextTester analyzeInSonarLint(SensorTester tester, DefaultInputFile inputFile) {
+		SensorContextTester context = SensorContextTester.create(inputFile.path().getParent());
+		context.setRuntime(SonarRuntimeImpl.forSonarLint(Version.create(9, 3)));
+		context.setSettings(new MapSettings().setProperty(ApigeeProperties.CHECK_TIMEOUT_KEY, 0));
+		return tester.analyze(context, Collections.singletonList(inputFile));
+	}
+
+	private static List<String> issues(SensorContextTester context) {
+		return context.allIssues().stream()
+				.map(BundleModelTest::toString)
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	private static String toString(Issue issue) {
+		return issue.ruleKey().rule()
+				+ " " + issue.primaryLocation().inputComponent().key()
+				+ " " + issue.primaryLocation().textRange()
+				+ " " + issue.primaryLocation().message();
+	}
+
+	private static Path copy(Path source, Path target) throws IOException {
+		try (Stream<Path> stream = Files.walk(source)) {
+			for(Path path : stream.collect(Collectors.toList())) {
+				Path copy = target.resolve(source.relativize(path).toString());
+				if(Files.isDirectory(path)) {
+					Files.createDirectories(copy);
+				} else {
+					Files.copy(path, copy);
+				}
+			}
+		}
+		return target;
+	}
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.plugins.xml.Xml;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.w3c.dom.Element;
+
+import com.arkea.satd.sonar.xml.BundleGraph;
+import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.SymbolTable;
+import com.arkea.satd.sonar.xml.model.Bundle;
+import com.arkea.satd.sonar.xml.model.Flow;
+import com.arkea.satd.sonar.xml.model.FlowGraph;
+import com.arkea.satd.sonar.xml.model.Policy;
+import com.arkea.satd.sonar.xml.model.ProxyEndpoint;
+import com.arkea.satd.sonar.xml.model.RouteRule;
+import com.arkea.satd.sonar.xml.model.Step;
+import com.arkea.satd.sonar.xml.model.TargetEndpoint;
+
+public class BundleRecorderTest extends AbstractXmlPluginTester {
+
+	@Before
+	@After
+	public void clear() {
+		BundleRecorder.release();
+	}
+
+	@Test
+	public void testSearches() throws IOException {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request>"
+				+ "<Step><Name>AM-1</Name></Step><Step><Name>AM-1</Name><Condition>x</Condition></Step><Step><Name> AM-2 </Name></Step>"
+				+ "</Request></PreFlow></ProxyEndpoint>");
+		XmlFile target = store("targets/default.xml", "<TargetEndpoint name=\"backend\"><PreFlow><Request><Step><Name>AM-1</Name></Step></Request></PreFlow></TargetEndpoint>");
+		XmlFile policy = store("policies/AM-1.xml", "<AssignMessage name=\"AM-1\"/>");
+		XmlFile xsl = store("policies/XSL-1.xml", "<XSL name=\"XSL-1\"><ResourceURL>xsl://one.xsl</ResourceURL></XSL>");
+
+		assertThat(BundleRecorder.searchByStepName("AM-1")).containsExactly(endpoint, target);
+		assertThat(BundleRecorder.searchByStepName("AM-2")).isEmpty();
+		assertThat(BundleRecorder.searchByStepName(" AM-2 ")).containsExactly(endpoint);
+		assertThat(BundleRecorder.searchStepsByName("AM-1")).hasSize(3);
+		assertThat(BundleRecorder.searchPoliciesByType("AssignMessage")).containsExactly(policy);
+		assertThat(BundleRecorder.searchPoliciesByName("XSL-1")).isSameAs(xsl);
+		assertThat(BundleRecorder.searchPoliciesByName("XSL-2")).isNull();
+		assertThat(BundleRecorder.searchTargetEndpointByName("backend")).isSameAs(target);
+		assertThat(BundleRecorder.searchPoliciesByResourceURL("xsl://one.xsl")).containsExactly(xsl);
+	}
+
+	@Test
+	public void testReplacedFile() throws IOException {
+		store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>AM-1</Name></Step></Request></PreFlow></ProxyEndpoint>");
+		assertThat(BundleRecorder.computeIfAbsent("key", () -> "first")).isEqualTo("first");
+		assertThat(BundleRecorder.computeIfAbsent("key", () -> "second")).isEqualTo("first");
+
+		XmlFile replaced = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>AM-2</Name></Step></Request></PreFlow></ProxyEndpoint>");
+
+		assertThat(BundleRecorder.searchByStepName("AM-1")).isEmpty();
+		assertThat(BundleRecorder.searchByStepName("AM-2")).containsExactly(replaced);
+		assertThat(BundleRecorder.computeIfAbsent("key", () -> "second")).isEqualTo("second");
+	}
+
+	@Test
+	public void testRemovedFile() throws IOException {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>AM-1</Name></Step></Request></PreFlow></ProxyEndpoint>");
+		XmlFile policy = store("policies/AM-1.xml", "<AssignMessage name=\"AM-1\"/>");
+		assertThat(BundleRecorder.computeIfAbsent("key", () -> "first")).isEqualTo("first");
+
+		BundleRecorder.removeFile(policy.getInputFile().uri().getPath());
+
+		assertThat(BundleRecorder.searchPoliciesByName("AM-1")).isNull();
+		assertThat(BundleRecorder.searchPoliciesByType("AssignMessage")).isEmpty();
+		assertThat(BundleRecorder.searchByStepName("AM-1")).containsExactly(endpoint);
+		assertThat(BundleRecorder.computeIfAbsent("key", () -> "second")).isEqualTo("second");
+	}
+
+	/**
+	 * The texts of the recorded documents are shared, with the keys of the indexes
+	 */
+	@Test
+	public void testSharedTexts() throws IOException {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>AM-1</Name><Condition>request.verb = \"GET\"</Condition></Step></Request></PreFlow></ProxyEndpoint>");
+		XmlFile target = store("targets/default.xml", "<TargetEndpoint name=\"backend\"><PreFlow><Request><Step><Name>AM-1</Name><Condition>request.verb = \"GET\"</Condition></Step></Request></PreFlow></TargetEndpoint>");
+
+		String name = text(endpoint, "Name");
+		assertThat(text(target, "Name")).isSameAs(name);
+		assertThat(text(target, "Condition")).isSameAs(text(endpoint, "Condition"));
+		assertThat(BundleRecorder.getSymbols().intern(new String("AM-1"))).isSameAs(name);
+		assertThat(BundleRecorder.searchStepsByName("AM-1")).hasSize(2);
+	}
+
+	/**
+	 * Each analysis has its own symbol table : an analysis on another thread does not clear it
+	 */
+	@Test
+	public void testSymbolsOfEachAnalysis() throws Exception {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>AM-1</Name></Step></Request></PreFlow></ProxyEndpoint>");
+		SymbolTable symbols = BundleRecorder.getSymbols();
+		int size = symbols.size();
+
+		Thread other = new Thread(() -> {
+			BundleRecorder.clear();
+			BundleRecorder.getSymbols().intern("AM-2");
+			BundleRecorder.release();
+		});
+		other.start();
+		other.join();
+
+		assertThat(BundleRecorder.getSymbols()).isSameAs(symbols);
+		assertThat(symbols.size()).isEqualTo(size);
+		assertThat(symbols.intern(new String("AM-1"))).isSameAs(text(endpoint, "Name"));
+	}
+
+	/**
+	 * The symbols of the replaced and removed files are dropped, those of the recorded files stay shared
+	 */
+	@Test
+	public void testSymbolsOfRecordedFiles() throws IOException {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>AM-1</Name></Step></Request></PreFlow></ProxyEndpoint>");
+		store("targets/default.xml", "<TargetEndpoint name=\"backend\"><PreFlow><Request><Step><Name>AM-2</Name></Step></Request></PreFlow></TargetEndpoint>");
+		XmlFile policy = store("policies/AM-3.xml", "<AssignMessage name=\"AM-3\"><Set><Payload>removed</Payload></Set></AssignMessage>");
+		SymbolTable symbols = BundleRecorder.getSymbols();
+		int size = symbols.size();
+
+		// Same number of symbols, the texts of the older version being dropped
+		store("targets/default.xml", "<TargetEndpoint name=\"backend\"><PreFlow><Request><Step><Name>AM-4</Name></Step></Request></PreFlow></TargetEndpoint>");
+		assertThat(symbols.size()).isEqualTo(size);
+		assertThat(symbols.intern(new String("AM-1"))).isSameAs(text(endpoint, "Name"));
+
+		BundleRecorder.removeFile(policy.getInputFile().uri().getPath());
+		assertThat(symbols.size()).isLessThan(size);
+		assertThat(symbols.intern(new String("AM-1"))).isSameAs(text(endpoint, "Name"));
+		assertThat(BundleRecorder.searchByStepName("AM-4")).hasSize(1);
+	}
+
+	@Test
+	public void testGraph() throws IOException {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>Q-1</Name></Step></Request></PreFlow>"
+				+ "<Flows><Flow name=\"get\"><Request><Step><Name>Q-1</Name></Step><Step><Name>AM-1</Name></Step></Request></Flow></Flows>"
+				+ "<RouteRule name=\"default\"><TargetEndpoint>backend</TargetEndpoint></RouteRule><RouteRule name=\"none\"><TargetEndpoint>missing</TargetEndpoint></RouteRule></ProxyEndpoint>");
+		XmlFile target = store("targets/default.xml", "<TargetEndpoint name=\"backend\"><PostFlow><Response><Step><Name>AM-1</Name></Step></Response></PostFlow></TargetEndpoint>");
+		// The steps of a shared flow are outside the flows, and the flows are only the children of the endpoint and of its Flows
+		XmlFile sharedFlow = store("sharedflows/default.xml", "<SharedFlow name=\"default\"><Step><Name>AM-1</Name><Flows><Flow name=\"nested\"/></Flows></Step></SharedFlow>");
+		XmlFile quota = store("policies/Q-1.xml", "<Quota name=\"Q-1\"/>");
+		store("policies/SC-1.xml", "<ServiceCallout name=\"SC-1\"/>");
+
+		BundleGraph graph = BundleRecorder.getGraph();
+		assertThat(BundleRecorder.getGraph()).isSameAs(graph);
+		assertThat(graph.getEndpointCount()).isEqualTo(3);
+		assertThat(graph.getFlowCount()).isEqualTo(3);
+		assertThat(graph.getStepCount()).isEqualTo(5);
+
+		int proxy = graph.getEndpointId(endpoint);
+		int backend = graph.getEndpointId(target);
+		assertThat(graph.getEndpointFile(backend)).isSameAs(target);
+		assertThat(graph.getEndpointId(quota)).isEqualTo(-1);
+		assertThat(graph.getTargetCount(proxy)).isEqualTo(1);
+		assertThat(graph.getTarget(proxy, 0)).isEqualTo(backend);
+		assertThat(graph.getRouteCount(backend)).isEqualTo(1);
+		assertThat(graph.getRouteCount(proxy)).isZero();
+
+		int q1 = graph.getNameId("Q-1");
+		assertThat(graph.getName(q1)).isEqualTo("Q-1");
+		assertThat(graph.getPolicy(q1)).isSameAs(quota);
+		assertThat(graph.getStepCount(q1)).isEqualTo(2);
+		int step = graph.getStep(q1, 1);
+		assertThat(graph.getStepFile(step)).isSameAs(endpoint);
+		assertThat(graph.getFlowElement(graph.getStepFlow(step)).getAttribute("name")).isEqualTo("get");
+		assertThat(graph.getFlowEndpoint(graph.getStepFlow(step))).isEqualTo(proxy);
+
+		int am1 = graph.getNameId("AM-1");
+		assertThat(graph.getPolicy(am1)).isNull();
+		assertThat(graph.getStepCount(am1)).isEqualTo(3);
+		step = graph.getStep(am1, 1);
+		assertThat(graph.getStepFile(step)).isSameAs(sharedFlow);
+		assertThat(graph.getStepElement(step).getParentNode()).isSameAs(sharedFlow.getDocument().getDocumentElement());
+		assertThat(graph.getStepFlow(step)).isEqualTo(-1);
+		assertThat(graph.isAttached(graph.getNameId("SC-1"))).isFalse();
+		assertThat(graph.getNameId("unknown")).isEqualTo(-1);
+
+		// Dropped when the recorded files change
+		store("policies/AM-1.xml", "<AssignMessage name=\"AM-1\"/>");
+		assertThat(BundleRecorder.getGraph()).isNotSameAs(graph);
+		BundleGraph updated = BundleRecorder.getGraph();
+		assertThat(updated.getPolicy(updated.getNameId("AM-1"))).isNotNull();
+	}
+
+	@Test
+	public void testBundle() throws IOException {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>Q-1</Name><Condition>a = 1</Condition></Step></Request></PreFlow>"
+				+ "<Flows><Flow name=\"get\"><Condition>request.verb = \"GET\"</Condition><Response><Step><Name>AM-1</Name></Step></Response></Flow><Flow name=\"other\"/></Flows>"
+				+ "<FaultRules><FaultRule name=\"fault\"><Step><Name>RF-1</Name></Step></FaultRule></FaultRules><PostClientFlow><Response/></PostClientFlow>"
+				+ "<RouteRule name=\"none\"><Condition>true</Condition></RouteRule><RouteRule name=\"default\"><TargetEndpoint>backend</TargetEndpoint></RouteRule></ProxyEndpoint>");
+		XmlFile target = store("targets/default.xml", "<TargetEndpoint name=\"backend\"><HTTPTargetConnection><LoadBalancer><Server name=\"s\"/></LoadBalancer></HTTPTargetConnection></TargetEndpoint>");
+		store("sharedflows/default.xml", "<SharedFlow name=\"default\"><Step><Name>AM-1</Name></Step><Step><Name>Q-1</Name></Step></SharedFlow>");
+		store("policies/Q-1.xml", "<Quota name=\"Q-1\" enabled=\"false\"/>");
+		store("policies/XSL-1.xml", "<XSL name=\"XSL-1\"><ResourceURL>xsl://transform.xsl</ResourceURL></XSL>");
+		store("resources/xsl/transform.xsl", "<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"1.0\"/>");
+
+		Bundle bundle = BundleRecorder.getBundle();
+		assertThat(BundleRecorder.getBundle()).isSameAs(bundle);
+
+		ProxyEndpoint proxyEndpoint = bundle.getProxyEndpoint(endpoint);
+		assertThat(bundle.getProxyEndpoints()).containsExactly(proxyEndpoint);
+		assertThat(proxyEndpoint.getName()).isEqualTo("default");
+		assertThat(proxyEndpoint.getPreFlow().getRequestSteps()).extracting(Step::getName, Step::getCondition).containsExactly(tuple("Q-1", "a = 1"));
+		assertThat(proxyEndpoint.getFlows()).extracting(Flow::getName, Flow::getCondition).containsExactly(tuple("get", "request.verb = \"GET\""), tuple("other", null));
+		assertThat(proxyEndpoint.getFlows().get(0).getResponseSteps()).extracting(Step::getName).containsExactly("AM-1");
+		assertThat(proxyEndpoint.getPostFlow()).isNull();
+		assertThat(proxyEndpoint.getPostClientFlow().getType()).isEqualTo(Flow.Type.POST_CLIENT_FLOW);
+		assertThat(proxyEndpoint.getFaultRules().get(0).getSteps()).extracting(Step::getName).containsExactly("RF-1");
+		assertThat(proxyEndpoint.getDefaultFaultRule()).isNull();
+		assertThat(proxyEndpoint.getRouteRules()).extracting(RouteRule::getName, RouteRule::getCondition, RouteRule::getTargetEndpoint)
+			.containsExactly(tuple("none", "true", null), tuple("default", null, "backend"));
+
+		TargetEndpoint targetEndpoint = bundle.getTargetEndpoint("backend");
+		assertThat(bundle.getTargetEndpoint(target)).isSameAs(targetEndpoint);
+		assertThat(bundle.getProxyEndpoint(target)).isNull();
+		assertThat(targetEndpoint.isLoadBalanced()).isTrue();
+		assertThat(targetEndpoint.getUrl()).isNull();
+
+		assertThat(bundle.getSharedFlows()).hasSize(1);
+		assertThat(bundle.getSharedFlows().get(0).getSteps()).extracting(Step::getName).containsExactly("AM-1", "Q-1");
+
+		assertThat(bundle.getPolicies()).extracting(Policy::getType).containsExactly("Quota", "XSL");
+		assertThat(bundle.getPolicy("Q-1").isEnabled()).isFalse();
+		assertThat(bundle.getPolicy("XSL-1").getResourceURL()).isEqualTo(bundle.getResources().get(0).getUrl()).isEqualTo("xsl://transform.xsl");
+
+		// Not recorded files are modeled on demand
+		XmlFile other = XmlFile.create("<ProxyEndpoint name=\"other\"/>");
+		assertThat(bundle.getProxyEndpoint(other).getName()).isEqualTo("other");
+
+		store("policies/AM-1.xml", "<AssignMessage name=\"AM-1\"/>");
+		assertThat(BundleRecorder.getBundle()).isNotSameAs(bundle);
+	}
+
+	@Test
+	public void testFlowGraph() throws IOException {
+		XmlFile endpoint = store("proxies/default.xml", "<ProxyEndpoint name=\"default\"><PreFlow><Request><Step><Name>SA-1</Name></Step></Request></PreFlow>"
+				+ "<Flows><Flow name=\"get\"><Condition>request.verb = \"GET\"</Condition><Request><Step><Name>Q-1</Name></Step></Request><Response><Step><Name>AM-1</Name></Step></Response></Flow></Flows>"
+				+ "<FaultRules><FaultRule name=\"first\"><Condition>fault.name = \"a\"</Condition></FaultRule><FaultRule name=\"last\"><Condition>fault.name = \"b\"</Condition></FaultRule></FaultRules>"
+				+ "<PostClientFlow><Response><Step><Name>ML-1</Name></Step></Response></PostClientFlow>"
+				+ "<RouteRule name=\"none\"><Condition>request.verb = \"OPTIONS\"</Condition></RouteRule><RouteRule name=\"default\"><TargetEndpoint>backend</TargetEndpoint></RouteRule></ProxyEndpoint>");
+		store("targets/default.xml", "<TargetEndpoint name=\"backend\"><PreFlow><Request><Step><Name>AM-2</Name></Step></Request></PreFlow></TargetEndpoint>");
+		store("targets/other.xml", "<TargetEndpoint name=\"other\"><PostFlow><Response><Step><Name>AM-3</Name></Step></Response></PostFlow></TargetEndpoint>");
+		XmlFile shared = store("sharedflows/default.xml", "<SharedFlow name=\"default\"><Step><Name>AM-4</Name></Step></SharedFlow>");
+
+		Bundle bundle = BundleRecorder.getBundle();
+		FlowGraph graph = bundle.getFlowGraph(bundle.getProxyEndpoint(endpoint));
+		FlowGraph.Node preFlow = bundle.getFlowNode(step(endpoint, 0));
+		FlowGraph.Node flowRequest = bundle.getFlowNode(step(endpoint, 1));
+		FlowGraph.Node flowResponse = bundle.getFlowNode(step(endpoint, 2));
+		FlowGraph.Node postClientFlow = bundle.getFlowNode(step(endpoint, 3));
+		assertThat(preFlow.getFlowType()).isEqualTo(Flow.Type.PRE_FLOW);
+		assertThat(graph.getEntry().getOutgoing()).extracting(FlowGraph.Edge::getTarget).containsExactly(preFlow);
+
+		// The conditional flows are evaluated in order, then the PostFlow
+		assertThat(preFlow.getOutgoing()).extracting(FlowGraph.Edge::getCondition, FlowGraph.Edge::isFault)
+			.containsExactly(tuple("request.verb = \"GET\"", false), tuple(null, false), tuple(null, true));
+		assertThat(preFlow.getOutgoing().get(0).getTarget()).isSameAs(flowRequest);
+		assertThat(flowResponse.getIncoming()).extracting(FlowGraph.Edge::getCondition).containsExactly("request.verb = \"GET\"");
+
+		// The route rules lead to the target endpoint, or directly to the response
+		FlowGraph.Node postFlow = flowRequest.getOutgoing().get(0).getTarget();
+		assertThat(postFlow.getOutgoing()).extracting(edge -> edge.getTarget().getKind())
+			.containsExactly(FlowGraph.Kind.ROUTE_RULE, FlowGraph.Kind.ROUTE_RULE, FlowGraph.Kind.FLOW);
+		FlowGraph.Node target = postFlow.getOutgoing().get(1).getTarget().getOutgoing().get(0).getTarget();
+		assertThat(target.getSteps()).extracting(Step::getName).containsExactly("AM-2");
+		assertThat(graph.isReachable(target, flowResponse)).isTrue();
+		assertThat(graph.isReachable(flowResponse, target)).isFalse();
+		assertThat(graph.canRunAfter(step(endpoint, 0), step(endpoint, 2))).isTrue();
+		assertThat(graph.canRunAfter(step(endpoint, 2), step(endpoint, 1))).isFalse();
+
+		// The fault rules of a proxy endpoint are evaluated from the last one
+		FlowGraph.Node fault = preFlow.getOutgoing().get(2).getTarget();
+		assertThat(fault.getKind()).isEqualTo(FlowGraph.Kind.FAULT);
+		assertThat(fault.getOutgoing()).extracting(edge -> edge.getTarget().toString())
+			.containsExactly("FLOW FAULT_RULE last of default.xml", "FLOW FAULT_RULE first of default.xml", "FLOW DEFAULT_FAULT_RULE of default.xml");
+		assertThat(graph.isReachable(fault, postClientFlow)).isTrue();
+		assertThat(postClientFlow.getOutgoing()).extracting(FlowGraph.Edge::getTarget).containsExactly(graph.getExit());
+
+		// The target endpoints no proxy endpoint routes to, and the shared flows, have their own graph
+		assertThat(bundle.getFlowGraph(bundle.getTargetEndpoint("other")).getNode(step(bundle.getTargetEndpoint("other").getXmlFile(), 0))).isNotNull();
+		FlowGraph sharedGraph = bundle.getFlowGraph(bundle.getSharedFlow(shared));
+		assertThat(sharedGraph.getNodes()).extracting(FlowGraph.Node::getKind).containsExactly(FlowGraph.Kind.ENTRY, FlowGraph.Kind.EXIT, FlowGraph.Kind.SHARED_FLOW);
+		assertThat(sharedGraph.isReachable(sharedGraph.getEntry(), sharedGraph.getExit())).isTrue();
+	}
+
+	private static Element step(XmlFile xmlFile, int index) {
+		return (Element) xmlFile.getDocument().getElementsByTagName("Step").item(index);
+	}
+
+	private static String text(XmlFile xmlFile, String tagName) {
+		return xmlFile.getDocument().getElementsByTagName(tagName).item(0).getFirstChild().getNodeValue();
+	}
+
+	private static XmlFile store(String path, String content) throws IOException {
+		XmlFile xmlFile = XmlFile.create(TestInputFileBuilder.create("key", path)
+				.setType(InputFile.Type.MAIN)
+				.setContents(content)
+				.setLanguage(Xml.KEY)
+				.setCharset(StandardCharsets.UTF_8)
+				.build());
+		BundleRecorder.storeFile(xmlFile);
+		return xmlFile;
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+
+import org.junit.Test;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.rule.RuleKey;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+import org.sonarsource.analyzer.commons.xml.checks.SonarXmlCheck;
+
+import com.arkea.satd.sonar.checks.AbstractCheckTester;
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.CheckRunner;
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
+public class CheckRunnerTest extends AbstractCheckTester {
+
+	private static final RuleKey RULE_KEY = RuleKey.of("apigee-xml", "fakeRule");
+
+	private final SensorContextTester context = SensorContextTester.create(Paths.get(""));
+
+	@Test
+	public void test_check_disabled_after_failures() throws Exception {
+
+		AtomicInteger calls = new AtomicInteger();
+		SonarXmlCheck failingCheck = new SonarXmlCheck() {
+			@Override
+			public void scanFile(XmlFile xmlFile) {
+				calls.incrementAndGet();
+				throw new IllegalStateException("Boom");
+			}
+		};
+
+		CheckRunner runner = new CheckRunner(0, 2);
+		XmlFile xmlFile = createTempFile("policy.xml", "<Quota name=\"q\"/>");
+		for(int i=0; i<5; i++) {
+			assertFalse(runner.run(context, failingCheck, RULE_KEY, xmlFile));
+		}
+		runner.close();
+
+		assertEquals(2, calls.get());
+		assertTrue(runner.getDisabledRules().contains(RULE_KEY));
+		assertEquals(3, runner.getSkippedCount());
+	}
+
+	@Test
+	public void test_check_interrupted_after_timeout() throws Exception {
+
+		SonarXmlCheck slowCheck = new SonarXmlCheck() {
+			@Override
+			public void scanFile(XmlFile xmlFile) {
+				try {
+					Thread.sleep(10000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+
+		CheckRunner runner = new CheckRunner(50, 1);
+		XmlFile xmlFile = createTempFile("policy.xml", "<Quota name=\"q\"/>");
+		long start = System.currentTimeMillis();
+		assertFalse(runner.run(context, slowCheck, RULE_KEY, xmlFile));
+		assertFalse(runner.run(context, slowCheck, RULE_KEY, xmlFile));
+		runner.close();
+
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertTrue(runner.getDisabledRules().contains(RULE_KEY));
+		assertEquals(1, runner.getSkippedCount());
+	}
+
+	@Test
+	public void test_issues_discarded_after_timeout() throws Exception {
+
+		// A check ignoring the interruptions, which saves its issues after its budget
+		SonarXmlCheck stubbornCheck = new SonarXmlCheck() {
+			@Override
+			public void scanFile(XmlFile xmlFile) {
+				long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+				while(System.nanoTime() < end) {
+					// Busy
+				}
+				reportIssue(xmlFile.getDocument().getDocumentElement(), "Too late");
+			}
+		};
+		SonarXmlCheck check = new SonarXmlCheck() {
+			@Override
+			public void scanFile(XmlFile xmlFile) {
+				reportIssue(xmlFile.getDocument().getDocumentElement(), "In time");
+			}
+		};
+
+		CheckRunner runner = new CheckRunner(50, 0);
+		XmlFile xmlFile = createTempFile("policy.xml", "<Quota name=\"q\"/>");
+		ApigeeXmlSensor.setContext(context);
+		assertFalse(runner.run(context, stubbornCheck, RULE_KEY, xmlFile));
+		assertTrue(runner.run(context, check, RULE_KEY, xmlFile));
+		runner.close();
+
+		assertEquals(1, context.allIssues().size());
+		assertEquals("In time", context.allIssues().iterator().next().primaryLocation().message());
+		assertSame(context, ApigeeXmlSensor.getContext());
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test
+	public void test_check_stopped_at_its_next_query() throws Exception {
+
+		AtomicInteger queries = new AtomicInteger();
+		SonarXmlCheck endlessCheck = new SonarXmlCheck() {
+			@Override
+			public void scanFile(XmlFile xmlFile) {
+				while(true) {
+					QueryProfiler.newXPath();
+					queries.incrementAndGet();
+				}
+			}
+		};
+
+		CheckRunner runner = new CheckRunner(50, 1);
+		XmlFile xmlFile = createTempFile("policy.xml", "<Quota name=\"q\"/>");
+		assertFalse(runner.run(context, endlessCheck, RULE_KEY, xmlFile));
+		runner.close();
+
+		assertTrue(queries.get() > 0);
+		assertTrue(runner.getDisabledRules().contains(RULE_KEY));
+	}
+
+	@Test
+	public void test_check_stopped_at_its_next_evaluation() throws Exception {
+
+		// A check compiling its XPath once, then evaluating it in a loop ignoring the interruptions
+		AtomicInteger evaluations = new AtomicInteger();
+		SonarXmlCheck endlessCheck = new SonarXmlCheck() {
+			@Override
+			public void scanFile(XmlFile xmlFile) {
+				try {
+					XPathExpression expression = QueryProfiler.newXPath().compile("/Quota/@name");
+					while(true) {
+						expression.evaluate(xmlFile.getDocument());
+						evaluations.incrementAndGet();
+					}
+				} catch (XPathExpressionException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+
+		CheckRunner runner = new CheckRunner(50, 1);
+		XmlFile xmlFile = createTempFile("policy.xml", "<Quota name=\"q\"/>");
+		assertFalse(runner.run(context, endlessCheck, RULE_KEY, xmlFile));
+		runner.close();
+
+		assertTrue(evaluations.get() > 0);
+		assertTrue(runner.getDisabledRules().contains(RULE_KEY));
+	}
+
+	@Test
+	public void test_check_ok() throws Exception {
+
+		AtomicInteger calls = new AtomicInteger();
+		SonarXmlCheck check = new SonarXmlCheck() {
+			@Override
+			public void scanFile(XmlFile xmlFile) {
+				calls.incrementAndGet();
+			}
+		};
+
+		CheckRunner runner = new CheckRunner(1000, 1);
+		XmlFile xmlFile = createTempFile("policy.xml", "<Quota name=\"q\"/>");
+		assertTrue(runner.run(context, check, RULE_KEY, xmlFile));
+		assertTrue(runner.run(context, check, RULE_KEY, xmlFile));
+		runner.close();
+
+		assertEquals(2, calls.get());
+		assertTrue(runner.getDisabledRules().isEmpty());
+		assertEquals(0, runner.getSkippedCount());
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.batch.sensor.issue.IssueLocation;
+import org.sonar.api.config.internal.MapSettings;
+
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+
+/**
+ * Runs the reference sequential analysis (parsing and checks inline, no profiling) and each optimized mode of the sensor on the same corpora,
+ * and fails when the issues differ on rule, file, range or message.
+ * A new mode of the sensor must be added to {@link #modes()}.
+ */
+public class EquivalenceTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * The settings of the reference analysis
+	 */
+	private static MapSettings reference() {
+		return new MapSettings()
+				.setProperty(ApigeeProperties.CHECK_TIMEOUT_KEY, 0)
+				.setProperty(ApigeeProperties.PARSE_THREADS_KEY, 1)
+				.setProperty(ApigeeProperties.MEMORY_THRESHOLD_KEY, 100)
+				.setProperty(ApigeeProperties.MAX_FILE_SIZE_KEY, 0)
+				.setProperty(ApigeeProperties.MAX_FILE_ELEMENTS_KEY, 0)
+				.setProperty(ApigeeProperties.MAX_FILE_DEPTH_KEY, 0);
+	}
+
+	/**
+	 * The settings of the modes compared to the reference, by name
+	 */
+	private static Map<String, MapSettings> modes() {
+		Map<String, MapSettings> modes = new LinkedHashMap<>();
+		modes.put("checks with a time budget", reference().setProperty(ApigeeProperties.CHECK_TIMEOUT_KEY, ApigeeProperties.CHECK_TIMEOUT_DEFAULT));
+		modes.put("parsing threads", reference().setProperty(ApigeeProperties.PARSE_THREADS_KEY, 4));
+		modes.put("default settings", new MapSettings());
+		modes.put("bundle at a time", reference().setProperty(ApigeeProperties.BUNDLE_AT_A_TIME_KEY, true));
+		modes.put("bundle at a time with the shared flows", reference()
+				.setProperty(ApigeeProperties.BUNDLE_AT_A_TIME_KEY, true)
+				.setProperty(ApigeeProperties.SHARED_FLOWS_INDEX_KEY, true));
+		modes.put("query profiling", reference().setProperty(ApigeeProperties.DEBUG_QUERIES_KEY, true));
+		modes.put("bundle models", reference().setProperty(ApigeeProperties.BUNDLE_MODELS_KEY, true));
+		modes.put("bundle models kept from the previous analysis", reference().setProperty(ApigeeProperties.BUNDLE_MODELS_KEY, true));
+		modes.put("short heap", reference().setProperty(ApigeeProperties.MEMORY_THRESHOLD_KEY, 0));
+		modes.put("bundle models with a short heap", reference()
+				.setProperty(ApigeeProperties.BUNDLE_MODELS_KEY, true)
+				.setProperty(ApigeeProperties.MEMORY_THRESHOLD_KEY, 0));
+		return modes;
+	}
+
+	@Test
+	public void testMyAwfulProxy() throws IOException {
+		assertEquivalent("MyAwfulProxy", Paths.get("src/test/resources/MyAwfulProxy"));
+	}
+
+	@Test
+	public void testMyAwfulSharedFlow() throws IOException {
+		assertEquivalent("MyAwfulSharedFlow", Paths.get("src/test/resources/MyAwfulSharedFlow"));
+	}
+
+	@Test
+	public void testGenerated() throws IOException {
+		for(long seed : new long[] {7, 8}) {
+			Path root = new BundleGenerator(new BundleGenerator.Config()
+					.seed(seed)
+					.proxies(3)
+					.sharedFlows(2)
+					.flows(4)
+					.policiesPerType(2)
+					.conditionComplexity(3)
+					.violationRate(0.3))
+				.generate(temporaryFolder.newFolder().toPath());
+			assertEquivalent("generated (seed " + seed + ")", root);
+		}
+	}
+
+	private void assertEquivalent(String corpus, Path baseDir) throws IOException {
+		SensorTester tester = new SensorTester(baseDir, temporaryFolder.newFolder().toPath());
+		List<String> expected = issues(tester.analyze(reference()));
+		assertThat(expected).as(corpus + " reference issues").isNotEmpty();
+
+		// The static state left by a previous analysis must not change the next one
+		assertThat(issues(tester.analyze(reference()))).as(corpus + " analysed twice").containsExactlyElementsOf(expected);
+
+		for(Map.Entry<String, MapSettings> mode : modes().entrySet()) {
+			assertThat(issues(tester.analyze(mode.getValue()))).as(corpus + " with " + mode.getKey()).containsExactlyElementsOf(expected);
+		}
+	}
+
+	/**
+	 * The issues of an analysis as sorted strings, duplicates included
+	 */
+	private static List<String> issues(SensorContextTester context) {
+		return context.allIssues().stream()
+				.map(EquivalenceTest::toString)
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	private static String toString(Issue issue) {
+		IssueLocation location = issue.primaryLocation();
+		TextRange range = location.textRange();
+		return issue.ruleKey().rule()
+				+ " " + location.inputComponent().key()
+				+ " " + (range == null ? "-" : range.start().line() + ":" + range.start().lineOffset() + "-" + range.end().line() + ":" + range.end().lineOffset())
+				+ " " + location.message();
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+import com.arkea.satd.sonar.xml.BundleRecorder;
+import com.arkea.satd.sonar.xml.QueryProfiler;
+
+/**
+ * Measures, for each corpus, the heap retained by the BundleRecorder and the sensor at the end of the analysis,
+ * and the bytes allocated per analysed file.
+ * The measures are compared to the baselines of src/test/resources/heap-baselines.properties.
+ * 
+ * To update the baselines after an intended change : mvn test -Dtest=HeapFootprintTest -Dapigee.heap.updateBaselines=true
+ */
+public class HeapFootprintTest {
+
+	private static final Logger LOG = Loggers.get(HeapFootprintTest.class);
+
+	private static final Path BASELINES = Paths.get("src/test/resources/heap-baselines.properties");
+	private static final String UPDATE_PROPERTY = "apigee.heap.updateBaselines";
+
+	// Accepted growth over the baselines : allocations are nearly deterministic, but the used heap after full GCs
+	// varies by a few regions from one run to the other, so small corpora are only guarded against gross regressions
+	private static final double TOLERANCE = 0.15;
+	private static final long RETAINED_SLACK = 4 * 1024 * 1024L;
+
+	private static Properties baselines;
+	private static Map<String, Long> measures = new TreeMap<>();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void loadBaselines() throws IOException {
+		baselines = new Properties();
+		try (InputStream is = Files.newInputStream(BASELINES)) {
+			baselines.load(is);
+		}
+	}
+
+	@AfterClass
+	public static void updateBaselines() throws IOException {
+		if(Boolean.getBoolean(UPDATE_PROPERTY)) {
+			List<String> lines = new ArrayList<>();
+			lines.add("# Heap footprint baselines in bytes, see HeapFootprintTest");
+			lines.add("# Update with : mvn test -Dtest=HeapFootprintTest -D" + UPDATE_PROPERTY + "=true");
+			measures.forEach((key, value) -> lines.add(key + "=" + value));
+			Files.write(BASELINES, lines, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testMyAwfulProxy() throws IOException {
+		measure("MyAwfulProxy", Paths.get("src/test/resources/MyAwfulProxy"));
+	}
+
+	@Test
+	public void testMyAwfulSharedFlow() throws IOException {
+		measure("MyAwfulSharedFlow", Paths.get("src/test/resources/MyAwfulSharedFlow"));
+	}
+
+	@Test
+	public void testGenerated() throws IOException {
+		Path root = new BundleGenerator(new BundleGenerator.Config()
+				.seed(33)
+				.proxies(8)
+				.sharedFlows(2)
+				.flows(6)
+				.policiesPerType(2)
+				.conditionComplexity(2)
+				.violationRate(0.1))
+			.generate(temporaryFolder.newFolder().toPath());
+		measure("generated", root);
+	}
+
+	private void measure(String corpus, Path baseDir) throws IOException {
+		Assume.assumeTrue("Allocated bytes are not measurable on this JVM", ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		SensorTester tester = new SensorTester(baseDir, temporaryFolder.newFolder().toPath());
+		// Parsing and checks run in the analysis thread, so that their allocations are counted
+		MapSettings settings = new MapSettings()
+				.setProperty(ApigeeProperties.CHECK_TIMEOUT_KEY, 0)
+				.setProperty(ApigeeProperties.PARSE_THREADS_KEY, 1);
+		int files = tester.getInputFiles().size();
+
+		// Warm up : class loading and static initializations are not part of the footprint
+		tester.analyze(settings);
+		BundleRecorder.clear();
+		QueryProfiler.clear();
+
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+		SensorContextTester context = tester.analyze(settings);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+		// What stays reachable from the plugin statics once the analysis is over
+		long retained = usedHeap();
+		BundleRecorder.clear();
+		QueryProfiler.clear();
+		retained -= usedHeap();
+
+		long allocatedPerFile = allocated / files;
+		LOG.info("{} : {} files, {} KB retained, {} KB allocated per file, {} issues", corpus, files, retained / 1024, allocatedPerFile / 1024, context.allIssues().size());
+		measures.put(corpus + ".retained", retained);
+		measures.put(corpus + ".allocatedPerFile", allocatedPerFile);
+
+		if(!Boolean.getBoolean(UPDATE_PROPERTY)) {
+			long retainedBaseline = baseline(corpus + ".retained");
+			long allocatedBaseline = baseline(corpus + ".allocatedPerFile");
+			assertThat(retained).as(corpus + " retained heap, baseline " + retainedBaseline)
+				.isLessThanOrEqualTo((long)(retainedBaseline * (1 + TOLERANCE)) + RETAINED_SLACK);
+			assertThat(allocatedPerFile).as(corpus + " bytes allocated per file, baseline " + allocatedBaseline)
+				.isLessThanOrEqualTo((long)(allocatedBaseline * (1 + TOLERANCE)));
+		}
+	}
+
+	private static long baseline(String key) {
+		String value = baselines.getProperty(key);
+		assertThat(value).as("No baseline for " + key + ", run with -D" + UPDATE_PROPERTY + "=true").isNotNull();
+		return Long.parseLong(value);
+	}
+
+	private static long usedHeap() {
+		for(int i=0; i<3; i++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.arkea.satd.sonar.xml.HeapMonitor;
+
+/**
+ * Heap pressure measured on the old generation pools only
+ */
+public class HeapMonitorTest {
+
+	@Test
+	public void testFullYoungGeneration() {
+		HeapMonitor monitor = new HeapMonitor(85, Arrays.asList(
+				pool("Eden Space", false, 100),
+				pool("Survivor Space", false, 100),
+				pool("Tenured Gen", true, 10)));
+		assertThat(monitor.isUnderPressure()).isFalse();
+		assertThat(monitor.getUsage()).isEqualTo("Tenured Gen 10% used, threshold 85%");
+	}
+
+	@Test
+	public void testFullOldGeneration() {
+		HeapMonitor monitor = new HeapMonitor(85, Arrays.asList(
+				pool("Eden Space", false, 0),
+				pool("Tenured Gen", true, 90)));
+		assertThat(monitor.isUnderPressure()).isTrue();
+		assertThat(new HeapMonitor(100, Arrays.asList(pool("Tenured Gen", true, 100))).isUnderPressure()).isFalse();
+	}
+
+	/**
+	 * Heap pool whose last collection left the percentage of its maximum used, the young generation pools only supporting a collection usage threshold
+	 */
+	private static MemoryPoolMXBean pool(String name, boolean oldGeneration, int percent) {
+		return (MemoryPoolMXBean) Proxy.newProxyInstance(HeapMonitorTest.class.getClassLoader(), new Class<?>[] {MemoryPoolMXBean.class}, (proxy, method, args) -> {
+			switch(method.getName()) {
+			case "getName":
+				return name;
+			case "getType":
+				return MemoryType.HEAP;
+			case "isUsageThresholdSupported":
+				return oldGeneration;
+			case "isCollectionUsageThresholdSupported":
+				return true;
+			case "getCollectionUsage":
+				return new MemoryUsage(0, percent * 1000L, 100000L, 100000L);
+			default:
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile.Type;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.config.internal.MapSettings;
+
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+
+/**
+ * Files exceeding the limits, analyzed from their root element only
+ */
+public class LargeFileGuardTest {
+
+	private static final String SCHEMA = "apiproxy/resources/xsd/Generated.xsd";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * The rules reading the root element of the large files report the same issues as with a full parse
+	 */
+	@Test
+	public void testElements() throws IOException {
+		Path root = copyWithSchema(schema(5000, 1));
+		SensorTester tester = new SensorTester(root, temporaryFolder.newFolder().toPath());
+
+		List<String> expected = issues(tester.analyze(limits(0, 0, 0)));
+		assertThat(expected).anyMatch(issue -> issue.startsWith("UnattachedResourceCheck " + SCHEMA + " 2"));
+		assertThat(issues(tester.analyze(limits(0, 1000, 0)))).containsExactlyElementsOf(expected);
+	}
+
+	/**
+	 * The issues of the deep files are reported on the line where their root element starts
+	 */
+	@Test
+	public void testDepth() throws IOException {
+		Path root = copyWithSchema(schema(1, 300));
+		SensorTester tester = new SensorTester(root, temporaryFolder.newFolder().toPath());
+
+		assertThat(issues(tester.analyze(new MapSettings())))
+				.filteredOn(issue -> issue.contains(SCHEMA))
+				.containsExactly("UnattachedResourceCheck " + SCHEMA + " 2");
+	}
+
+	@Test
+	public void testSize() throws IOException {
+		Path root = copyWithSchema(schema(20000, 1));
+		SensorTester tester = new SensorTester(root, temporaryFolder.newFolder().toPath());
+
+		assertThat(Files.size(root.resolve(SCHEMA))).isGreaterThan(1024 * 1024);
+		assertThat(issues(tester.analyze(limits(1024, 0, 0))))
+				.filteredOn(issue -> issue.contains(SCHEMA))
+				.containsExactly("UnattachedResourceCheck " + SCHEMA + " 2");
+	}
+
+	/**
+	 * The size of a zipped file is the uncompressed size of its entry, known before its contents are read :
+	 * the file is analyzed from its root element, even malformed further on
+	 */
+	@Test
+	public void testSizeOfZippedFile() throws IOException {
+		Path root = copyWithSchema(schema(20000, 1).replaceFirst("\n  <xs:element", "\n</malformed>\n  <xs:element"));
+		Path baseDir = temporaryFolder.newFolder().toPath();
+		SensorTester.zip(root, baseDir.resolve("MyAwfulProxy.zip"));
+
+		SensorContextTester context = SensorContextTester.create(baseDir);
+		context.setSettings(limits(1024, 0, 0));
+		DefaultFileSystem fs = new DefaultFileSystem(baseDir);
+		fs.setWorkDir(temporaryFolder.newFolder().toPath());
+		fs.add(TestInputFileBuilder.create("modulekey", "MyAwfulProxy.zip").setModuleBaseDir(baseDir).setType(Type.MAIN).build());
+		new ApigeeXmlSensor(fs, SensorTester.newCheckFactory()).execute(context);
+		ApigeeXmlSensor.setContext(null);
+
+		assertThat(Files.size(baseDir.resolve("MyAwfulProxy.zip"))).isLessThan(1024 * 1024);
+		assertThat(context.allIssues().stream().map(issue -> issue.primaryLocation().message()))
+				.filteredOn(message -> message.startsWith("[" + SCHEMA))
+				.hasSize(1)
+				.allMatch(message -> message.startsWith("[" + SCHEMA + ":2] "));
+	}
+
+	private static MapSettings limits(long maxSize, int maxElements, int maxDepth) {
+		return new MapSettings()
+				.setProperty(ApigeeProperties.MAX_FILE_SIZE_KEY, maxSize)
+				.setProperty(ApigeeProperties.MAX_FILE_ELEMENTS_KEY, maxElements)
+				.setProperty(ApigeeProperties.MAX_FILE_DEPTH_KEY, maxDepth);
+	}
+
+	/**
+	 * Copies MyAwfulProxy with a generated schema, whose root start tag is on one line when the nesting is flat, on two lines otherwise
+	 */
+	private Path copyWithSchema(String schema) throws IOException {
+		Path root = temporaryFolder.newFolder().toPath();
+		FileUtils.copyDirectory(Paths.get("src/test/resources/MyAwfulProxy").toFile(), root.toFile());
+		Files.write(root.resolve(SCHEMA), schema.getBytes(StandardCharsets.UTF_8));
+		return root;
+	}
+
+	/**
+	 * @return a schema of sibling element declarations, the first one nested in depth complex types
+	 */
+	private static String schema(int elements, int depth) {
+		StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append(depth > 1 ? "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"\n    elementFormDefault=\"qualified\">\n"
+				: "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" elementFormDefault=\"qualified\">\n");
+		for(int i=1; i<depth; i++) {
+			sb.append("<xs:element name=\"nested").append(i).append("\"><xs:complexType><xs:sequence>\n");
+		}
+		for(int i=1; i<depth; i++) {
+			sb.append("</xs:sequence></xs:complexType></xs:element>\n");
+		}
+		for(int i=0; i<elements; i++) {
+			sb.append("  <xs:element name=\"element").append(i).append("\" type=\"xs:string\" minOccurs=\"0\" maxOccurs=\"unbounded\"/>\n");
+		}
+		return sb.append("</xs:schema>\n").toString();
+	}
+
+	private static List<String> issues(SensorContextTester context) {
+		return context.allIssues().stream()
+				.map(LargeFileGuardTest::toString)
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	private static String toString(Issue issue) {
+		TextRange range = issue.primaryLocation().textRange();
+		return issue.ruleKey().rule()
+				+ " " + issue.primaryLocation().inputComponent().key().replace("modulekey:", "")
+				+ " " + (range == null ? "-" : range.start().line());
+	}
+}
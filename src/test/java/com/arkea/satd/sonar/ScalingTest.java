@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonarsource.analyzer.commons.xml.XmlFile;
+
+import com.arkea.satd.sonar.xml.BundleRecorder;
+
+/**
+ * Runs the sensor on generated repositories of growing sizes (1x, 4x, 16x),
+ * and fails when the analysis time or the heap grows faster than the repository.
+ * A linear analysis takes less than 4 times longer between 4x and 16x, because of the fixed costs.
+ * The former BundleRecorder scans, quadratic, made it 6 times longer at these sizes : the tolerance accepts up to 5 times.
+ */
+public class ScalingTest {
+
+	private static final Logger LOG = Loggers.get(ScalingTest.class);
+
+	private static final int[] FACTORS = {1, 4, 16};
+
+	// Accepted growth between two sizes, relatively to a linear growth
+	private static final double TIME_TOLERANCE = 1.25;
+	private static final double HEAP_TOLERANCE = 1.5;
+
+	private static final BundleGenerator.Config BASE = new BundleGenerator.Config()
+			.seed(2024)
+			.proxies(1)
+			.sharedFlows(1)
+			.flows(4)
+			.policiesPerType(1)
+			.conditionComplexity(3)
+			.violationRate(0.1);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testNearLinearScaling() throws IOException {
+		long[] times = new long[FACTORS.length];
+		long[] heaps = new long[FACTORS.length];
+		int[] files = new int[FACTORS.length];
+		int[] issues = new int[FACTORS.length];
+
+		for(int i=0; i<FACTORS.length; i++) {
+			BundleGenerator generator = new BundleGenerator(BASE.scale(FACTORS[i]));
+			Path root = generator.generate(temporaryFolder.newFolder().toPath());
+			SensorTester tester = new SensorTester(root, temporaryFolder.newFolder().toPath());
+			files[i] = generator.getFilesCount();
+
+			// The first run on the smallest repository warms the JIT up, the best of two runs is kept
+			if(i == 0) {
+				tester.analyze();
+			}
+			times[i] = Long.MAX_VALUE;
+			for(int run=0; run<2; run++) {
+				long start = System.nanoTime();
+				SensorContextTester context = tester.analyze();
+				times[i] = Math.min(times[i], System.nanoTime() - start);
+				issues[i] = context.allIssues().size();
+
+				// The documents stay in the BundleRecorder until the end of the analysis : this is the highest live heap of the analysis.
+				// The sensor releases them when it returns, they are recorded again to be measured.
+				// The used heap after full GCs is off by a few regions at times, the highest of the two measures is kept
+				for(DefaultInputFile inputFile : tester.getInputFiles()) {
+					BundleRecorder.storeFile(XmlFile.create(inputFile));
+				}
+				long heap = usedHeap();
+				BundleRecorder.release();
+				heaps[i] = Math.max(heaps[i], heap - usedHeap());
+			}
+		}
+
+		for(int i=1; i<FACTORS.length; i++) {
+			double sizeRatio = (double)files[i] / files[i - 1];
+			double timeRatio = (double)times[i] / times[i - 1];
+			double heapRatio = (double)heaps[i] / heaps[i - 1];
+			String description = String.format("%dx -> %dx : %d -> %d files, %d -> %d ms, %d -> %d KB retained",
+					FACTORS[i - 1], FACTORS[i], files[i - 1], files[i], times[i - 1] / 1_000_000, times[i] / 1_000_000, heaps[i - 1] / 1024, heaps[i] / 1024);
+
+			LOG.info(description);
+
+			// Issues are proportional to the size, this validates the generated repositories themselves
+			assertThat((double)issues[i] / issues[i - 1]).as(description).isBetween(sizeRatio / 2, sizeRatio * 2);
+			assertThat(heapRatio).as(description).isLessThan(sizeRatio * HEAP_TOLERANCE);
+			// The smallest repository is dominated by the fixed costs, only compare time from 4x
+			if(i > 1) {
+				assertThat(timeRatio).as(description).isLessThan(sizeRatio * TIME_TOLERANCE);
+			}
+		}
+	}
+
+	private static long usedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for(int i=0; i<3; i++) {
+			System.gc();
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
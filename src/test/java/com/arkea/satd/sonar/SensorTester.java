@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.sonar.api.batch.fs.InputFile.Type;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.FileMetadata;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.rule.internal.NewActiveRule;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.xml.Xml;
+
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+import com.arkea.satd.sonar.xml.CheckRepository;
+
+/**
+ * Runs the ApigeeXmlSensor, with all the rules activated, on all the files of a directory
+ */
+public class SensorTester extends AbstractXmlPluginTester {
+
+	private final Path baseDir;
+	private final Path workDir;
+	private final List<DefaultInputFile> inputFiles;
+
+	public SensorTester(Path baseDir, Path workDir) throws IOException {
+		this.baseDir = baseDir;
+		this.workDir = workDir;
+		try (Stream<Path> stream = Files.walk(baseDir)) {
+			List<Path> paths = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+			this.inputFiles = new ArrayList<>();
+			for(Path path : paths) {
+				inputFiles.add(createInputFile(baseDir, path));
+			}
+		}
+	}
+
+	public List<DefaultInputFile> getInputFiles() {
+		return inputFiles;
+	}
+
+	/**
+	 * Runs a new sensor on a new context
+	 * @return the context, holding the issues
+	 */
+	public SensorContextTester analyze(MapSettings settings) {
+		SensorContextTester context = SensorContextTester.create(baseDir);
+		context.setSettings(settings);
+		return analyze(context, inputFiles);
+	}
+
+	/**
+	 * Runs a new sensor on some of the files, as SonarLint does
+	 * @return the context, holding the issues
+	 */
+	public SensorContextTester analyze(SensorContextTester context, List<DefaultInputFile> files) {
+		DefaultFileSystem fs = new DefaultFileSystem(baseDir);
+		fs.setWorkDir(workDir);
+		files.forEach(fs::add);
+
+		ApigeeXmlSensor sensor = new ApigeeXmlSensor(fs, newCheckFactory());
+		sensor.execute(context);
+
+		// Important : clean the context !!!!
+		ApigeeXmlSensor.setContext(null);
+		return context;
+	}
+
+	public SensorContextTester analyze() {
+		return analyze(new MapSettings());
+	}
+
+	public static CheckFactory newCheckFactory() {
+		ActiveRulesBuilder activeRuleBuilder = new ActiveRulesBuilder();
+		for(Class<?> check : CheckRepository.getCheckClasses()) {
+			activeRuleBuilder.addRule(new NewActiveRule.Builder()
+					.setRuleKey(RuleKey.of(CheckRepository.REPOSITORY_KEY, check.getSimpleName()))
+					.build());
+		}
+		return new CheckFactory(activeRuleBuilder.build());
+	}
+
+	/**
+	 * Zips all the files of the directory, with paths relative to the directory
+	 * @return the archive
+	 */
+	public static Path zip(Path directory, Path archive) throws IOException {
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(archive)); Stream<Path> stream = Files.walk(directory)) {
+			for(Path path : stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+				zos.putNextEntry(new ZipEntry(directory.relativize(path).toString().replace('\\', '/')));
+				Files.copy(path, zos);
+				zos.closeEntry();
+			}
+		}
+		return archive;
+	}
+
+	public static DefaultInputFile createInputFile(Path baseDir, Path path) throws IOException {
+		DefaultInputFile inputFile = TestInputFileBuilder.create("modulekey", baseDir.relativize(path).toString().replace('\\', '/'))
+				.setModuleBaseDir(baseDir)
+				.setType(Type.MAIN)
+				.setLanguage(Xml.KEY)
+				.setCharset(StandardCharsets.UTF_8)
+				.build();
+		try (InputStream is = new FileInputStream(inputFile.file())) {
+			return inputFile.setMetadata(new FileMetadata(s -> {}).readMetadata(is, StandardCharsets.UTF_8, inputFile.absolutePath()));
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile.Type;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.config.internal.MapSettings;
+
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+import com.arkea.satd.sonar.xml.ApigeeXmlSensor;
+
+/**
+ * Analysis of a bundle zipped in the sources
+ */
+public class ZipBundleTest {
+
+	private static final Path MY_AWFUL_PROXY = Paths.get("src/test/resources/MyAwfulProxy");
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * The issues of the zipped bundle are reported on the archive, with the entry path and line of the issue in the message
+	 */
+	@Test
+	public void testZippedBundle() throws IOException {
+		Path baseDir = temporaryFolder.newFolder().toPath();
+		SensorTester.zip(MY_AWFUL_PROXY, baseDir.resolve("MyAwfulProxy.zip"));
+
+		Collection<Issue> issues = analyze(baseDir, new MapSettings()).allIssues();
+		assertThat(issues).allSatisfy(issue -> {
+			assertThat(issue.primaryLocation().inputComponent().key()).isEqualTo("modulekey:MyAwfulProxy.zip");
+			assertThat(issue.primaryLocation().textRange()).isNull();
+			assertThat(issue.primaryLocation().message()).matches("\\[apiproxy/.+:\\d+\\] .+");
+		});
+		assertThat(issues.stream().map(issue -> issue.primaryLocation().message()).collect(Collectors.toList()))
+			.contains("[apiproxy/policies/Python-1.xml:5] Avoid Python language.");
+
+		List<String> expected = new SensorTester(MY_AWFUL_PROXY, temporaryFolder.newFolder().toPath()).analyze().allIssues().stream()
+				.map(issue -> "[" + issue.primaryLocation().inputComponent().key().substring("modulekey:".length()) + ":" + issue.primaryLocation().textRange().start().line() + "] " + issue.primaryLocation().message())
+				.sorted()
+				.collect(Collectors.toList());
+		assertThat(issues.stream().map(issue -> issue.primaryLocation().message()).sorted().collect(Collectors.toList()))
+			.isEqualTo(expected);
+	}
+
+	@Test
+	public void testArchivesDisabled() throws IOException {
+		Path baseDir = temporaryFolder.newFolder().toPath();
+		SensorTester.zip(MY_AWFUL_PROXY, baseDir.resolve("MyAwfulProxy.zip"));
+
+		assertThat(analyze(baseDir, new MapSettings().setProperty(ApigeeProperties.ARCHIVES_KEY, false)).allIssues()).isEmpty();
+	}
+
+	private SensorContextTester analyze(Path baseDir, MapSettings settings) throws IOException {
+		DefaultInputFile archive = TestInputFileBuilder.create("modulekey", "MyAwfulProxy.zip")
+				.setModuleBaseDir(baseDir)
+				.setType(Type.MAIN)
+				.build();
+
+		SensorContextTester context = SensorContextTester.create(baseDir);
+		context.setSettings(settings);
+		DefaultFileSystem fs = new DefaultFileSystem(baseDir);
+		fs.setWorkDir(temporaryFolder.newFolder().toPath());
+		fs.add(archive);
+
+		new ApigeeXmlSensor(fs, SensorTester.newCheckFactory()).execute(context);
+		ApigeeXmlSensor.setContext(null);
+		return context;
+	}
+
+}
@@ -205,6 +205,39 @@ public class ThreatProtectionCheckTest extends AbstractCheckTester {
 		assertEquals(0, issues.size());
 	}
 	
+	@Test
+	public void test_json_ok5_condition_in_second_flow() throws Exception {
+		
+		// The step is guarded by the condition of its own Flow, not by the condition of the first Flow
+		XmlFile proxyEndpointXML = createTempFile("proxyEndpoint.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\r\n" + 
+				"<ProxyEndpoint name=\"default\">\r\n" + 
+				"    <Flows>\r\n" + 
+				"        <Flow name=\"get resources\">\r\n" + 
+				"            <Condition>(proxy.pathsuffix MatchesPath \"/resources\")</Condition>\r\n" + 
+				"        </Flow>\r\n" + 
+				"        <Flow name=\"create resource\">\r\n" + 
+				"            <Condition>(proxy.pathsuffix MatchesPath \"/resources\") and (request.verb = \"POST\")</Condition>\r\n" + 
+				"            <Request>\r\n" + 
+				"                <Step>\r\n" + 
+				"                    <Name>JSON-Threat-Protection-1</Name>\r\n" + 
+				"                </Step>\r\n" + 
+				"            </Request>\r\n" + 
+				"        </Flow>\r\n" + 
+				"    </Flows>\r\n" + 
+				"</ProxyEndpoint>" 
+				);
+		BundleRecorder.clear();
+		BundleRecorder.storeFile(proxyEndpointXML);
+
+		Collection<Issue> issues = getIssues(check, 
+			"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\r\n" + 
+			"<JSONThreatProtection async=\"false\" continueOnError=\"false\" enabled=\"true\" name=\"JSON-Threat-Protection-1\">\r\n" + 
+			"    <DisplayName>JSON-Threat-Protection-1</DisplayName>\r\n" + 
+			"</JSONThreatProtection>"
+		);
+		assertEquals(0, issues.size());
+	}
+
 	@Test
 	public void test_json_ko1() throws Exception {
 		
@@ -299,4 +332,40 @@ public class ThreatProtectionCheckTest extends AbstractCheckTester {
 		}		
 	
 	}		
+
+	/**
+	 * The Condition of a FaultRule doesn't guard its steps
+	 */
+	@Test
+	public void test_json_ko2_condition_in_faultRule() throws Exception {
+		
+		// Fake ProxyEndpoint file
+		XmlFile proxyEndpointXML = createTempFile("proxyEndpoint.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\r\n" + 
+				"<ProxyEndpoint name=\"default\">\r\n" + 
+				"    <Description/>\r\n" + 
+				"    <PreFlow name=\"PreFlow\">\r\n" + 
+				"        <Request/>\r\n" + 
+				"        <Response/>\r\n" + 
+				"    </PreFlow>\r\n" + 
+				"    <FaultRules>\r\n" + 
+				"        <FaultRule name=\"invalid content\">\r\n" + 
+				"            <Step>\r\n" + 
+				"                <Name>JSON-Threat-Protection-1</Name>\r\n" + 
+				"            </Step>\r\n" + 
+				"            <Condition>(fault.name = \"InvalidContent\") and (request.verb = \"POST\")</Condition>\r\n" + 
+				"        </FaultRule>\r\n" + 
+				"    </FaultRules>\r\n" + 
+				"</ProxyEndpoint>" 
+				);
+		BundleRecorder.clear();
+		BundleRecorder.storeFile(proxyEndpointXML);
+
+		Collection<Issue> issues = getIssues(check, 
+			"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\r\n" + 
+			"<JSONThreatProtection async=\"false\" continueOnError=\"false\" enabled=\"true\" name=\"JSON-Threat-Protection-1\">\r\n" + 
+			"    <DisplayName>JSON-Threat-Protection-1</DisplayName>\r\n" + 
+			"</JSONThreatProtection>"
+		);
+		assertEquals(1, issues.size());
+	}
 }
\ No newline at end of file
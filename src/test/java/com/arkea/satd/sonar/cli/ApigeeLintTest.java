@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.issue.Issue;
+
+import com.arkea.satd.sonar.BundleGenerator;
+import com.arkea.satd.sonar.SensorTester;
+
+public class ApigeeLintTest {
+
+	private static final Path MY_AWFUL_PROXY = Paths.get("src/test/resources/MyAwfulProxy").toAbsolutePath();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * The command line analyzer finds the same issues as the sensor in a SonarQube analysis
+	 */
+	@Test
+	public void testSameIssuesAsSensor() throws IOException {
+		List<Path> files = ApigeeLint.collectFiles(Collections.singletonList(MY_AWFUL_PROXY));
+		List<String> issues = ApigeeLint.analyze(MY_AWFUL_PROXY, files, new LocalActiveRules(), Collections.emptyMap()).stream()
+				.map(issue -> toString(issue.ruleKey().rule(), issue.primaryLocation().inputComponent().key(), issue.primaryLocation().textRange(), issue.primaryLocation().message()))
+				.sorted()
+				.collect(Collectors.toList());
+
+		List<String> expected = new SensorTester(MY_AWFUL_PROXY, temporaryFolder.newFolder().toPath()).analyze().allIssues().stream()
+				.map(ApigeeLintTest::toString)
+				.sorted()
+				.collect(Collectors.toList());
+
+		assertThat(issues).isNotEmpty().containsExactlyElementsOf(expected);
+	}
+
+	/**
+	 * A zipped bundle is analysed without extraction, with the issues located on the entries of the archive
+	 */
+	@Test
+	public void testZippedBundle() throws IOException {
+		Path baseDir = temporaryFolder.newFolder().toPath();
+		Path archive = SensorTester.zip(MY_AWFUL_PROXY, baseDir.resolve("MyAwfulProxy.zip"));
+		List<Path> files = ApigeeLint.collectFiles(Collections.singletonList(baseDir));
+		assertThat(files).containsExactly(archive);
+
+		List<String> issues = ApigeeLint.analyze(baseDir, files, new LocalActiveRules(), Collections.emptyMap()).stream()
+				.map(issue -> toString(issue.ruleKey().rule(), issue.primaryLocation().inputComponent().key().replace("MyAwfulProxy.zip!/", ""), issue.primaryLocation().textRange(), issue.primaryLocation().message()))
+				.sorted()
+				.collect(Collectors.toList());
+
+		List<String> expected = ApigeeLint.analyze(MY_AWFUL_PROXY, ApigeeLint.collectFiles(Collections.singletonList(MY_AWFUL_PROXY)), new LocalActiveRules(), Collections.emptyMap()).stream()
+				.map(issue -> toString(issue.ruleKey().rule(), issue.primaryLocation().inputComponent().key(), issue.primaryLocation().textRange(), issue.primaryLocation().message()))
+				.sorted()
+				.collect(Collectors.toList());
+
+		assertThat(issues).isNotEmpty().containsExactlyElementsOf(expected);
+	}
+
+	/**
+	 * A file is analysed with its whole bundle
+	 */
+	@Test
+	public void testCollectFiles() throws IOException {
+		Path policy = MY_AWFUL_PROXY.resolve("apiproxy/policies/Spike-Arrest-1.xml");
+		List<Path> files = ApigeeLint.collectFiles(Collections.singletonList(policy));
+		assertThat(files)
+			.isEqualTo(ApigeeLint.collectFiles(Collections.singletonList(MY_AWFUL_PROXY)))
+			.contains(policy, MY_AWFUL_PROXY.resolve("apiproxy/proxies/default.xml"), MY_AWFUL_PROXY.resolve("apiproxy/resources/wsdl/Unattached-1.wsdl"))
+			.doesNotContain(MY_AWFUL_PROXY.resolve("apiproxy/resources/py/Python-1.py"));
+	}
+
+	@Test
+	public void testTextFormat() throws IOException {
+		Path report = temporaryFolder.getRoot().toPath().resolve("report.txt");
+		assertThat(run("-o", report.toString(), MY_AWFUL_PROXY.toString())).isEqualTo(ApigeeLint.EXIT_ISSUES);
+		List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+		// Paths are relative to the working directory
+		assertThat(lines).contains("src/test/resources/MyAwfulProxy/apiproxy/policies/Python-1.xml:5:5: MAJOR AvoidPythonCheck Avoid Python language.");
+		assertThat(lines.get(lines.size() - 1)).isEqualTo((lines.size() - 1) + " issue(s)");
+	}
+
+	@Test
+	public void testJsonAndSarifFormats() throws IOException {
+		Path json = temporaryFolder.getRoot().toPath().resolve("report.json");
+		assertThat(run("-f", "json", "-o", json.toString(), MY_AWFUL_PROXY.toString())).isEqualTo(ApigeeLint.EXIT_ISSUES);
+		assertThat(new String(Files.readAllBytes(json), StandardCharsets.UTF_8))
+			.startsWith("{\n  \"issues\": [")
+			.contains("\"rule\": \"apigee-xml:AvoidPythonCheck\", \"severity\": \"MAJOR\", \"file\": ")
+			.contains("\"startLine\": 5, \"startColumn\": 5, \"endLine\": 5, \"endColumn\": 48, \"message\": \"Avoid Python language.\"");
+
+		Path sarif = temporaryFolder.getRoot().toPath().resolve("report.sarif");
+		assertThat(run("--format", "SARIF", "--output", sarif.toString(), MY_AWFUL_PROXY.toString())).isEqualTo(ApigeeLint.EXIT_ISSUES);
+		assertThat(new String(Files.readAllBytes(sarif), StandardCharsets.UTF_8))
+			.contains("\"version\": \"2.1.0\"")
+			.contains("{\"id\": \"AvoidPythonCheck\", \"shortDescription\": {\"text\": \"Avoid Python language\"}, \"defaultConfiguration\": {\"level\": \"warning\"}}")
+			.contains("{\"ruleId\": \"AvoidPythonCheck\", \"level\": \"warning\", \"message\": {\"text\": \"Avoid Python language.\"}");
+	}
+
+	@Test
+	public void testExitCodes() throws IOException {
+		Path clean = new BundleGenerator(new BundleGenerator.Config().violationRate(0)).generate(temporaryFolder.newFolder().toPath());
+		assertThat(run(clean.toString())).isEqualTo(ApigeeLint.EXIT_OK);
+		assertThat(run("-f", "xml", clean.toString())).isEqualTo(ApigeeLint.EXIT_ERROR);
+		assertThat(run("--unknown", clean.toString())).isEqualTo(ApigeeLint.EXIT_ERROR);
+		assertThat(run()).isEqualTo(ApigeeLint.EXIT_ERROR);
+		assertThat(run(clean.resolve("missing").toString())).isEqualTo(ApigeeLint.EXIT_ERROR);
+	}
+
+	/**
+	 * In watch mode, the report is written again after each change
+	 */
+	@Test(timeout = 60000)
+	public void testWatch() throws Exception {
+		Path clean = new BundleGenerator(new BundleGenerator.Config().violationRate(0)).generate(temporaryFolder.newFolder().toPath());
+		Path report = temporaryFolder.newFile().toPath();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int[] exitCode = {-1};
+		Thread watch = new Thread(() -> exitCode[0] = ApigeeLint.run(new String[] {"-w", "-o", report.toString(), clean.toString()}, System.out, new PrintStream(err, true)));
+		watch.start();
+		while(!err.toString().contains("Watching for changes")) {
+			Thread.sleep(10);
+		}
+		assertThat(Files.readAllLines(report)).containsExactly("0 issue(s)");
+
+		Path policies;
+		try (Stream<Path> stream = Files.walk(clean)) {
+			policies = stream.filter(path -> path.endsWith("policies")).findFirst().get();
+		}
+		Files.write(policies.resolve("Unattached-1.xml"), "<AssignMessage name=\"Unattached-1\"/>".getBytes(StandardCharsets.UTF_8));
+		while(!err.toString().contains("1 file(s) parsed")) {
+			Thread.sleep(10);
+		}
+		assertThat(String.join("\n", Files.readAllLines(report))).contains("UnattachedPolicyCheck");
+
+		watch.interrupt();
+		watch.join();
+		assertThat(exitCode[0]).isEqualTo(ApigeeLint.EXIT_ISSUES);
+	}
+
+	private static int run(String... args) {
+		PrintStream stream = new PrintStream(new ByteArrayOutputStream());
+		return ApigeeLint.run(args, stream, stream);
+	}
+
+	private static String toString(Issue issue) {
+		String file = issue.primaryLocation().inputComponent().key();
+		return toString(issue.ruleKey().rule(), file.substring(file.indexOf(':') + 1), issue.primaryLocation().textRange(), issue.primaryLocation().message());
+	}
+
+	private static String toString(String rule, String file, TextRange range, String message) {
+		return rule + " " + file + " " + (range == null ? "-" : range.start().line() + ":" + range.start().lineOffset() + "-" + range.end().line() + ":" + range.end().lineOffset()) + " " + message;
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.TextRange;
+
+import com.arkea.satd.sonar.SensorTester;
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+
+public class BulkAnalysisTest {
+
+	private static final Path MY_AWFUL_PROXY = Paths.get("src/test/resources/MyAwfulProxy/apiproxy");
+	private static final Path MY_AWFUL_SHARED_FLOW = Paths.get("src/test/resources/MyAwfulSharedFlow/sharedflowbundle");
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path export;
+
+	/**
+	 * Export holding 3 revisions of MyAwfulProxy, the third one being also zipped, and 1 revision of MyAwfulSharedFlow
+	 */
+	@Before
+	public void createExport() throws IOException {
+		export = temporaryFolder.newFolder().toPath();
+		revision(MY_AWFUL_PROXY, export.resolve("apis/MyAwfulProxy/1/apiproxy"), 1);
+		revision(MY_AWFUL_PROXY, export.resolve("apis/MyAwfulProxy/2/apiproxy"), 2);
+		Path third = revision(MY_AWFUL_PROXY, export.resolve("apis/MyAwfulProxy/3/apiproxy"), 3);
+		Path endpoint = third.resolve("proxies/default.xml");
+		Files.write(endpoint, new String(Files.readAllBytes(endpoint), StandardCharsets.UTF_8).replace("<Name>Spike-Arrest-1</Name>", "<Name>Spike-Arrest-2</Name>").getBytes(StandardCharsets.UTF_8));
+		Files.createDirectories(export.resolve("zips"));
+		SensorTester.zip(third.getParent(), export.resolve("zips/MyAwfulProxy_rev3.zip"));
+		revision(MY_AWFUL_SHARED_FLOW, export.resolve("sharedflows/MyAwfulSharedFlow/1/sharedflowbundle"), 1);
+	}
+
+	@Test
+	public void testFind() throws IOException {
+		List<ExportedBundle> bundles = ExportedBundle.find(export);
+		assertThat(bundles.stream().map(bundle -> bundle.getType() + " " + bundle.getName() + " " + bundle.getRevision()))
+			.containsExactly("apiproxy MyAwfulProxy 1", "apiproxy MyAwfulProxy 2", "apiproxy MyAwfulProxy 3", "sharedflowbundle MyAwfulSharedFlow 1", "apiproxy MyAwfulProxy 3");
+		assertThat(bundles.get(4).isZip()).isTrue();
+
+		assertThat(ExportedBundle.select(bundles, ExportedBundle.Revisions.ALL, Collections.emptySet())).isEqualTo(bundles);
+		assertThat(ExportedBundle.select(bundles, ExportedBundle.Revisions.LATEST, Collections.emptySet()))
+			.containsExactly(bundles.get(2), bundles.get(3));
+
+		Path deployments = Files.write(temporaryFolder.newFile().toPath(), Arrays.asList("# proxy revision", "MyAwfulProxy 2", "", "MyAwfulSharedFlow,1"));
+		assertThat(ExportedBundle.select(bundles, ExportedBundle.Revisions.DEPLOYED, ExportedBundle.readDeployments(deployments)))
+			.containsExactly(bundles.get(1), bundles.get(3));
+	}
+
+	/**
+	 * The issues are the ones of the bundles analyzed one by one, the identical bundles and files being analyzed once
+	 */
+	@Test
+	public void testSameIssuesAsBundlesAlone() throws Exception {
+		Path baseDir = Paths.get("").toAbsolutePath();
+		List<ExportedBundle> bundles = ExportedBundle.find(export);
+		BulkAnalysis analysis = new BulkAnalysis(baseDir, new LocalActiveRules(), properties(), 4);
+		List<String> issues = toStrings(analysis.analyze(bundles));
+
+		List<String> expected = new ArrayList<>();
+		for(ExportedBundle bundle : bundles) {
+			expected.addAll(toStrings(ApigeeLint.analyze(baseDir, ApigeeLint.collectFiles(Collections.singletonList(bundle.getPath())), new LocalActiveRules(), properties())));
+		}
+		Collections.sort(expected);
+
+		assertThat(issues).isNotEmpty().isEqualTo(expected);
+		assertThat(analysis.getBundlesCount()).isEqualTo(5);
+		// The zipped third revision
+		assertThat(analysis.getCopiedBundlesCount()).isEqualTo(1);
+		// All the files of the second revision but its descriptor, and most of the third revision
+		assertThat(analysis.getCopiedFilesCount()).isGreaterThan(40);
+	}
+
+	@Test
+	public void testCommandLine() throws IOException {
+		Path report = temporaryFolder.newFile().toPath();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		PrintStream stream = new PrintStream(err, true);
+		assertThat(ApigeeLint.run(new String[] {"--export", "--revisions", "latest", "-j", "2", "-o", report.toString(), export.toString()}, stream, stream))
+			.isEqualTo(ApigeeLint.EXIT_ISSUES);
+		assertThat(err.toString()).startsWith("5 bundle(s) found, 2 analyzed");
+		assertThat(Files.readAllLines(report))
+			.anyMatch(line -> line.contains("apis/MyAwfulProxy/3/apiproxy/policies/Spike-Arrest-1.xml") && line.contains("UnattachedPolicyCheck"))
+			.noneMatch(line -> line.contains("apis/MyAwfulProxy/2/"));
+
+		assertThat(ApigeeLint.run(new String[] {"--export", "--revisions", "deployed", export.toString()}, stream, stream)).isEqualTo(ApigeeLint.EXIT_ERROR);
+		assertThat(ApigeeLint.run(new String[] {"--export", "-j", "0", export.toString()}, stream, stream)).isEqualTo(ApigeeLint.EXIT_ERROR);
+	}
+
+	private static Path revision(Path source, Path target, int revision) throws IOException {
+		try (Stream<Path> stream = Files.walk(source)) {
+			for(Path path : stream.collect(Collectors.toList())) {
+				Path copy = target.resolve(source.relativize(path).toString());
+				if(Files.isDirectory(path)) {
+					Files.createDirectories(copy);
+				} else if(path.getParent().equals(source)) {
+					// Descriptor
+					String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+					Files.write(copy, content.replaceFirst("revision=\"\\d+\"", "revision=\"" + revision + "\"").getBytes(StandardCharsets.UTF_8));
+				} else {
+					Files.copy(path, copy);
+				}
+			}
+		}
+		return target;
+	}
+
+	private static Map<String, String> properties() {
+		return Collections.singletonMap(ApigeeProperties.CHECK_TIMEOUT_KEY, "0");
+	}
+
+	private static List<String> toStrings(Collection<LocalIssue> issues) {
+		return issues.stream()
+				.map(issue -> {
+					TextRange range = issue.primaryLocation().textRange();
+					return issue.ruleKey().rule() + " " + issue.primaryLocation().inputComponent().key() + " "
+							+ (range == null ? "-" : range.start().line() + ":" + range.start().lineOffset() + "-" + range.end().line() + ":" + range.end().lineOffset())
+							+ " " + issue.primaryLocation().message()
+							+ issue.secondaryLocations().stream().map(location -> " " + location.inputComponent().key() + " " + location.message()).collect(Collectors.joining());
+				})
+				.sorted()
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Credit Mutuel Arkea
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package com.arkea.satd.sonar.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.TextRange;
+
+import com.arkea.satd.sonar.BundleGenerator;
+import com.arkea.satd.sonar.SensorTester;
+import com.arkea.satd.sonar.xml.ApigeeProperties;
+import com.arkea.satd.sonar.xml.CheckRepository;
+
+public class IncrementalAnalysisTest {
+
+	private static final Path MY_AWFUL_PROXY = Paths.get("src/test/resources/MyAwfulProxy");
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testBundleChecks() {
+		assertThat(CheckRepository.getCheckClasses()).containsAll(CheckRepository.getBundleCheckClasses());
+	}
+
+	/**
+	 * After each change, the issues are the same as the ones of a whole analysis of the changed files
+	 */
+	@Test
+	public void testChanges() throws IOException {
+		Path baseDir = copy(MY_AWFUL_PROXY, temporaryFolder.newFolder().toPath());
+		Path policies = baseDir.resolve("apiproxy/policies");
+		Path endpoint = baseDir.resolve("apiproxy/proxies/default.xml");
+
+		try (IncrementalAnalysis analysis = new IncrementalAnalysis(baseDir, files(baseDir), new LocalActiveRules(), properties())) {
+			assertSameIssues(analysis, baseDir);
+
+			// Modified endpoint : the Spike Arrest policy is not attached anymore
+			Files.write(endpoint, new String(Files.readAllBytes(endpoint), StandardCharsets.UTF_8).replace("<Name>Spike-Arrest-1</Name>", "<Name>Spike-Arrest-2</Name>").getBytes(StandardCharsets.UTF_8));
+			assertThat(analysis.update(Collections.singletonList(endpoint))).isEqualTo(1);
+			assertSameIssues(analysis, baseDir);
+
+			// Created and deleted policies
+			Path created = Files.write(policies.resolve("Spike-Arrest-2.xml"), "<SpikeArrest name=\"Spike-Arrest-2\"><Rate>30ps</Rate></SpikeArrest>".getBytes(StandardCharsets.UTF_8));
+			Path deleted = policies.resolve("JSON-Threat-Protection-1.xml");
+			Files.delete(deleted);
+			assertThat(analysis.update(Arrays.asList(created, deleted))).isEqualTo(1);
+			assertSameIssues(analysis, baseDir);
+
+			// File being written
+			Files.write(created, "<SpikeArrest name=\"Spike".getBytes(StandardCharsets.UTF_8));
+			analysis.update(Collections.singletonList(created));
+			assertSameIssues(analysis, baseDir);
+		}
+	}
+
+	@Test
+	public void testGeneratedBundles() throws IOException {
+		Path baseDir = new BundleGenerator(new BundleGenerator.Config().seed(7)).generate(temporaryFolder.newFolder().toPath());
+		List<Path> files = files(baseDir);
+
+		try (IncrementalAnalysis analysis = new IncrementalAnalysis(baseDir, files, new LocalActiveRules(), properties())) {
+			assertSameIssues(analysis, baseDir);
+			for(Path file : Arrays.asList(files.get(0), files.get(files.size() / 2), files.get(files.size() - 1))) {
+				Files.delete(file);
+				analysis.update(Collections.singletonList(file));
+				assertSameIssues(analysis, baseDir);
+			}
+		}
+	}
+
+	@Test
+	public void testZippedBundle() throws IOException {
+		Path baseDir = temporaryFolder.newFolder().toPath();
+		Path archive = SensorTester.zip(MY_AWFUL_PROXY, baseDir.resolve("MyAwfulProxy.zip"));
+
+		try (IncrementalAnalysis analysis = new IncrementalAnalysis(baseDir, files(baseDir), new LocalActiveRules(), properties())) {
+			assertSameIssues(analysis, baseDir);
+			Path other = new BundleGenerator(new BundleGenerator.Config().violationRate(0)).generate(temporaryFolder.newFolder().toPath());
+			SensorTester.zip(other, archive);
+			assertThat(analysis.update(Collections.singletonList(archive))).isPositive();
+			assertSameIssues(analysis, baseDir);
+			assertThat(analysis.getIssues()).isEmpty();
+		}
+	}
+
+	private static void assertSameIssues(IncrementalAnalysis analysis, Path baseDir) throws IOException {
+		List<String> expected = toStrings(ApigeeLint.analyze(baseDir, files(baseDir), new LocalActiveRules(), properties()));
+		assertThat(toStrings(analysis.getIssues())).isEqualTo(expected);
+	}
+
+	private static List<Path> files(Path baseDir) throws IOException {
+		return ApigeeLint.collectFiles(Collections.singletonList(baseDir));
+	}
+
+	private static Map<String, String> properties() {
+		return Collections.singletonMap(ApigeeProperties.CHECK_TIMEOUT_KEY, "0");
+	}
+
+	private static List<String> toStrings(Collection<LocalIssue> issues) {
+		return issues.stream()
+				.map(issue -> {
+					TextRange range = issue.primaryLocation().textRange();
+					return issue.ruleKey().rule() + " " + issue.primaryLocation().inputComponent().key() + " "
+							+ (range == null ? "-" : range.start().line() + ":" + range.start().lineOffset() + "-" + range.end().line() + ":" + range.end().lineOffset())
+							+ " " + issue.primaryLocation().message();
+				})
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	private static Path copy(Path source, Path target) throws IOException {
+		try (Stream<Path> stream = Files.walk(source)) {
+			for(Path path : stream.collect(Collectors.toList())) {
+				Path copy = target.resolve(source.relativize(path).toString());
+				if(Files.isDirectory(path)) {
+					Files.createDirectories(copy);
+				} else {
+					Files.copy(path, copy);
+				}
+			}
+		}
+		return target;
+	}
+}